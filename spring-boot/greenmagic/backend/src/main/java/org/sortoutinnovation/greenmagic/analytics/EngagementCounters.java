@@ -0,0 +1,169 @@
+package org.sortoutinnovation.greenmagic.analytics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory engagement counters per product (listing impressions, product page views, cart additions)
+ * Each product has a cell of LongAdders, which stripe concurrent increments over per-thread slots,
+ * so recording is lock-free and never contends on a single counter, even for a hot product
+ * Counters are never reset: a drain reports what was added since the last committed drain, so
+ * increments that race with a drain are picked up by the next one instead of being lost, and a
+ * failed write is simply retried with the next drain
+ * Draining is meant to be done by a single thread
+ */
+public class EngagementCounters {
+
+    /**
+     * Counts of one product not yet written out
+     */
+    public record Delta(Integer productId, long impressions, long views, long cartAdditions) {
+
+        public boolean isEmpty() {
+            return impressions == 0 && views == 0 && cartAdditions == 0;
+        }
+    }
+
+    private static final class Cell {
+        private final LongAdder impressions = new LongAdder();
+        private final LongAdder views = new LongAdder();
+        private final LongAdder cartAdditions = new LongAdder();
+
+        // Only touched by the draining thread
+        private long flushedImpressions;
+        private long flushedViews;
+        private long flushedCartAdditions;
+        private int idleDrains;
+    }
+
+    private final ConcurrentHashMap<Integer, Cell> cells = new ConcurrentHashMap<>();
+    private final int maxIdleDrains;
+
+    // Cells dropped from the map; a writer that looked one up just before it was dropped may
+    // still add to it, so it is kept until a drain finds it quiet (only a writer stalled for a
+    // whole drain interval can still lose its increment)
+    private List<Map.Entry<Integer, Cell>> retired = new ArrayList<>();
+
+    // Cell values reported by the last drain, applied by commit()
+    private final List<Snapshot> drained = new ArrayList<>();
+
+    private record Snapshot(Cell cell, long impressions, long views, long cartAdditions) {
+    }
+
+    /**
+     * @param maxIdleDrains number of consecutive drains without activity after which a product's
+     *                      cell is dropped, so the map only holds recently active products
+     */
+    public EngagementCounters(int maxIdleDrains) {
+        this.maxIdleDrains = maxIdleDrains;
+    }
+
+    public void addImpression(Integer productId) {
+        if (productId != null) {
+            cell(productId).impressions.increment();
+        }
+    }
+
+    public void addView(Integer productId) {
+        if (productId != null) {
+            cell(productId).views.increment();
+        }
+    }
+
+    public void addCartAddition(Integer productId) {
+        if (productId != null) {
+            cell(productId).cartAdditions.increment();
+        }
+    }
+
+    /**
+     * Counts added since the last committed drain, for every product with activity
+     * The counters are not changed; call commit() once the result has been persisted
+     * @return List of non-empty deltas, one per product
+     */
+    public List<Delta> drain() {
+        drained.clear();
+        Map<Integer, Delta> deltas = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Cell> entry : cells.entrySet()) {
+            collect(deltas, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Integer, Cell> entry : retired) {
+            collect(deltas, entry.getKey(), entry.getValue());
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    /**
+     * Mark the counts of the last drain as persisted and drop cells that have been idle for too long
+     */
+    public void commit() {
+        for (Snapshot snapshot : drained) {
+            Cell cell = snapshot.cell();
+            cell.flushedImpressions = snapshot.impressions();
+            cell.flushedViews = snapshot.views();
+            cell.flushedCartAdditions = snapshot.cartAdditions();
+            cell.idleDrains = 0;
+        }
+        drained.clear();
+
+        List<Map.Entry<Integer, Cell>> stillRetiring = new ArrayList<>();
+        for (Map.Entry<Integer, Cell> entry : retired) {
+            // Only keep a retired cell if a late increment arrived after the last drain
+            if (!deltaOf(entry.getKey(), entry.getValue()).isEmpty()) {
+                stillRetiring.add(entry);
+            }
+        }
+        for (Map.Entry<Integer, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            if (deltaOf(entry.getKey(), cell).isEmpty() && ++cell.idleDrains > maxIdleDrains
+                    && cells.remove(entry.getKey(), cell)) {
+                stillRetiring.add(Map.entry(entry.getKey(), cell));
+            }
+        }
+        retired = stillRetiring;
+    }
+
+    /**
+     * Counts of a product not yet persisted
+     * @param productId product ID
+     * @return Delta, empty if there is no pending activity
+     */
+    public Delta pending(Integer productId) {
+        Cell cell = productId != null ? cells.get(productId) : null;
+        return cell != null ? deltaOf(productId, cell) : new Delta(productId, 0, 0, 0);
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    private Cell cell(Integer productId) {
+        Cell cell = cells.get(productId);
+        return cell != null ? cell : cells.computeIfAbsent(productId, id -> new Cell());
+    }
+
+    private void collect(Map<Integer, Delta> deltas, Integer productId, Cell cell) {
+        long impressions = cell.impressions.sum();
+        long views = cell.views.sum();
+        long cartAdditions = cell.cartAdditions.sum();
+        Delta delta = new Delta(productId, impressions - cell.flushedImpressions,
+            views - cell.flushedViews, cartAdditions - cell.flushedCartAdditions);
+        if (delta.isEmpty()) {
+            return;
+        }
+        drained.add(new Snapshot(cell, impressions, views, cartAdditions));
+        deltas.merge(productId, delta, (a, b) -> new Delta(productId, a.impressions() + b.impressions(),
+            a.views() + b.views(), a.cartAdditions() + b.cartAdditions()));
+    }
+
+    private static Delta deltaOf(Integer productId, Cell cell) {
+        return new Delta(productId,
+            cell.impressions.sum() - cell.flushedImpressions,
+            cell.views.sum() - cell.flushedViews,
+            cell.cartAdditions.sum() - cell.flushedCartAdditions);
+    }
+}
@@ -0,0 +1,225 @@
+package org.sortoutinnovation.greenmagic.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.ProductCardDto;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.VendorAnalytics;
+import org.sortoutinnovation.greenmagic.repository.ProductEngagementDailyRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.sortoutinnovation.greenmagic.repository.UserRepository;
+import org.sortoutinnovation.greenmagic.repository.VendorAnalyticsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks product engagement (listing impressions, product page views, cart additions)
+ * Recording only increments in-memory counters, so request threads never write to the database;
+ * a background job periodically adds the accumulated counts to the day's rows in one transaction:
+ * per product in 'product_engagement_daily' and per vendor in the page_views, product_views and
+ * cart_additions columns of 'vendor_analytics'
+ * Counts are attributed to the day of the flush, so activity shortly before midnight can be
+ * booked on the next day
+ */
+@Component
+public class ProductEngagementTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEngagementTracker.class);
+
+    private static final String UPSERT_PRODUCT_DAY =
+        "INSERT INTO product_engagement_daily (product_id, engagement_date, impressions, views, cart_additions) " +
+        "VALUES (?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE impressions = impressions + VALUES(impressions), " +
+        "views = views + VALUES(views), cart_additions = cart_additions + VALUES(cart_additions)";
+
+    // vendor_analytics has no unique key on (vendor, date), so rows are updated first and only
+    // the missing ones are inserted
+    private static final String UPDATE_VENDOR_DAY =
+        "UPDATE vendor_analytics SET page_views = page_views + ?, product_views = product_views + ?, " +
+        "cart_additions = cart_additions + ? WHERE vendor_id = ? AND analytics_date = ? LIMIT 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductEngagementDailyRepository productEngagementDailyRepository;
+
+    @Autowired
+    private VendorAnalyticsRepository vendorAnalyticsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EngagementCounters counters;
+
+    public ProductEngagementTracker(PlatformTransactionManager transactionManager,
+                                    @Value("${analytics.engagement.max-idle-flushes:10}") int maxIdleFlushes) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.counters = new EngagementCounters(maxIdleFlushes);
+    }
+
+    /**
+     * Record that a product page was opened
+     */
+    public void recordView(Integer productId) {
+        counters.addView(productId);
+    }
+
+    /**
+     * Record that products were shown in a listing, search or filter result
+     */
+    public void recordImpressions(Collection<Product> products) {
+        if (products == null) {
+            return;
+        }
+        for (Product product : products) {
+            counters.addImpression(product.getProductId());
+        }
+    }
+
+    /**
+     * Record that product cards were shown in a listing or search result
+     */
+    public void recordCardImpressions(Collection<ProductCardDto> cards) {
+        if (cards == null) {
+            return;
+        }
+        for (ProductCardDto card : cards) {
+            counters.addImpression(card.getProductId());
+        }
+    }
+
+    /**
+     * Record that a product was added to a cart
+     */
+    public void recordCartAddition(Integer productId) {
+        counters.addCartAddition(productId);
+    }
+
+    /**
+     * Get the engagement totals of products over all days, including counts not yet flushed
+     * @param productIds product IDs
+     * @return Map of product ID to totals; products without any engagement map to an empty delta
+     */
+    public Map<Integer, EngagementCounters.Delta> getTotals(Collection<Integer> productIds) {
+        Map<Integer, EngagementCounters.Delta> totals = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return totals;
+        }
+        for (Object[] row : productEngagementDailyRepository.sumByProductIds(productIds)) {
+            totals.put((Integer) row[0], new EngagementCounters.Delta((Integer) row[0],
+                ((Number) row[1]).longValue(), ((Number) row[2]).longValue(), ((Number) row[3]).longValue()));
+        }
+        for (Integer productId : productIds) {
+            EngagementCounters.Delta stored = totals.get(productId);
+            EngagementCounters.Delta pending = counters.pending(productId);
+            totals.put(productId, stored == null ? pending : new EngagementCounters.Delta(productId,
+                stored.impressions() + pending.impressions(),
+                stored.views() + pending.views(),
+                stored.cartAdditions() + pending.cartAdditions()));
+        }
+        return totals;
+    }
+
+    /**
+     * Write the counts accumulated since the last flush
+     * On failure nothing is marked as written, so the counts are retried with the next flush
+     */
+    @Scheduled(fixedDelayString = "${analytics.engagement.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<EngagementCounters.Delta> deltas = counters.drain();
+        if (deltas.isEmpty()) {
+            counters.commit();
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                writeProductDays(deltas, today);
+                writeVendorDays(deltas, today);
+            });
+            counters.commit();
+            log.debug("Flushed engagement counts of {} products", deltas.size());
+        } catch (Exception e) {
+            log.error("Failed to flush engagement counts of {} products, retrying next time: {}",
+                deltas.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeProductDays(List<EngagementCounters.Delta> deltas, LocalDate day) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (EngagementCounters.Delta delta : deltas) {
+            rows.add(new Object[] {delta.productId(), Date.valueOf(day),
+                delta.impressions(), delta.views(), delta.cartAdditions()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT_DAY, rows);
+    }
+
+    private void writeVendorDays(List<EngagementCounters.Delta> deltas, LocalDate day) {
+        Map<Integer, EngagementCounters.Delta> deltasByProduct = new HashMap<>();
+        for (EngagementCounters.Delta delta : deltas) {
+            deltasByProduct.put(delta.productId(), delta);
+        }
+
+        // Sum per vendor: page views are impressions, product views are product page opens
+        Map<Integer, long[]> vendorTotals = new HashMap<>();
+        for (Object[] row : productRepository.findVendorIdsByProductIds(deltasByProduct.keySet())) {
+            EngagementCounters.Delta delta = deltasByProduct.get((Integer) row[0]);
+            long[] totals = vendorTotals.computeIfAbsent((Integer) row[1], id -> new long[3]);
+            totals[0] += delta.impressions();
+            totals[1] += delta.views();
+            totals[2] += delta.cartAdditions();
+        }
+        if (vendorTotals.isEmpty()) {
+            return;
+        }
+
+        List<Integer> vendorIds = new ArrayList<>(vendorTotals.keySet());
+        List<Object[]> rows = new ArrayList<>(vendorIds.size());
+        for (Integer vendorId : vendorIds) {
+            long[] totals = vendorTotals.get(vendorId);
+            rows.add(new Object[] {totals[0], totals[1], totals[2], vendorId, Date.valueOf(day)});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_VENDOR_DAY, rows);
+
+        List<VendorAnalytics> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) {
+                continue;
+            }
+            long[] totals = vendorTotals.get(vendorIds.get(i));
+            VendorAnalytics analytics = new VendorAnalytics();
+            analytics.setVendor(userRepository.getReferenceById(vendorIds.get(i)));
+            analytics.setAnalyticsDate(day);
+            analytics.setPageViews((int) totals[0]);
+            analytics.setProductViews((int) totals[1]);
+            analytics.setCartAdditions((int) totals[2]);
+            missing.add(analytics);
+        }
+        vendorAnalyticsRepository.saveAll(missing);
+    }
+}
@@ -0,0 +1,292 @@
+package org.sortoutinnovation.greenmagic.analytics;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+import org.sortoutinnovation.greenmagic.model.SalesRollup;
+import org.sortoutinnovation.greenmagic.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the hourly and daily sales totals in 'sales_rollups' up to date as orders are placed and paid
+ * Changes recorded during a transaction are summed per hour and added to the rollups just before it
+ * commits, so the totals commit or roll back with the orders; a transaction touching many orders,
+ * such as an ingestion group, writes one upsert per period it touches, in one JDBC batch
+ * Each transaction adds to one randomly chosen stripe of a period, and the rows of the coming periods
+ * are created ahead of time, so concurrent orders only ever update existing rows and rarely the same one
+ * Rollups are bucketed by Order.orderDate, so paying for an order updates the period it was placed in
+ * Cancelled orders are left out: cancelling an order subtracts it from its period, and the backfill
+ * skips cancelled orders and buckets the rest in Java, the same way as the live writes
+ */
+@Component
+public class SalesRollupRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupRecorder.class);
+
+    private static final String UPSERT_PERIOD =
+        "INSERT INTO sales_rollups (granularity, period_start, stripe, order_count, gross_sales, completed_count, " +
+        "completed_sales, completed_tax) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+        "gross_sales = gross_sales + VALUES(gross_sales), completed_count = completed_count + VALUES(completed_count), " +
+        "completed_sales = completed_sales + VALUES(completed_sales), completed_tax = completed_tax + VALUES(completed_tax)";
+
+    private static final String INSERT_EMPTY_PERIOD =
+        "INSERT IGNORE INTO sales_rollups (granularity, period_start, stripe, order_count, gross_sales, completed_count, " +
+        "completed_sales, completed_tax) VALUES (?, ?, ?, 0, 0, 0, 0, 0)";
+
+    private static final String INSERT_BACKFILLED_PERIOD =
+        "INSERT IGNORE INTO sales_rollups (granularity, period_start, stripe, order_count, gross_sales, completed_count, " +
+        "completed_sales, completed_tax) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Orders in primary key pages, so the backfill never holds more than one page of rows
+    private static final String BACKFILL_PAGE =
+        "SELECT order_id, order_date, status, payment_status, total_price, total_tax FROM orders " +
+        "WHERE order_id > ? ORDER BY order_id LIMIT ?";
+
+    private static final int BACKFILL_PAGE_SIZE = 10_000;
+
+    // Changes to one period within a transaction
+    private static final class Totals {
+        private long orderCount;
+        private BigDecimal grossSales = BigDecimal.ZERO;
+        private long completedCount;
+        private BigDecimal completedSales = BigDecimal.ZERO;
+        private BigDecimal completedTax = BigDecimal.ZERO;
+
+        private void add(Totals other) {
+            orderCount += other.orderCount;
+            grossSales = grossSales.add(other.grossSales);
+            completedCount += other.completedCount;
+            completedSales = completedSales.add(other.completedSales);
+            completedTax = completedTax.add(other.completedTax);
+        }
+
+        private boolean isEmpty() {
+            return orderCount == 0 && grossSales.signum() == 0 && completedCount == 0
+                && completedSales.signum() == 0 && completedTax.signum() == 0;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    private final int stripes;
+
+    public SalesRollupRecorder(@Value("${analytics.sales.rollup-stripes:8}") int stripes) {
+        this.stripes = Math.max(1, stripes);
+    }
+
+    /**
+     * Rebuild the rollups from the orders table if there are none yet, then create the current periods
+     */
+    @PostConstruct
+    public void start() {
+        if (!salesRollupRepository.existsByGranularity(SalesRollup.Granularity.DAY)) {
+            backfill();
+        }
+        createUpcomingPeriods();
+    }
+
+    // Sums the orders per hour in memory, then inserts the periods into stripe 0
+    private void backfill() {
+        Map<LocalDateTime, Totals> hours = new TreeMap<>();
+        long lastOrderId = 0;
+        int read;
+        do {
+            long[] last = {lastOrderId};
+            read = jdbcTemplate.query(BACKFILL_PAGE, rs -> {
+                int rows = 0;
+                while (rs.next()) {
+                    rows++;
+                    last[0] = rs.getLong("order_id");
+                    Timestamp orderDate = rs.getTimestamp("order_date");
+                    if (orderDate == null || isCancelled(rs.getString("status"))) {
+                        continue;
+                    }
+                    Totals totals = hours.computeIfAbsent(
+                        orderDate.toLocalDateTime().truncatedTo(ChronoUnit.HOURS), hour -> new Totals());
+                    addOrder(totals, rs.getBigDecimal("total_price"), rs.getBigDecimal("total_tax"),
+                        Order.PaymentStatus.COMPLETED.name().equals(rs.getString("payment_status")), 1);
+                }
+                return rows;
+            }, lastOrderId, BACKFILL_PAGE_SIZE);
+            lastOrderId = last[0];
+        } while (read == BACKFILL_PAGE_SIZE);
+
+        List<Object[]> rows = periodRows(hours, 0);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BACKFILLED_PERIOD, rows);
+            log.info("Built sales rollups from existing orders: {} hours", hours.size());
+        }
+    }
+
+    /**
+     * Create the rows of the current and next hour and day, so order transactions find them in place
+     */
+    @Scheduled(fixedDelayString = "${analytics.sales.rollup-prepare-interval-ms:600000}")
+    public void createUpcomingPeriods() {
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = hour.truncatedTo(ChronoUnit.DAYS);
+        List<Object[]> rows = new ArrayList<>();
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            rows.add(new Object[] {SalesRollup.Granularity.DAY.name(), Timestamp.valueOf(day), stripe});
+            rows.add(new Object[] {SalesRollup.Granularity.DAY.name(), Timestamp.valueOf(day.plusDays(1)), stripe});
+            rows.add(new Object[] {SalesRollup.Granularity.HOUR.name(), Timestamp.valueOf(hour), stripe});
+            rows.add(new Object[] {SalesRollup.Granularity.HOUR.name(), Timestamp.valueOf(hour.plusHours(1)), stripe});
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_EMPTY_PERIOD, rows);
+        } catch (Exception e) {
+            // Upserts create missing rows themselves
+            log.warn("Failed to create upcoming sales rollup periods: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Count a newly placed order; it is added to the rollups when the current transaction commits
+     * @param order saved order, with its order date set
+     * @throws RuntimeException if no transaction is active
+     */
+    public void recordOrderPlaced(Order order) {
+        if (isCancelled(order.getStatus())) {
+            return;
+        }
+        addOrder(pending(order), order.getTotalPrice(), order.getTotalTax(),
+            order.getPaymentStatus() == Order.PaymentStatus.COMPLETED, 1);
+    }
+
+    /**
+     * Take an order out of the rollups when it is cancelled, or put it back when it leaves the cancelled status
+     * @param order saved order, with the new status
+     * @param previousStatus Order.status before the change
+     * @throws RuntimeException if no transaction is active
+     */
+    public void recordStatusChange(Order order, String previousStatus) {
+        boolean wasCancelled = isCancelled(previousStatus);
+        boolean cancelled = isCancelled(order.getStatus());
+        if (wasCancelled != cancelled) {
+            addOrder(pending(order), order.getTotalPrice(), order.getTotalTax(),
+                order.getPaymentStatus() == Order.PaymentStatus.COMPLETED, cancelled ? -1 : 1);
+        }
+    }
+
+    /**
+     * Move an order into or out of the completed totals after its payment status changed
+     * A cancelled order is not in the rollups, so its payment changes are not either
+     * @param order saved order, with the new payment status
+     * @param previousStatus payment status before the change
+     * @throws RuntimeException if no transaction is active
+     */
+    public void recordPaymentStatusChange(Order order, Order.PaymentStatus previousStatus) {
+        boolean wasCompleted = previousStatus == Order.PaymentStatus.COMPLETED;
+        boolean isCompleted = order.getPaymentStatus() == Order.PaymentStatus.COMPLETED;
+        if (wasCompleted != isCompleted && !isCancelled(order.getStatus())) {
+            addCompleted(pending(order), order.getTotalPrice(), order.getTotalTax(), isCompleted ? 1 : -1);
+        }
+    }
+
+    private static boolean isCancelled(String status) {
+        return status != null && OrderStatus.StatusType.fromOrderStatus(status) == OrderStatus.StatusType.CANCELLED;
+    }
+
+    // Adds (sign 1) or subtracts (sign -1) one order
+    private static void addOrder(Totals totals, BigDecimal totalPrice, BigDecimal totalTax, boolean completed, int sign) {
+        totals.orderCount += sign;
+        totals.grossSales = totals.grossSales.add(amount(totalPrice).multiply(BigDecimal.valueOf(sign)));
+        if (completed) {
+            addCompleted(totals, totalPrice, totalTax, sign);
+        }
+    }
+
+    private static void addCompleted(Totals totals, BigDecimal totalPrice, BigDecimal totalTax, int sign) {
+        totals.completedCount += sign;
+        totals.completedSales = totals.completedSales.add(amount(totalPrice).multiply(BigDecimal.valueOf(sign)));
+        totals.completedTax = totals.completedTax.add(amount(totalTax).multiply(BigDecimal.valueOf(sign)));
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    // Totals of the order's hour in the current transaction; the first change registers the write before commit
+    @SuppressWarnings("unchecked")
+    private Totals pending(Order order) {
+        if (order.getOrderDate() == null) {
+            throw new RuntimeException("Order date is required to record sales: " + order.getOrderId());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new RuntimeException("Sales must be recorded in a transaction");
+        }
+        Map<LocalDateTime, Totals> hours = (Map<LocalDateTime, Totals>) TransactionSynchronizationManager.getResource(this);
+        if (hours == null) {
+            Map<LocalDateTime, Totals> buffer = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(buffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SalesRollupRecorder.this);
+                }
+            });
+            hours = buffer;
+        }
+        return hours.computeIfAbsent(order.getOrderDate().truncatedTo(ChronoUnit.HOURS), hour -> new Totals());
+    }
+
+    private void write(Map<LocalDateTime, Totals> hours) {
+        List<Object[]> rows = periodRows(hours, ThreadLocalRandom.current().nextInt(stripes));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_PERIOD, rows);
+        }
+    }
+
+    // Rows of the hours and of the days they add up to, in unique key order (DAY sorts before HOUR),
+    // so concurrent writers lock rows in the same order
+    private static List<Object[]> periodRows(Map<LocalDateTime, Totals> hours, int stripe) {
+        Map<LocalDateTime, Totals> days = new TreeMap<>();
+        for (Map.Entry<LocalDateTime, Totals> entry : hours.entrySet()) {
+            days.computeIfAbsent(entry.getKey().truncatedTo(ChronoUnit.DAYS), day -> new Totals()).add(entry.getValue());
+        }
+        List<Object[]> rows = new ArrayList<>();
+        addRows(rows, SalesRollup.Granularity.DAY, days, stripe);
+        addRows(rows, SalesRollup.Granularity.HOUR, hours, stripe);
+        return rows;
+    }
+
+    private static void addRows(List<Object[]> rows, SalesRollup.Granularity granularity,
+                                Map<LocalDateTime, Totals> periods, int stripe) {
+        for (Map.Entry<LocalDateTime, Totals> entry : periods.entrySet()) {
+            Totals totals = entry.getValue();
+            if (totals.isEmpty()) {
+                continue;
+            }
+            rows.add(new Object[] {granularity.name(), Timestamp.valueOf(entry.getKey()), stripe,
+                totals.orderCount, totals.grossSales, totals.completedCount, totals.completedSales, totals.completedTax});
+        }
+    }
+}
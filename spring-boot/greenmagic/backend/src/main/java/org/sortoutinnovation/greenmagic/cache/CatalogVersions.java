@@ -0,0 +1,275 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.event.CategoryChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamps of the catalog, used as strong ETags for conditional GETs
+ * A product's version changes on every committed write to the product or its variants; the catalog
+ * version changes on every product, variant or category write, the category version on category writes
+ * Versions are kept in 'catalog_versions', so every instance and every restart issues the same ETag
+ * for the same catalog state. Local writes are persisted by a background thread, one small transaction
+ * covering all writes committed since the previous one, so committing transactions never wait on the
+ * shared row; until then the affected ETags carry an ID of this instance and match nowhere else
+ * Writes of other instances are picked up every sync interval, evicting the cached products they changed
+ * Bumps run after the caches and indexes have applied the same change (lowest listener precedence),
+ * so a new ETag is never handed out together with stale data
+ */
+@Component
+public class CatalogVersions {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersions.class);
+
+    private static final String CATALOG = "catalog";
+    private static final String CATEGORY = "category";
+    private static final String PRODUCT_PREFIX = "p";
+
+    private static final String CREATE_SCOPE = "INSERT IGNORE INTO catalog_versions (scope, version) VALUES (?, 0)";
+    private static final String BUMP_CATALOG = "UPDATE catalog_versions SET version = version + 1 WHERE scope = '" + CATALOG + "'";
+    private static final String SELECT_CATALOG = "SELECT version FROM catalog_versions WHERE scope = '" + CATALOG + "'";
+    private static final String SET_VERSION =
+        "INSERT INTO catalog_versions (scope, version) VALUES (?, ?) " +
+        "ON DUPLICATE KEY UPDATE version = GREATEST(version, VALUES(version))";
+    private static final String SELECT_CHANGED = "SELECT scope, version FROM catalog_versions WHERE version > ?";
+
+    private static final long RETRY_DELAY_MS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CategorySnapshotCache categorySnapshotCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long flushDelayMillis;
+
+    // Distinguishes the ETags of writes not yet persisted from those of every other instance
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    // Persisted versions as last seen by this instance
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong categoryVersion = new AtomicLong();
+    private final ConcurrentHashMap<Integer, Long> productVersions = new ConcurrentHashMap<>();
+    private volatile long syncedVersion;
+
+    // Local writes waiting to be persisted, numbered by localChanges; products map to their latest number
+    private final AtomicLong localChanges = new AtomicLong();
+    private volatile long persistedChanges;
+    private final ConcurrentHashMap<Integer, Long> pendingProducts = new ConcurrentHashMap<>();
+    private final AtomicLong pendingCategory = new AtomicLong();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledThreadPoolExecutor flusher;
+
+    public CatalogVersions(PlatformTransactionManager transactionManager,
+                           @Value("${catalog.versions.flush-delay-ms:0}") long flushDelayMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushDelayMillis = flushDelayMillis;
+        this.flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-versions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the shared rows if needed and load the persisted versions
+     */
+    @PostConstruct
+    public void start() {
+        jdbcTemplate.batchUpdate(CREATE_SCOPE, List.of(new Object[] {CATALOG}, new Object[] {CATEGORY}));
+        sync(false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        changeProduct(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onVariantChanged(ProductVariantChangedEvent event) {
+        changeProduct(event.getProductId());
+    }
+
+    /**
+     * Products embed their category, so a category write also changes every product's ETag
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        pendingCategory.set(localChanges.incrementAndGet());
+        scheduleFlush(flushDelayMillis);
+    }
+
+    /**
+     * ETag of a single product response
+     */
+    public String productEtag(Integer productId) {
+        long category = pendingCategory.get();
+        Long pending = productId != null ? pendingProducts.get(productId) : null;
+        if (pending != null || category != 0) {
+            return "\"p" + productId + "-" + instanceId + "." + localChanges.get() + "\"";
+        }
+        return "\"p" + productId + "-" + productVersions.getOrDefault(productId, 0L) + "-" + categoryVersion.get() + "\"";
+    }
+
+    /**
+     * ETag of any product listing; changes whenever a product, variant or category changes
+     */
+    public String catalogEtag() {
+        long local = localChanges.get();
+        if (local > persistedChanges) {
+            return "\"c" + instanceId + "." + local + "\"";
+        }
+        return "\"c" + catalogVersion.get() + "\"";
+    }
+
+    /**
+     * ETag of category responses
+     */
+    public String categoryEtag() {
+        long category = pendingCategory.get();
+        if (category != 0) {
+            return "\"k" + instanceId + "." + category + "\"";
+        }
+        return "\"k" + categoryVersion.get() + "\"";
+    }
+
+    /**
+     * Pick up the versions written by other instances, evicting the cached products they changed
+     */
+    @Scheduled(fixedDelayString = "${catalog.versions.sync-interval-ms:5000}")
+    public void sync() {
+        sync(true);
+    }
+
+    private synchronized void sync(boolean evict) {
+        long from = syncedVersion;
+        long[] latest = {from, 0};
+        jdbcTemplate.query(SELECT_CHANGED, rs -> {
+            String scope = rs.getString(1);
+            long version = rs.getLong(2);
+            latest[0] = Math.max(latest[0], version);
+            if (scope.equals(CATALOG)) {
+                catalogVersion.accumulateAndGet(version, Math::max);
+            } else if (scope.equals(CATEGORY)) {
+                latest[1] = version;
+            } else if (scope.startsWith(PRODUCT_PREFIX)) {
+                Integer productId = Integer.valueOf(scope.substring(PRODUCT_PREFIX.length()));
+                Long known = productVersions.get(productId);
+                if (known == null || known < version) {
+                    // Written elsewhere; this instance's cached copy predates it
+                    if (evict) {
+                        productCache.invalidate(productId);
+                    }
+                    productVersions.merge(productId, version, Math::max);
+                }
+            }
+        }, from);
+        if (latest[1] > categoryVersion.get()) {
+            if (evict) {
+                categorySnapshotCache.reload();
+            }
+            categoryVersion.accumulateAndGet(latest[1], Math::max);
+        }
+        syncedVersion = latest[0];
+    }
+
+    /**
+     * Persist the local writes recorded so far
+     */
+    synchronized void flush() {
+        flushScheduled.set(false);
+        long upTo = localChanges.get();
+        // A write numbered before the previous flush may only have been marked pending after it
+        if (upTo == persistedChanges && pendingProducts.isEmpty() && pendingCategory.get() == 0) {
+            return;
+        }
+        Map<Integer, Long> products = new HashMap<>(pendingProducts);
+        long category = pendingCategory.get();
+        try {
+            long version = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(BUMP_CATALOG);
+                long bumped = jdbcTemplate.queryForObject(SELECT_CATALOG, Long.class);
+                List<Object[]> rows = new ArrayList<>();
+                if (category != 0) {
+                    rows.add(new Object[] {CATEGORY, bumped});
+                }
+                for (Integer productId : products.keySet()) {
+                    rows.add(new Object[] {PRODUCT_PREFIX + productId, bumped});
+                }
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(SET_VERSION, rows);
+                }
+                return bumped;
+            });
+            // Versions first, then the pending marks, so ETags never fall back to an older version
+            for (Integer productId : products.keySet()) {
+                productVersions.merge(productId, version, Math::max);
+            }
+            if (category != 0) {
+                categoryVersion.accumulateAndGet(version, Math::max);
+            }
+            catalogVersion.accumulateAndGet(version, Math::max);
+            products.forEach(pendingProducts::remove);
+            pendingCategory.compareAndSet(category, 0);
+            persistedChanges = upTo;
+        } catch (Exception e) {
+            // ETags keep the local form meanwhile, which is correct, only never shared
+            log.warn("Failed to persist catalog versions: {}", e.getMessage());
+            scheduleFlush(RETRY_DELAY_MS);
+        }
+    }
+
+    private void changeProduct(Integer productId) {
+        long change = localChanges.incrementAndGet();
+        if (productId != null) {
+            pendingProducts.put(productId, change);
+        }
+        scheduleFlush(flushDelayMillis);
+    }
+
+    // Writes that arrive while a flush runs are covered by the next one
+    private void scheduleFlush(long delayMillis) {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
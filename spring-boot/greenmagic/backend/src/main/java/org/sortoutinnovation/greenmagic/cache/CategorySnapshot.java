@@ -0,0 +1,53 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.sortoutinnovation.greenmagic.dto.CategoryResponseDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of all categories, built once per change and shared by every reader
+ * The DTOs inside are shared as well and must not be modified
+ */
+public final class CategorySnapshot {
+
+    private final Map<Integer, CategoryResponseDto> byId;
+    private final List<CategoryResponseDto> categories;
+    private final RawValue categoriesJson;
+    private final Map<String, Object> vendorCategories;
+
+    CategorySnapshot(Map<Integer, CategoryResponseDto> byId, List<CategoryResponseDto> categories,
+                     RawValue categoriesJson, Map<String, Object> vendorCategories) {
+        this.byId = byId;
+        this.categories = categories;
+        this.categoriesJson = categoriesJson;
+        this.vendorCategories = vendorCategories;
+    }
+
+    public CategoryResponseDto get(Integer categoryId) {
+        return byId.get(categoryId);
+    }
+
+    public List<CategoryResponseDto> getCategories() {
+        return categories;
+    }
+
+    /**
+     * The category list already serialized to JSON, embedded as-is in API responses
+     */
+    public RawValue getCategoriesJson() {
+        return categoriesJson;
+    }
+
+    /**
+     * Categories keyed by ID as {id, name} maps, the shape used by the vendor product form
+     */
+    public Map<String, Object> getVendorCategories() {
+        return vendorCategories;
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty();
+    }
+}
@@ -0,0 +1,99 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.sortoutinnovation.greenmagic.dto.CategoryResponseDto;
+import org.sortoutinnovation.greenmagic.event.CategoryChangedEvent;
+import org.sortoutinnovation.greenmagic.mapper.CategoryMapper;
+import org.sortoutinnovation.greenmagic.model.Category;
+import org.sortoutinnovation.greenmagic.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy-on-write cache of all categories
+ * Readers get the current CategorySnapshot from a volatile field without locking or querying;
+ * after a committed category change a new snapshot is built with one query and swapped in
+ */
+@Component
+public class CategorySnapshotCache {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile CategorySnapshot snapshot;
+
+    /**
+     * Get the current snapshot, loading it on first use
+     * @return CategorySnapshot
+     */
+    public CategorySnapshot get() {
+        CategorySnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Rebuild the snapshot after a committed category change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Rebuild the snapshot, e.g. after another instance changed a category
+     */
+    public synchronized void reload() {
+        snapshot = load();
+    }
+
+    private CategorySnapshot load() {
+        List<Category> categories = categoryRepository.findAll();
+
+        Map<Integer, CategoryResponseDto> byId = new LinkedHashMap<>();
+        List<CategoryResponseDto> dtos = new ArrayList<>(categories.size());
+        Map<String, Object> vendorCategories = new LinkedHashMap<>();
+        for (Category category : categories) {
+            CategoryResponseDto dto = CategoryMapper.toResponseDto(category);
+            byId.put(category.getCategoryId(), dto);
+            dtos.add(dto);
+
+            Map<String, Object> categoryData = new LinkedHashMap<>();
+            categoryData.put("id", category.getCategoryId());
+            categoryData.put("name", category.getName());
+            vendorCategories.put(String.valueOf(category.getCategoryId()), Collections.unmodifiableMap(categoryData));
+        }
+
+        try {
+            return new CategorySnapshot(
+                Collections.unmodifiableMap(byId),
+                Collections.unmodifiableList(dtos),
+                new RawValue(objectMapper.writeValueAsString(dtos)),
+                Collections.unmodifiableMap(vendorCategories));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize categories: " + e.getMessage(), e);
+        }
+    }
+}
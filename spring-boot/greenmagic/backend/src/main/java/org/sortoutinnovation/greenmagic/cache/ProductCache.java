@@ -0,0 +1,200 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache of products by ID, with SKU and URL slug as secondary keys
+ * Backed by Caffeine, whose W-TinyLFU admission keeps frequently read products resident while
+ * one-off lookups are evicted first
+ * Products are loaded in their own short-lived EntityManager, so cached instances are detached and
+ * never shared with a caller's persistence context; callers must treat them as read-only
+ * A cached product has its columns, content group and variants loaded; its other associations are
+ * uninitialized proxies good only for their IDs, so responses are mapped to ProductDetailDto rather
+ * than serializing the entity
+ * Entries are invalidated exactly, after commit, from ProductChangedEvent and ProductVariantChangedEvent,
+ * which cover every product write path including the vendor and bulk operations
+ */
+@Component
+public class ProductCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Cache<Integer, Product> byId;
+    private final Cache<String, Integer> idBySku;
+    private final Cache<String, Integer> idBySlug;
+
+    public ProductCache(@Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        // Secondary keys only map to IDs; a mapping made stale by a SKU or slug change is
+        // detected on lookup, so they do not need to be invalidated by the old value
+        this.idBySku = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+        this.idBySlug = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+    }
+
+    /**
+     * Get a product by ID, loading it on a miss
+     * @param id product ID
+     * @return Optional<Product>, a detached instance shared with other readers
+     */
+    public Optional<Product> getById(Integer id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byId.get(id, this::load));
+    }
+
+    /**
+     * Get a product by SKU, loading it on a miss
+     * @param sku product SKU
+     * @return Optional<Product>, a detached instance shared with other readers
+     */
+    public Optional<Product> getBySku(String sku) {
+        if (sku == null) {
+            return Optional.empty();
+        }
+        Optional<Product> product = idBySku(sku).flatMap(this::getById);
+        if (product.isPresent() && !sku.equals(product.get().getSku())) {
+            idBySku.invalidate(sku);
+            return productRepository.findIdBySku(sku).flatMap(this::getById);
+        }
+        return product;
+    }
+
+    /**
+     * Resolve a SKU to a product ID through the SKU index, without loading the product
+     * The mapping may be stale after a SKU change until the product is next read by SKU
+     * @param sku product SKU
+     * @return Optional<Integer>
+     */
+    public Optional<Integer> idBySku(String sku) {
+        if (sku == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(idBySku.get(sku, key -> productRepository.findIdBySku(key).orElse(null)));
+    }
+
+    /**
+     * Get a product by URL slug, loading it on a miss
+     * @param urlSlug product URL slug
+     * @return Optional<Product>, a detached instance shared with other readers
+     */
+    public Optional<Product> getByUrlSlug(String urlSlug) {
+        if (urlSlug == null) {
+            return Optional.empty();
+        }
+        Integer id = idBySlug.get(urlSlug, key -> productRepository.findIdByUrlSlug(key).orElse(null));
+        Optional<Product> product = getById(id);
+        if (product.isPresent() && !urlSlug.equals(product.get().getUrlSlug())) {
+            idBySlug.invalidate(urlSlug);
+            return productRepository.findIdByUrlSlug(urlSlug).flatMap(this::getById);
+        }
+        return product;
+    }
+
+    /**
+     * Drop a product after a committed write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+        Product product = event.getProduct();
+        if (product.getSku() != null) {
+            idBySku.invalidate(product.getSku());
+        }
+        if (product.getUrlSlug() != null) {
+            idBySlug.invalidate(product.getUrlSlug());
+        }
+    }
+
+    /**
+     * Drop a product whose variants changed, as cached products carry their variants
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onVariantChanged(ProductVariantChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    /**
+     * Drop a product by ID
+     */
+    public void invalidate(Integer id) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+    }
+
+    /**
+     * Hit/miss/eviction statistics of the ID cache, which every lookup goes through
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = byId.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", byId.estimatedSize());
+        result.put("skuKeys", idBySku.estimatedSize());
+        result.put("slugKeys", idBySlug.estimatedSize());
+        result.put("requests", stats.requestCount());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loads", stats.loadCount());
+        result.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private Product load(Integer id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            // Cached instances are detached, so the lazy content group and the variants are fetched up front
+            EntityGraph<?> graph = entityManager.createEntityGraph(Product.CONTENT_GRAPH);
+            graph.addAttributeNodes("variants");
+            Product product = entityManager.find(Product.class, id, Map.of("jakarta.persistence.loadgraph", graph));
+            if (product != null) {
+                // A plain set, so readers never reach a persistent collection of a closed session
+                product.setVariants(new LinkedHashSet<>(product.getVariants()));
+            }
+            return product;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing product cache statistics
+ * GET /actuator/productcache
+ */
+@Component
+@Endpoint(id = "productcache")
+public class ProductCacheEndpoint {
+
+    @Autowired
+    private ProductCache productCache;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return productCache.stats();
+    }
+}
@@ -0,0 +1,66 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.sortoutinnovation.greenmagic.dto.VendorProductDetailsDto;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductRatingChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of assembled vendor product details, keyed by product ID
+ * A vendor editing a product opens the details modal and the analytics tab repeatedly; both are
+ * served from one assembled instance
+ * Entries are dropped after commit of any write to the product, its variants or its rating; the
+ * short TTL bounds how stale the embedded analytics (sales, views) can get
+ */
+@Component
+public class VendorProductDetailsCache {
+
+    private final Cache<Integer, VendorProductDetailsDto> details;
+
+    public VendorProductDetailsCache(@Value("${vendor.product-details.cache.maximum-size:1000}") long maximumSize,
+                                     @Value("${vendor.product-details.cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.details = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+    }
+
+    /**
+     * Get the details of a product, assembling them on a miss
+     * @param productId product ID
+     * @param loader assembles the details; may return null if the product does not exist
+     * @return VendorProductDetailsDto, or null if the product does not exist
+     */
+    public VendorProductDetailsDto get(Integer productId, Function<Integer, VendorProductDetailsDto> loader) {
+        return details.get(productId, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVariantChanged(ProductVariantChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(ProductRatingChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    public void invalidate(Integer productId) {
+        if (productId != null) {
+            details.invalidate(productId);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.sortoutinnovation.greenmagic.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedIdAllocator;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Time-ordered ID allocation for orders, order items, cart items, product variants and order status history
+ * Each application instance needs its own ids.node-id so their IDs never collide
+ * Existing schemas need their key columns widened first, see db/migration/time_ordered_ids.sql
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    // Table and key column of every entity with a @TimeOrderedId
+    private static final String[][] ID_COLUMNS = {
+        {"orders", "order_id"},
+        {"order_items", "order_item_id"},
+        {"cart_items", "cart_item_id"},
+        {"product_variants", "variant_id"},
+        {"order_status_history", "status_id"}
+    };
+
+    /**
+     * Allocator that starts after the largest stored ID, so a restart cannot reissue IDs handed out
+     * ahead of the clock or before the clock was set back
+     */
+    @Bean
+    public TimeOrderedIdAllocator timeOrderedIdAllocator(@Value("${ids.node-id:0}") int nodeId, JdbcTemplate jdbcTemplate) {
+        TimeOrderedIdAllocator allocator = new TimeOrderedIdAllocator(nodeId);
+        long maxId = maxStoredId(jdbcTemplate);
+        allocator.advancePast(maxId);
+
+        long aheadMillis = TimeOrderedIdAllocator.timestampOf(maxId) - System.currentTimeMillis();
+        if (aheadMillis > 0) {
+            log.warn("Stored IDs are {} ms ahead of the clock, allocating IDs after them until it catches up", aheadMillis);
+        }
+        return allocator;
+    }
+
+    /**
+     * Hand the same allocator to the Hibernate generator
+     */
+    @Bean
+    public HibernatePropertiesCustomizer timeOrderedIdCustomizer(TimeOrderedIdAllocator allocator) {
+        return properties -> properties.put(TimeOrderedIdGenerator.ALLOCATOR_SETTING, allocator);
+    }
+
+    private static long maxStoredId(JdbcTemplate jdbcTemplate) {
+        long maxId = 0;
+        for (String[] column : ID_COLUMNS) {
+            try {
+                Long max = jdbcTemplate.queryForObject("SELECT MAX(" + column[1] + ") FROM " + column[0], Long.class);
+                if (max != null) {
+                    maxId = Math.max(maxId, max);
+                }
+            } catch (DataAccessException e) {
+                // Not created yet on a new schema, ddl-auto runs after the allocator is built
+                log.debug("Could not read the largest ID of {}: {}", column[0], e.getMessage());
+            }
+        }
+        return maxId;
+    }
+}
@@ -0,0 +1,12 @@
+package org.sortoutinnovation.greenmagic.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (index rebuilds, periodic flushes)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,7 @@
 package org.sortoutinnovation.greenmagic.controller;
 
 import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
+import org.sortoutinnovation.greenmagic.dto.InventoryHoldDto;
 import org.sortoutinnovation.greenmagic.model.Cart;
 import org.sortoutinnovation.greenmagic.model.CartItem;
 import org.sortoutinnovation.greenmagic.service.CartService;
@@ -88,7 +89,7 @@ public class CartController {
     }
 
     @DeleteMapping("/items/{itemId}")
-    public ResponseEntity<ApiResponseDto<Void>> removeItemFromCart(@PathVariable Integer itemId) {
+    public ResponseEntity<ApiResponseDto<Void>> removeItemFromCart(@PathVariable Long itemId) {
         try {
             cartService.removeItemFromCart(itemId);
             return ResponseEntity.ok(new ApiResponseDto<>(true, "Item removed from cart successfully", null));
@@ -138,4 +139,42 @@ public class CartController {
                 .body(new ApiResponseDto<>(false, "Failed to get cart item count: " + e.getMessage(), null));
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Reserve the cart's stock for checkout
+     * POST /cart/{cartId}/hold
+     */
+    @PostMapping("/{cartId}/hold")
+    public ResponseEntity<ApiResponseDto<InventoryHoldDto>> holdCartForCheckout(@PathVariable Integer cartId) {
+        try {
+            InventoryHoldDto hold = cartService.holdCartForCheckout(cartId);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponseDto<>(true, "Cart stock reserved for checkout", hold));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to reserve cart stock: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Release a checkout hold
+     * DELETE /cart/holds/{holdId}
+     */
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<ApiResponseDto<Void>> releaseCheckoutHold(@PathVariable String holdId) {
+        try {
+            cartService.releaseCheckoutHold(holdId);
+            return ResponseEntity.ok(new ApiResponseDto<>(true, "Checkout hold released successfully", null));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to release checkout hold: " + e.getMessage(), null));
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package org.sortoutinnovation.greenmagic.controller;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.sortoutinnovation.greenmagic.cache.CatalogVersions;
 import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
 import org.sortoutinnovation.greenmagic.dto.CategoryResponseDto;
 import org.sortoutinnovation.greenmagic.model.Category;
 import org.sortoutinnovation.greenmagic.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -20,11 +24,18 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     @GetMapping
-    public ResponseEntity<ApiResponseDto<List<CategoryResponseDto>>> getAllCategories() {
+    public ResponseEntity<ApiResponseDto<RawValue>> getAllCategories(WebRequest webRequest) {
         try {
-            List<CategoryResponseDto> categories = categoryService.getAllCategories();
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Categories retrieved successfully", categories));
+            String etag = catalogVersions.categoryEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            RawValue categories = categoryService.getAllCategoriesJson();
+            return ok(new ApiResponseDto<>(true, "Categories retrieved successfully", categories), etag);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDto<>(false, "Failed to retrieve categories: " + e.getMessage(), null));
@@ -32,10 +43,14 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponseDto<CategoryResponseDto>> getCategoryById(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponseDto<CategoryResponseDto>> getCategoryById(@PathVariable Integer id, WebRequest webRequest) {
         try {
+            String etag = catalogVersions.categoryEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             CategoryResponseDto category = categoryService.getCategoryById(id);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Category found", category));
+            return ok(new ApiResponseDto<>(true, "Category found", category), etag);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -45,10 +60,14 @@ public class CategoryController {
     }
 
     @GetMapping("/top-level")
-    public ResponseEntity<ApiResponseDto<List<CategoryResponseDto>>> getTopLevelCategories() {
+    public ResponseEntity<ApiResponseDto<RawValue>> getTopLevelCategories(WebRequest webRequest) {
         try {
-            List<CategoryResponseDto> categories = categoryService.getAllCategories();
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Categories retrieved successfully", categories));
+            String etag = catalogVersions.categoryEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            RawValue categories = categoryService.getAllCategoriesJson();
+            return ok(new ApiResponseDto<>(true, "Categories retrieved successfully", categories), etag);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new ApiResponseDto<>(false, "Failed to retrieve categories: " + e.getMessage(), null));
@@ -110,4 +129,12 @@ public class CategoryController {
                 .body(new ApiResponseDto<>(false, "Failed to retrieve subcategories: " + e.getMessage(), null));
         }
     }
-} 
\ No newline at end of file
+
+    private static <T> ResponseEntity<T> ok(T body, String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+}
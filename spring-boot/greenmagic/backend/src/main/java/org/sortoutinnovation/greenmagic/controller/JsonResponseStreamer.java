@@ -0,0 +1,132 @@
+package org.sortoutinnovation.greenmagic.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes large list responses as they are read from the database
+ * The rows come from a Stream (a result set the driver streams row by row, see StreamingQuery) and are
+ * serialized one by one into the usual ApiResponseDto envelope with Jackson's streaming generator, so
+ * memory use does not grow with the result and the first rows reach the client while later ones are
+ * still being read
+ * The first chunk of rows is read and serialized before anything is written, so a query that fails
+ * at once still gets an error status. Later failures cannot change the status any more: the envelope
+ * is written with its data array first and success, message and errors after it, and a failure ends
+ * the array early and sets success to false, so clients must check success also on a 200 response
+ * The stream is opened and consumed in a read-only transaction on the response thread; the
+ * persistence context is cleared after every chunk so streamed entities do not accumulate
+ */
+@Component
+public class JsonResponseStreamer {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonResponseStreamer.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public JsonResponseStreamer(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Build a streaming 200 response whose data field is the array of the given rows
+     * @param message response message
+     * @param rows opens the row stream; called once, inside the read-only transaction
+     * @return ResponseEntity<StreamingResponseBody>
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(String message, Supplier<Stream<T>> rows) {
+        StreamingResponseBody body = out -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> stream = rows.get()) {
+                Iterator<T> iterator = stream.iterator();
+                // Failures up to here leave the response uncommitted
+                TokenBuffer firstChunk = new TokenBuffer(objectMapper, false);
+                int written = writeChunk(iterator, firstChunk);
+
+                try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                    // The servlet container owns the response stream
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartObject();
+                    generator.writeFieldName("data");
+                    generator.writeStartArray();
+                    firstChunk.serialize(generator);
+
+                    ApiResponseDto<Object> envelope = new ApiResponseDto<>(true, message);
+                    try {
+                        while (iterator.hasNext()) {
+                            TokenBuffer chunk = new TokenBuffer(objectMapper, false);
+                            written += writeChunk(iterator, chunk);
+                            chunk.serialize(generator);
+                            generator.flush();
+                        }
+                    } catch (RuntimeException | JsonProcessingException e) {
+                        // Reading or serializing a row failed; the rows written so far stay complete
+                        log.warn("Streamed response failed after {} rows: {}", written, e.getMessage());
+                        status.setRollbackOnly();
+                        envelope = new ApiResponseDto<>(false, "Response incomplete: failed after " + written + " rows");
+                        envelope.setErrors(e.getMessage());
+                    }
+                    generator.writeEndArray();
+                    writeEnvelopeFields(generator, envelope);
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Serialize up to one chunk of rows, then drop them from the persistence context
+    private <T> int writeChunk(Iterator<T> rows, TokenBuffer buffer) throws IOException {
+        int written = 0;
+        while (written < CHUNK_SIZE && rows.hasNext()) {
+            objectMapper.writeValue(buffer, rows.next());
+            written++;
+        }
+        entityManager.clear();
+        return written;
+    }
+
+    // The envelope's fields other than data, formatted as in any other response
+    private void writeEnvelopeFields(JsonGenerator generator, ApiResponseDto<Object> envelope) throws IOException {
+        ObjectNode tree = objectMapper.valueToTree(envelope);
+        tree.remove("data");
+        Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            generator.writeFieldName(field.getKey());
+            generator.writeTree(field.getValue());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package org.sortoutinnovation.greenmagic.controller;
 
 import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
+import org.sortoutinnovation.greenmagic.dto.CursorSliceDto;
 import org.sortoutinnovation.greenmagic.dto.OrderResponseDto;
 import org.sortoutinnovation.greenmagic.mapper.OrderMapper;
 import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.service.OrderIngestionService;
 import org.sortoutinnovation.greenmagic.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -12,9 +14,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/orders")
@@ -24,6 +30,12 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private JsonResponseStreamer jsonResponseStreamer;
+
     @GetMapping
     public ResponseEntity<ApiResponseDto<Page<OrderResponseDto>>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
@@ -69,6 +81,24 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<ApiResponseDto<CursorSliceDto<OrderResponseDto>>> getOrdersByUserIdByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            CursorSliceDto<OrderResponseDto> orderDtos = orderService.getOrdersByUserSlice(userId, cursor, size)
+                .map(OrderMapper::toSummaryDto);
+            return ResponseEntity.ok(new ApiResponseDto<>(true, "User orders retrieved successfully", orderDtos));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to retrieve user orders: " + e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<ApiResponseDto<Page<OrderResponseDto>>> getOrdersByStatus(
             @PathVariable String status,
@@ -85,6 +115,14 @@ public class OrderController {
         }
     }
 
+    /**
+     * Today's order summaries, newest first, streamed as they are read
+     */
+    @GetMapping("/today")
+    public ResponseEntity<StreamingResponseBody> getTodaysOrders() {
+        return jsonResponseStreamer.stream("Today's orders retrieved successfully", orderService::streamTodaysOrderSummaries);
+    }
+
     @GetMapping("/requiring-attention")
     public ResponseEntity<ApiResponseDto<List<OrderResponseDto>>> getOrdersRequiringAttention() {
         try {
@@ -97,22 +135,57 @@ public class OrderController {
         }
     }
 
+    /**
+     * Create an order; with order ingestion enabled it is queued and the response is sent once its
+     * group has committed, without holding a request thread meanwhile
+     */
     @PostMapping
-    public ResponseEntity<ApiResponseDto<OrderResponseDto>> createOrder(@Valid @RequestBody Order order) {
+    public CompletableFuture<ResponseEntity<ApiResponseDto<OrderResponseDto>>> createOrder(
+            @Valid @RequestBody Order order,
+            @RequestParam(required = false) String holdId) {
+        if (orderIngestionService.isEnabled()) {
+            return submitOrder(order, holdId);
+        }
         try {
-            Order savedOrder = orderService.createOrder(order);
-            OrderResponseDto orderDto = OrderMapper.toResponseDto(savedOrder);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new ApiResponseDto<>(true, "Order created successfully", orderDto));
+            Order savedOrder = orderService.createOrder(order, holdId);
+            return CompletableFuture.completedFuture(orderCreated(savedOrder));
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest()
-                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null)));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ApiResponseDto<>(false, "Failed to create order: " + e.getMessage(), null));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to create order: " + e.getMessage(), null)));
         }
     }
 
+    private CompletableFuture<ResponseEntity<ApiResponseDto<OrderResponseDto>>> submitOrder(Order order, String holdId) {
+        CompletableFuture<Order> saved;
+        try {
+            saved = orderIngestionService.submit(order, holdId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null)));
+        }
+        return saved.handle((savedOrder, error) -> {
+            if (error == null) {
+                return orderCreated(savedOrder);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponseDto<>(false, cause.getMessage(), null));
+            }
+            return ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, cause.getMessage(), null));
+        });
+    }
+
+    private ResponseEntity<ApiResponseDto<OrderResponseDto>> orderCreated(Order savedOrder) {
+        OrderResponseDto orderDto = OrderMapper.toResponseDto(savedOrder);
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(new ApiResponseDto<>(true, "Order created successfully", orderDto));
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<ApiResponseDto<OrderResponseDto>> updateOrderStatus(
             @PathVariable Long id,
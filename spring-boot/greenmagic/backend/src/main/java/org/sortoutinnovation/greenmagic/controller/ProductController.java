@@ -1,24 +1,37 @@
 package org.sortoutinnovation.greenmagic.controller;
 
+import org.sortoutinnovation.greenmagic.analytics.ProductEngagementTracker;
+import org.sortoutinnovation.greenmagic.cache.CatalogVersions;
 import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
+import org.sortoutinnovation.greenmagic.dto.CursorSliceDto;
+import org.sortoutinnovation.greenmagic.dto.ProductCardDto;
 import org.sortoutinnovation.greenmagic.dto.ProductCreateRequestDto;
+import org.sortoutinnovation.greenmagic.dto.ProductDetailDto;
+import org.sortoutinnovation.greenmagic.dto.ProductFacetResultDto;
 import org.sortoutinnovation.greenmagic.dto.ProductResponseDto;
+import org.sortoutinnovation.greenmagic.dto.ProductSuggestionDto;
 import org.sortoutinnovation.greenmagic.dto.ProductUpdateRequestDto;
 import org.sortoutinnovation.greenmagic.mapper.ProductMapper;
 import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.search.ProductAutocompleteService;
+import org.sortoutinnovation.greenmagic.search.ProductFacetIndex;
+import org.sortoutinnovation.greenmagic.search.ProductFacetService;
 import org.sortoutinnovation.greenmagic.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,6 +48,18 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductAutocompleteService productAutocompleteService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Autowired
+    private ProductEngagementTracker productEngagementTracker;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     /**
      * Create a new product
      * POST /api/products
@@ -60,14 +85,20 @@ public class ProductController {
      * GET /api/products
      */
     @GetMapping
-    public ResponseEntity<ApiResponseDto<Page<Product>>> getAllActiveProducts(
+    public ResponseEntity<ApiResponseDto<Page<ProductCardDto>>> getAllActiveProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> products = productService.getAllActiveProducts(pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Products retrieved successfully", products));
+            Page<ProductCardDto> products = productService.getAllActiveProducts(pageable);
+            productEngagementTracker.recordCardImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -75,15 +106,50 @@ public class ProductController {
         }
     }
 
+    /**
+     * Get active products with cursor pagination, newest first
+     * Pass nextCursor from the previous response to get the next slice; no total count is returned
+     * GET /api/products/cursor
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponseDto<CursorSliceDto<Product>>> getActiveProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        
+        try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            CursorSliceDto<Product> products = productService.getActiveProductsSlice(cursor, size);
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
+            
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to retrieve products: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Get product by ID
      * GET /api/products/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponseDto<Product>> getProductById(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponseDto<ProductDetailDto>> getProductById(@PathVariable Integer id, WebRequest webRequest) {
         try {
+            String etag = catalogVersions.productEtag(id);
+            if (webRequest.checkNotModified(etag)) {
+                // Not counted as a view: the ETag alone does not prove that the product exists
+                return notModified(etag);
+            }
             Product product = productService.getProductById(id);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Product found", product));
+            productEngagementTracker.recordView(product.getProductId());
+            return ok(new ApiResponseDto<>(true, "Product found", ProductDetailDto.fromProduct(product)), etag);
             
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -98,10 +164,15 @@ public class ProductController {
      * GET /api/products/sku/{sku}
      */
     @GetMapping("/sku/{sku}")
-    public ResponseEntity<ApiResponseDto<Product>> getProductBySku(@PathVariable String sku) {
+    public ResponseEntity<ApiResponseDto<ProductDetailDto>> getProductBySku(@PathVariable String sku, WebRequest webRequest) {
         try {
+            String etag = catalogVersions.productEtag(productService.getProductIdBySku(sku));
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Product product = productService.getProductBySku(sku);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Product found", product));
+            productEngagementTracker.recordView(product.getProductId());
+            return ok(new ApiResponseDto<>(true, "Product found", ProductDetailDto.fromProduct(product)), etag);
             
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -116,15 +187,21 @@ public class ProductController {
      * GET /api/products/search
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponseDto<Page<Product>>> searchProducts(
+    public ResponseEntity<ApiResponseDto<Page<ProductCardDto>>> searchProducts(
             @RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> products = productService.searchProductsByName(name, pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Products found", products));
+            Page<ProductCardDto> products = productService.searchProductsByName(name, pageable);
+            productEngagementTracker.recordCardImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products found", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -132,6 +209,71 @@ public class ProductController {
         }
     }
 
+    /**
+     * Typeahead suggestions for product names, brands and keywords
+     * GET /api/products/autocomplete
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiResponseDto<List<ProductSuggestionDto>>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        try {
+            List<ProductSuggestionDto> suggestions = productAutocompleteService.suggest(q, limit);
+            return ResponseEntity.ok(new ApiResponseDto<>(true, "Suggestions retrieved successfully", suggestions));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to retrieve suggestions: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Filter active products by any combination of facets, with per-facet counts
+     * Multiple values of one facet are OR-ed, different facets are AND-ed
+     * GET /api/products/filter
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ApiResponseDto<ProductFacetResultDto>> filterProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<String> shippingClass,
+            @RequestParam(required = false) List<String> codAvailable,
+            @RequestParam(required = false) List<String> freeShipping,
+            @RequestParam(required = false) List<String> priceBucket,
+            @RequestParam(required = false) List<String> inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        
+        try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            Map<ProductFacetIndex.Facet, List<String>> selections = new EnumMap<>(ProductFacetIndex.Facet.class);
+            putSelection(selections, ProductFacetIndex.Facet.CATEGORY, category);
+            putSelection(selections, ProductFacetIndex.Facet.BRAND, brand);
+            putSelection(selections, ProductFacetIndex.Facet.SHIPPING_CLASS, shippingClass);
+            putSelection(selections, ProductFacetIndex.Facet.COD_AVAILABLE, codAvailable);
+            putSelection(selections, ProductFacetIndex.Facet.FREE_SHIPPING, freeShipping);
+            putSelection(selections, ProductFacetIndex.Facet.PRICE_BUCKET, priceBucket);
+            putSelection(selections, ProductFacetIndex.Facet.IN_STOCK, inStock);
+
+            Pageable pageable = PageRequest.of(page, size);
+            ProductFacetResultDto result = productFacetService.filterActiveProducts(selections, pageable);
+            productEngagementTracker.recordImpressions(result.getProducts().getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", result), etag);
+            
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to filter products: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Get products by category
      * GET /api/products/category/{categoryId}
@@ -140,12 +282,18 @@ public class ProductController {
     public ResponseEntity<ApiResponseDto<Page<Product>>> getProductsByCategory(
             @PathVariable Integer categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getProductsByCategory(categoryId, pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Products retrieved successfully", products));
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -153,6 +301,35 @@ public class ProductController {
         }
     }
 
+    /**
+     * Get products by category with cursor pagination, newest first
+     * GET /api/products/category/{categoryId}/cursor
+     */
+    @GetMapping("/category/{categoryId}/cursor")
+    public ResponseEntity<ApiResponseDto<CursorSliceDto<Product>>> getProductsByCategoryByCursor(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        
+        try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            CursorSliceDto<Product> products = productService.getProductsByCategorySlice(categoryId, cursor, size);
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
+            
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to retrieve products: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Get featured products
      * GET /api/products/featured
@@ -160,12 +337,18 @@ public class ProductController {
     @GetMapping("/featured")
     public ResponseEntity<ApiResponseDto<Page<Product>>> getFeaturedProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getFeaturedProducts(pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Featured products retrieved successfully", products));
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Featured products retrieved successfully", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -180,12 +363,18 @@ public class ProductController {
     @GetMapping("/sale")
     public ResponseEntity<ApiResponseDto<Page<Product>>> getProductsOnSale(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getProductsOnSale(pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Sale products retrieved successfully", products));
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Sale products retrieved successfully", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -242,11 +431,17 @@ public class ProductController {
             @RequestParam BigDecimal minPrice,
             @RequestParam BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Products retrieved successfully", products));
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -254,6 +449,35 @@ public class ProductController {
         }
     }
 
+    /**
+     * Get products by price range with cursor pagination, cheapest first
+     * GET /api/products/price-range/cursor
+     */
+    @GetMapping("/price-range/cursor")
+    public ResponseEntity<ApiResponseDto<CursorSliceDto<Product>>> getProductsByPriceRangeByCursor(
+            @RequestParam BigDecimal minPrice,
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            CursorSliceDto<Product> products = productService.getProductsByPriceRangeSlice(minPrice, maxPrice, cursor, size);
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
+            
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponseDto<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to retrieve products: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Get products by brand
      * GET /api/products/brand/{brand}
@@ -262,12 +486,18 @@ public class ProductController {
     public ResponseEntity<ApiResponseDto<Page<Product>>> getProductsByBrand(
             @PathVariable String brand,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         
         try {
+            String etag = catalogVersions.catalogEtag();
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getProductsByBrand(brand, pageable);
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Products retrieved successfully", products));
+            productEngagementTracker.recordImpressions(products.getContent());
+            return ok(new ApiResponseDto<>(true, "Products retrieved successfully", products), etag);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -275,5 +505,19 @@ public class ProductController {
         }
     }
 
+    // no-cache: clients keep the response but revalidate it with If-None-Match on every use
+    private static <T> ResponseEntity<T> ok(T body, String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
 
+    private void putSelection(Map<ProductFacetIndex.Facet, List<String>> selections,
+                              ProductFacetIndex.Facet facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            selections.put(facet, values);
+        }
+    }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.sortoutinnovation.greenmagic.controller;
 
 import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
+import org.sortoutinnovation.greenmagic.dto.ProductRatingDto;
 import org.sortoutinnovation.greenmagic.model.Review;
 import org.sortoutinnovation.greenmagic.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -101,4 +102,15 @@ public class ReviewController {
                 .body(new ApiResponseDto<>(false, "Failed to get review count: " + e.getMessage(), null));
         }
     }
+
+    @GetMapping("/product/{productId}/summary")
+    public ResponseEntity<ApiResponseDto<ProductRatingDto>> getRatingSummary(@PathVariable Integer productId) {
+        try {
+            ProductRatingDto summary = reviewService.getRatingSummary(productId);
+            return ResponseEntity.ok(new ApiResponseDto<>(true, "Rating summary retrieved", summary));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseDto<>(false, "Failed to get rating summary: " + e.getMessage(), null));
+        }
+    }
 } 
\ No newline at end of file
@@ -14,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -34,6 +35,9 @@ public class UserController {
     @Autowired
     private RoleService roleService;
 
+    @Autowired
+    private JsonResponseStreamer jsonResponseStreamer;
+
     /**
      * Register a new user
      * POST /users/register (accessible at /api/users/register due to context path)
@@ -113,19 +117,12 @@ public class UserController {
     }
 
     /**
-     * Get active users
+     * Get active users, streamed as they are read
      * GET /api/users/active
      */
     @GetMapping("/active")
-    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getActiveUsers() {
-        try {
-            List<UserResponseDto> userDtos = userService.getAllUsers();
-            return ResponseEntity.ok(new ApiResponseDto<>(true, "Users retrieved successfully", userDtos));
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ApiResponseDto<>(false, "Failed to retrieve users: " + e.getMessage(), null));
-        }
+    public ResponseEntity<StreamingResponseBody> getActiveUsers() {
+        return jsonResponseStreamer.stream("Users retrieved successfully", userService::streamAllUsers);
     }
 
     /**
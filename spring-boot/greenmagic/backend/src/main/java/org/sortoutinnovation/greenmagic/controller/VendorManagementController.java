@@ -8,6 +8,8 @@ import org.sortoutinnovation.greenmagic.dto.ProductCreateRequestDto;
 import org.sortoutinnovation.greenmagic.dto.ProductPerformanceDto;
 import org.sortoutinnovation.greenmagic.dto.ProductUpdateRequestDto;
 import org.sortoutinnovation.greenmagic.dto.ProductResponseDto;
+import org.sortoutinnovation.greenmagic.dto.VendorProductDetailsDto;
+import org.sortoutinnovation.greenmagic.inventory.LowStockAlertBroadcaster;
 import org.sortoutinnovation.greenmagic.model.*;
 import org.sortoutinnovation.greenmagic.service.BulkOperationService;
 import org.sortoutinnovation.greenmagic.service.ProductService;
@@ -19,14 +21,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -49,6 +55,12 @@ public class VendorManagementController {
     
     @Autowired
     private ObjectMapper objectMapper;
+
+    @Autowired
+    private JsonResponseStreamer jsonResponseStreamer;
+
+    @Autowired
+    private LowStockAlertBroadcaster lowStockAlertBroadcaster;
     
     @Autowired
     private BulkOperationService bulkOperationService;
@@ -150,6 +162,20 @@ public class VendorManagementController {
         }
     }
 
+    /**
+     * Get all vendor products, unpaged and newest first, streamed as they are read
+     * For exports and clients that load the whole catalog of a vendor
+     * GET /api/vendor/products/stream
+     */
+    @GetMapping("/products/stream")
+    public ResponseEntity<StreamingResponseBody> streamVendorProducts(
+            @RequestParam Integer vendorId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category) {
+        return jsonResponseStreamer.stream("Products retrieved successfully",
+            () -> vendorManagementService.streamVendorProducts(vendorId, status, category));
+    }
+
     /**
      * Get product statistics for vendor
      * GET /api/vendor/products/stats
@@ -165,6 +191,16 @@ public class VendorManagementController {
         }
     }
 
+    /**
+     * Subscribe to low-stock alerts for vendor products and variants
+     * Sends a "low-stock" server-sent event whenever an item crosses its stock alert threshold
+     * GET /api/vendor/products/low-stock/alerts
+     */
+    @GetMapping(value = "/products/low-stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts(@RequestParam Integer vendorId) {
+        return lowStockAlertBroadcaster.subscribe(vendorId);
+    }
+
     /**
      * Get product performance data for a vendor
      * GET /api/vendor/products/performance
@@ -388,11 +424,11 @@ public class VendorManagementController {
      * GET /api/vendor/products/{productId}/details
      */
     @GetMapping("/products/{productId}/details")
-    public ResponseEntity<ApiResponseDto<Map<String, Object>>> getProductDetails(
+    public ResponseEntity<ApiResponseDto<VendorProductDetailsDto>> getProductDetails(
             @RequestParam Integer vendorId,
             @PathVariable Integer productId) {
         try {
-            Map<String, Object> productDetails = vendorManagementService.getProductDetails(vendorId, productId);
+            VendorProductDetailsDto productDetails = vendorManagementService.getProductDetails(vendorId, productId);
             return ResponseEntity.ok(new ApiResponseDto<>(true, "Product details retrieved successfully", productDetails));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -407,11 +443,11 @@ public class VendorManagementController {
      * GET /api/vendor/products/{productId}/analytics
      */
     @GetMapping("/products/{productId}/analytics")
-    public ResponseEntity<ApiResponseDto<Map<String, Object>>> getProductAnalytics(
+    public ResponseEntity<ApiResponseDto<VendorProductDetailsDto.Analytics>> getProductAnalytics(
             @RequestParam Integer vendorId,
             @PathVariable Integer productId) {
         try {
-            Map<String, Object> analytics = vendorManagementService.getProductAnalytics(vendorId, productId);
+            VendorProductDetailsDto.Analytics analytics = vendorManagementService.getProductAnalytics(vendorId, productId);
             return ResponseEntity.ok(new ApiResponseDto<>(true, "Product analytics retrieved successfully", analytics));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -698,8 +734,7 @@ public class VendorManagementController {
             @PathVariable Integer productId,
             @RequestBody Map<String, Object> request) {
         try {
-            @SuppressWarnings("unchecked")
-            List<Long> variantIds = (List<Long>) request.get("variantIds");
+            List<Long> variantIds = toVariantIds(request.get("variantIds"));
             String updateType = (String) request.get("updateType");
             BigDecimal value = new BigDecimal(request.get("value").toString());
             
@@ -721,8 +756,7 @@ public class VendorManagementController {
             @PathVariable Integer productId,
             @RequestBody Map<String, Object> request) {
         try {
-            @SuppressWarnings("unchecked")
-            List<Long> variantIds = (List<Long>) request.get("variantIds");
+            List<Long> variantIds = toVariantIds(request.get("variantIds"));
             String updateType = (String) request.get("updateType");
             Integer value = Integer.parseInt(request.get("value").toString());
             
@@ -744,8 +778,7 @@ public class VendorManagementController {
             @PathVariable Integer productId,
             @RequestBody Map<String, Object> request) {
         try {
-            @SuppressWarnings("unchecked")
-            List<Long> variantIds = (List<Long>) request.get("variantIds");
+            List<Long> variantIds = toVariantIds(request.get("variantIds"));
             String status = (String) request.get("status");
             
             vendorManagementService.bulkUpdateVariantStatus(vendorId, productId, variantIds, status);
@@ -766,8 +799,7 @@ public class VendorManagementController {
             @PathVariable Integer productId,
             @RequestBody Map<String, Object> request) {
         try {
-            @SuppressWarnings("unchecked")
-            List<Long> variantIds = (List<Long>) request.get("variantIds");
+            List<Long> variantIds = toVariantIds(request.get("variantIds"));
             @SuppressWarnings("unchecked")
             Map<String, Object> updateData = (Map<String, Object>) request.get("updateData");
             
@@ -830,7 +862,7 @@ public class VendorManagementController {
     @PutMapping("/orders/{orderId}/status")
     public ResponseEntity<ApiResponseDto<Order>> updateOrderStatus(
             @RequestParam Integer vendorId,
-            @PathVariable Integer orderId,
+            @PathVariable Long orderId,
             @RequestBody Map<String, String> request) {
         try {
             String status = request.get("status");
@@ -938,4 +970,15 @@ public class VendorManagementController {
                 .body(new ApiResponseDto<>(false, "Failed to update vendor settings: " + e.getMessage(), null));
         }
     }
-} 
\ No newline at end of file
+
+    // Variant IDs are 64-bit and sent as JSON strings; plain numbers are accepted too
+    private static List<Long> toVariantIds(Object value) {
+        List<Long> ids = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object id : list) {
+                ids.add(id instanceof Number number ? number.longValue() : Long.valueOf(id.toString()));
+            }
+        }
+        return ids;
+    }
+}
@@ -1,5 +1,7 @@
 package org.sortoutinnovation.greenmagic.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,7 +29,8 @@ public class CartResponseDto {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CartItemDto {
-        private Integer cartItemId;
+        @JsonSerialize(using = ToStringSerializer.class)
+        private Long cartItemId;
         private Integer productId;
         private String productName;
         private String productImage;
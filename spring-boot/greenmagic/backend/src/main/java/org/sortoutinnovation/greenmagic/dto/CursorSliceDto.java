@@ -0,0 +1,61 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO for a keyset-paginated slice
+ * Carries no total count; nextCursor is null on the last slice
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorSliceDto<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Build from a Slice, deriving the next cursor from its last element
+     * @param slice fetched slice
+     * @param cursorOf sort key of an element
+     * @return CursorSliceDto
+     */
+    public static <T> CursorSliceDto<T> of(Slice<T> slice, Function<T, SeekCursor> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+            ? cursorOf.apply(content.get(content.size() - 1)).encode()
+            : null;
+        return new CursorSliceDto<>(content, content.size(), slice.hasNext(), nextCursor);
+    }
+
+    /**
+     * Build from rows fetched with one row of look-ahead (size + 1), which tells whether a next
+     * slice exists without a COUNT query
+     * @param rows fetched rows, at most size + 1
+     * @param size requested slice size
+     * @param cursorOf sort key of an element
+     * @return CursorSliceDto
+     */
+    public static <T> CursorSliceDto<T> fromLookAhead(List<T> rows, int size, Function<T, SeekCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return of(new SliceImpl<>(content, PageRequest.of(0, Math.max(size, 1)), hasNext), cursorOf);
+    }
+
+    /**
+     * Convert the content, keeping the cursor
+     */
+    public <R> CursorSliceDto<R> map(Function<T, R> mapper) {
+        return new CursorSliceDto<>(content.stream().map(mapper).toList(), size, hasNext, nextCursor);
+    }
+}
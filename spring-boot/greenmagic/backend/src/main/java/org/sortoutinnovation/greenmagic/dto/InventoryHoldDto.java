@@ -0,0 +1,23 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO for a checkout reservation of product stock
+ * Pass holdId when placing the order to take the held stock
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHoldDto {
+
+    private String holdId;
+    private Integer userId;
+    private Map<Integer, Integer> items;
+    private LocalDateTime expiresAt;
+}
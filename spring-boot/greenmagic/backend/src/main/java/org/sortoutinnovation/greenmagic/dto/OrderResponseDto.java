@@ -1,6 +1,8 @@
 package org.sortoutinnovation.greenmagic.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,7 +20,9 @@ import java.util.List;
 @AllArgsConstructor
 public class OrderResponseDto {
 
-    private Integer orderId;
+    // 64-bit IDs are sent as strings, JavaScript numbers cannot hold them exactly
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long orderId;
     private String status;
     private String paymentMethod;
     private Order.PaymentStatus paymentStatus;
@@ -40,7 +44,8 @@ public class OrderResponseDto {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class OrderItemResponseDto {
-        private Integer orderItemId;
+        @JsonSerialize(using = ToStringSerializer.class)
+        private Long orderItemId;
         private Integer productId;
         private String productName;
         private String productImage;
@@ -66,7 +71,7 @@ public class OrderResponseDto {
     }
 
     // Constructor for order summary
-    public OrderResponseDto(Integer orderId, String status, BigDecimal totalPrice, LocalDateTime orderDate, Order.PaymentStatus paymentStatus) {
+    public OrderResponseDto(Long orderId, String status, BigDecimal totalPrice, LocalDateTime orderDate, Order.PaymentStatus paymentStatus) {
         this.orderId = orderId;
         this.status = status;
         this.totalPrice = totalPrice;
@@ -0,0 +1,22 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the SLA deadline of an order's current status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSlaDeadlineDto {
+
+    private Long orderId;
+    private Long statusId;
+    private OrderStatus.StatusType status;
+    private LocalDateTime slaDeadline;
+}
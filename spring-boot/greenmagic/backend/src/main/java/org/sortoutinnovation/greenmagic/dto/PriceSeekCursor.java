@@ -0,0 +1,49 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset pagination in price order
+ * Holds the sort key of the last row returned, (price in paise, productId)
+ * Encoded as an opaque URL-safe string so clients cannot depend on its layout
+ */
+@Data
+@AllArgsConstructor
+public class PriceSeekCursor {
+
+    private long pricePaise;
+    private Integer id;
+
+    /**
+     * Encode the cursor as a URL-safe token
+     * @return String token
+     */
+    public String encode() {
+        String raw = pricePaise + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by encode()
+     * @param token cursor token, or null/blank for the first page
+     * @return PriceSeekCursor, or null for the first page
+     * @throws RuntimeException if the token is malformed
+     */
+    public static PriceSeekCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PriceSeekCursor(Long.parseLong(raw.substring(0, separator)),
+                Integer.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.sortoutinnovation.greenmagic.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a product card in storefront listings
+ * Selected directly by ProductRepository constructor queries; field order must match the
+ * constructor expression there
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCardDto {
+
+    private Integer productId;
+    private String sku;
+    private String name;
+    private String urlSlug;
+    private String shortDescription;
+    private String brand;
+    private BigDecimal price;
+    private BigDecimal mrp;
+    private Integer quantity;
+    private String imageUrl;
+    private Boolean freeShipping;
+    private Boolean isCodAvailable;
+    private Product.ProductStatus status;
+    private Integer categoryId;
+    private String categoryName;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,148 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.ProductVariant;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for the storefront product page
+ * Built from the product cache's detached instances, so it only reads what the cache loads: the
+ * columns, the content group and the variants; category and vendor are given by ID, read without
+ * initializing their lazy proxies. Vendor-only data such as the cost price is left out
+ */
+@Data
+@NoArgsConstructor
+public class ProductDetailDto {
+
+    private Integer productId;
+    private String sku;
+    private String name;
+    private String urlSlug;
+    private String brand;
+    private Product.ProductType productType;
+    private Integer categoryId;
+    private Integer subcategoryId;
+    private Integer vendorId;
+    private Product.ProductStatus status;
+
+    private BigDecimal mrp;
+    private BigDecimal price;
+    private LocalDateTime offerStartDate;
+    private LocalDateTime offerEndDate;
+    private String bulkPricingTiers;
+
+    private Integer quantity;
+    private String unitOfMeasurement;
+    private Integer minimumOrderQuantity;
+    private Integer maximumOrderQuantity;
+    private LocalDate restockDate;
+
+    private String imageUrl;
+    private String galleryImages;
+    private String videoUrl;
+    private List<String> imageAltTags;
+
+    private BigDecimal weightForShipping;
+    private String dimensions;
+    private String deliveryTimeEstimate;
+    private Product.ShippingClass shippingClass;
+    private Boolean coldStorageRequired;
+    private Boolean freeShipping;
+    private BigDecimal freeShippingThreshold;
+    private Boolean isReturnable;
+    private Product.ReturnWindow returnWindow;
+    private List<String> returnConditions;
+    private Boolean isCodAvailable;
+
+    private String shortDescription;
+    private String description;
+    private List<String> keyFeatures;
+    private List<Map<String, String>> productHighlights;
+    private String fssaiLicense;
+    private String qualityCertifications;
+
+    private String metaTitle;
+    private String metaDescription;
+    private List<String> searchKeywords;
+    private String structuredData;
+
+    private LocalDateTime createdAt;
+    private List<ProductVariant> variants;
+
+    /**
+     * Map a product from the product cache
+     * @param product cached product, with its content group and variants loaded
+     * @return ProductDetailDto
+     */
+    public static ProductDetailDto fromProduct(Product product) {
+        ProductDetailDto dto = new ProductDetailDto();
+        dto.setProductId(product.getProductId());
+        dto.setSku(product.getSku());
+        dto.setName(product.getName());
+        dto.setUrlSlug(product.getUrlSlug());
+        dto.setBrand(product.getBrand());
+        dto.setProductType(product.getProductType());
+        dto.setCategoryId(ProductChangedEvent.categoryIdOf(product.getCategory()));
+        dto.setSubcategoryId(product.getSubcategoryId());
+        dto.setVendorId(ProductChangedEvent.userIdOf(product.getCreatedBy()));
+        dto.setStatus(product.getStatus());
+
+        dto.setMrp(product.getMrp());
+        dto.setPrice(product.getPrice());
+        dto.setOfferStartDate(product.getOfferStartDate());
+        dto.setOfferEndDate(product.getOfferEndDate());
+        dto.setBulkPricingTiers(product.getBulkPricingTiers());
+
+        dto.setQuantity(product.getQuantity());
+        dto.setUnitOfMeasurement(product.getUnitOfMeasurement());
+        dto.setMinimumOrderQuantity(product.getMinimumOrderQuantity());
+        dto.setMaximumOrderQuantity(product.getMaximumOrderQuantity());
+        dto.setRestockDate(product.getRestockDate());
+
+        dto.setImageUrl(product.getImageUrl());
+        dto.setGalleryImages(product.getGalleryImages());
+        dto.setVideoUrl(product.getVideoUrl());
+        dto.setImageAltTags(product.getImageAltTags());
+
+        dto.setWeightForShipping(product.getWeightForShipping());
+        dto.setDimensions(product.getDimensions());
+        dto.setDeliveryTimeEstimate(product.getDeliveryTimeEstimate());
+        dto.setShippingClass(product.getShippingClass());
+        dto.setColdStorageRequired(product.getColdStorageRequired());
+        dto.setFreeShipping(product.getFreeShipping());
+        dto.setFreeShippingThreshold(product.getFreeShippingThreshold());
+        dto.setIsReturnable(product.getIsReturnable());
+        dto.setReturnWindow(product.getReturnWindow());
+        dto.setReturnConditions(product.getReturnConditions());
+        dto.setIsCodAvailable(product.getIsCodAvailable());
+
+        dto.setShortDescription(product.getShortDescription());
+        dto.setDescription(product.getDescription());
+        dto.setKeyFeatures(product.getKeyFeatures());
+        dto.setProductHighlights(product.getProductHighlights());
+        dto.setFssaiLicense(product.getFssaiLicense());
+        dto.setQualityCertifications(product.getQualityCertifications());
+
+        dto.setMetaTitle(product.getMetaTitle());
+        dto.setMetaDescription(product.getMetaDescription());
+        dto.setSearchKeywords(product.getSearchKeywords());
+        dto.setStructuredData(product.getStructuredData());
+
+        dto.setCreatedAt(product.getCreatedAt());
+        List<ProductVariant> variants = product.getVariants() != null
+            ? new ArrayList<>(product.getVariants()) : new ArrayList<>();
+        variants.sort(Comparator.comparing(ProductVariant::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder())));
+        dto.setVariants(variants);
+        return dto;
+    }
+}
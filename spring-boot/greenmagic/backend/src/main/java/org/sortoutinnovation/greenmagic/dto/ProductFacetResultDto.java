@@ -0,0 +1,23 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+/**
+ * DTO for faceted catalog filtering
+ * facets maps each facet name (category, brand, shippingClass, codAvailable, freeShipping,
+ * priceBucket, inStock) to the number of matching products per value
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResultDto {
+
+    private Page<Product> products;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,22 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a product's rating aggregate
+ * starCounts[0] is the number of 1-star ratings, starCounts[4] the number of 5-star ratings
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingDto {
+
+    private Integer productId;
+    private BigDecimal averageRating;
+    private Long reviewCount;
+    private int[] starCounts;
+}
@@ -0,0 +1,20 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a typeahead suggestion
+ * type is PRODUCT, BRAND or KEYWORD; productId is only set for PRODUCT suggestions
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestionDto {
+
+    private String text;
+    private String type;
+    private Integer productId;
+    private Long unitsSold;
+}
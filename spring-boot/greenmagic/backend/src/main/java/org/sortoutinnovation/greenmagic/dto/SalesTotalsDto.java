@@ -0,0 +1,22 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for sales totals summed over a range of rollup periods
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTotalsDto {
+
+    private Long orderCount;
+    private BigDecimal grossSales;
+    private Long completedCount;
+    private BigDecimal completedSales;
+    private BigDecimal completedTax;
+}
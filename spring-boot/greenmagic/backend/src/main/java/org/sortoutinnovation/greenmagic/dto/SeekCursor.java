@@ -0,0 +1,52 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset pagination
+ * Holds the sort key of the last row returned, (createdAt, productId) or (orderDate, orderId);
+ * the next page seeks past it instead of skipping an OFFSET
+ * Encoded as an opaque URL-safe string so clients cannot depend on its layout
+ */
+@Data
+@AllArgsConstructor
+public class SeekCursor {
+
+    private LocalDateTime timestamp;
+    private Long id;
+
+    /**
+     * Encode the cursor as a URL-safe token
+     * @return String token
+     */
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by encode()
+     * @param token cursor token, or null/blank for the first page
+     * @return SeekCursor, or null for the first page
+     * @throws RuntimeException if the token is malformed
+     */
+    public static SeekCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.sortoutinnovation.greenmagic.model.ProductVariant;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for the vendor product details modal, one nested section per editor tab
+ * Instances are cached and shared between requests; treat them as read-only
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorProductDetailsDto {
+
+    // Owner of the product, used for the access check only
+    @JsonIgnore
+    private Integer vendorId;
+
+    private Basic basic;
+    private Pricing pricing;
+    private Inventory inventory;
+    private Media media;
+    private Shipping shipping;
+    private Descriptions descriptions;
+    private Certifications certifications;
+    private Seo seo;
+    private Analytics analytics;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Basic {
+        private Integer productId;
+        private String name;
+        private String description;
+        private String shortDescription;
+        private String sku;
+        private Integer categoryId;
+        private String categoryName;
+        private Integer subcategoryId;
+        private String brand;
+        private String productType;
+        private String status;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pricing {
+        private BigDecimal price;
+        private BigDecimal mrp;
+        private BigDecimal costPrice;
+        private LocalDateTime offerStartDate;
+        private LocalDateTime offerEndDate;
+        private String bulkPricingTiers;
+        private BigDecimal comparePrice;
+        private BigDecimal margin;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Inventory {
+        private Integer stockQuantity;
+        private String unitOfMeasurement;
+        private Integer minimumOrderQuantity;
+        private Integer maximumOrderQuantity;
+        private Integer minStockAlert;
+        private Boolean trackQuantity;
+        private LocalDate restockDate;
+        private List<ProductVariant> variants;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Media {
+        private List<String> images;
+        private String mainImageUrl;
+        private List<String> galleryImages;
+        private String videoUrl;
+        private List<String> imageAltTags;
+        private List<Object> videos = new ArrayList<>();
+        private List<Object> documents = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shipping {
+        private BigDecimal weightForShipping;
+        private String dimensions;
+        private String deliveryTimeEstimate;
+        private String shippingClass;
+        private Boolean coldStorageRequired;
+        private Boolean specialPackaging;
+        private Boolean insuranceRequired;
+        private Boolean freeShipping;
+        private BigDecimal freeShippingThreshold;
+        private Boolean isReturnable;
+        private String returnWindow;
+        private List<String> returnConditions;
+        private Boolean isCodAvailable;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Descriptions {
+        private String shortDescription;
+        private String detailedDescription;
+        private List<String> keyFeatures;
+        private List<Map<String, String>> productHighlights;
+        // Not in the current model
+        private String usageInstructions = "";
+        private String storageInstructions = "";
+        private String ingredients = "";
+        private String nutritionalInfo = "";
+        private String shelfLife = "";
+        private String origin = "";
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Certifications {
+        private String fssaiLicense;
+        // Not in the current model
+        private String organicCertification = "";
+        private String isoCertification = "";
+        private String qualityCertifications;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Seo {
+        private String metaTitle;
+        private String metaDescription;
+        private List<String> searchKeywords;
+        private String urlSlug;
+        private String structuredData;
+        // Not in the current model
+        private String socialMediaText = "";
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Analytics {
+        private Integer totalSales;
+        private BigDecimal totalRevenue;
+        private Long pageViews;
+        private Double addToCartRate;
+        private Double conversionRate;
+        private BigDecimal averageRating;
+        private Long reviewCount;
+    }
+}
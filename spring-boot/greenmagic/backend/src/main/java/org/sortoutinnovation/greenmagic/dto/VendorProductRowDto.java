@@ -0,0 +1,44 @@
+package org.sortoutinnovation.greenmagic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.sortoutinnovation.greenmagic.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a row of the vendor product list
+ * Selected directly by ProductRepository constructor queries; field order must match the
+ * constructor expression there. descriptionSnippet holds the first characters of the description only
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorProductRowDto {
+
+    private Integer productId;
+    private String sku;
+    private String name;
+    private String urlSlug;
+    private String descriptionSnippet;
+    private String shortDescription;
+    private String brand;
+    private BigDecimal price;
+    private BigDecimal mrp;
+    private BigDecimal costPrice;
+    private Integer quantity;
+    private String imageUrl;
+    private String deliveryTimeEstimate;
+    private Boolean freeShipping;
+    private Boolean isReturnable;
+    private Boolean isCodAvailable;
+    private Product.ProductStatus status;
+    private Integer categoryId;
+    private String categoryName;
+    private String createdByName;
+    private LocalDateTime offerStartDate;
+    private LocalDateTime offerEndDate;
+    private LocalDateTime createdAt;
+}
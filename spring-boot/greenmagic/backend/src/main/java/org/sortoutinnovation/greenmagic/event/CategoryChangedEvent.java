@@ -0,0 +1,14 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Application event raised by CategoryService after a category is created, updated or deleted
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+
+    private final Integer categoryId;
+}
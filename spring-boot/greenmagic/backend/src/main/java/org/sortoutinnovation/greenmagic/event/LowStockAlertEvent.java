@@ -0,0 +1,26 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Application event raised by LowStockIndex when a product or variant crosses its minStockAlert
+ * threshold, in either direction, after the write that crossed it has committed
+ * Published from an after-commit listener, so consumers should use a plain @EventListener
+ */
+@Getter
+@AllArgsConstructor
+public class LowStockAlertEvent {
+
+    private final Integer vendorId;
+    private final Integer productId;
+    // Null for a product-level alert; sent to the SSE clients as a string
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final Long variantId;
+    private final Integer quantity;
+    private final Integer threshold;
+    // True when the item became low on stock, false when it recovered or stopped being sold
+    private final boolean low;
+}
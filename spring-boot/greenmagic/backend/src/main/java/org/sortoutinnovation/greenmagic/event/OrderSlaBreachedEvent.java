@@ -0,0 +1,22 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event raised by SlaBreachDetector when an order is still in a status at its SLA deadline
+ * Published from the detector's timer thread, outside any transaction, so consumers should use a
+ * plain @EventListener and hand slow work off to another thread
+ */
+@Getter
+@AllArgsConstructor
+public class OrderSlaBreachedEvent {
+
+    private final Long orderId;
+    private final Long statusId;
+    private final OrderStatus.StatusType status;
+    private final LocalDateTime slaDeadline;
+}
@@ -0,0 +1,22 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event raised by OrderStatusLog for each order whose current status row it writes
+ * Published just before the transaction commits; subscribers use @TransactionalEventListener
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final Long statusId;
+    private final OrderStatus.StatusType status;
+    // Null when the new status has no SLA
+    private final LocalDateTime slaDeadline;
+}
@@ -0,0 +1,67 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.proxy.HibernateProxy;
+import org.sortoutinnovation.greenmagic.model.Category;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.User;
+
+/**
+ * Application event raised whenever a product row is inserted, updated or removed
+ * Published by ProductEntityListener so every write path (ProductService, VendorManagementService,
+ * BulkOperationService) is covered; in-memory catalog structures subscribe to it after commit
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Product product;
+    private final ChangeType changeType;
+
+    public Integer getProductId() {
+        return product.getProductId();
+    }
+
+    public boolean isDeleted() {
+        return changeType == ChangeType.DELETED;
+    }
+
+    /**
+     * Vendor ID of the product, read without initializing a lazy proxy
+     */
+    public Integer getVendorId() {
+        return userIdOf(product.getCreatedBy());
+    }
+
+    /**
+     * Category ID of the product, read without initializing a lazy proxy
+     */
+    public Integer getCategoryId() {
+        return categoryIdOf(product.getCategory());
+    }
+
+    public static Integer userIdOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        if (user instanceof HibernateProxy proxy) {
+            return (Integer) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return user.getUserId();
+    }
+
+    public static Integer categoryIdOf(Category category) {
+        if (category == null) {
+            return null;
+        }
+        if (category instanceof HibernateProxy proxy) {
+            return (Integer) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return category.getCategoryId();
+    }
+}
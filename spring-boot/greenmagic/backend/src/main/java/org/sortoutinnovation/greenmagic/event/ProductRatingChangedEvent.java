@@ -0,0 +1,14 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Application event raised when a review write changed a product's rating aggregate
+ */
+@Getter
+@AllArgsConstructor
+public class ProductRatingChangedEvent {
+
+    private final Integer productId;
+}
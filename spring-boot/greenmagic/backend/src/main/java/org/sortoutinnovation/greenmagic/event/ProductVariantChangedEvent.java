@@ -0,0 +1,18 @@
+package org.sortoutinnovation.greenmagic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.sortoutinnovation.greenmagic.model.ProductVariant;
+
+/**
+ * Application event raised whenever a product variant row is inserted, updated or removed
+ * Published by ProductVariantEntityListener
+ */
+@Getter
+@AllArgsConstructor
+public class ProductVariantChangedEvent {
+
+    private final Integer productId;
+    private final ProductVariant variant;
+    private final boolean deleted;
+}
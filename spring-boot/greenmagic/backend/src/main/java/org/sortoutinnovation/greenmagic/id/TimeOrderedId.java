@@ -0,0 +1,18 @@
+package org.sortoutinnovation.greenmagic.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Long identifier as assigned by TimeOrderedIdGenerator when the entity is persisted
+ * The ID is known before the INSERT, so Hibernate can batch the inserts
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,68 @@
+package org.sortoutinnovation.greenmagic.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates k-sortable 64-bit IDs in memory, without a database round trip
+ * Layout, high to low: a zero sign bit, 41 bits of milliseconds since 2025-01-01 UTC (until 2094),
+ * 10 bits of node ID and 12 bits of sequence within the millisecond
+ * IDs from one node strictly increase; IDs from different nodes never collide and sort by time to the
+ * millisecond, so new rows land at the right end of the primary key index
+ * The last timestamp and sequence share one AtomicLong updated by compare-and-set, so allocation never
+ * blocks: when a millisecond's 4096 sequence numbers run out, or the clock steps back, allocation
+ * carries on from the last value into the next millisecond instead of waiting for the clock
+ * Allocation can therefore run ahead of the clock, and the clock can be behind IDs stored before a
+ * restart; advancePast with the largest stored ID keeps a new allocator from reissuing them
+ */
+public class TimeOrderedIdAllocator {
+
+    public static final long EPOCH_MILLIS = 1735689600000L;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeBits;
+
+    // (milliseconds since the epoch << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIdAllocator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Next ID of this node
+     */
+    public long next() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long current = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, current)) {
+                return (current >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (current & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Continue after the millisecond of the given ID, e.g. the largest one already stored
+     * Covers every node's IDs of that millisecond, whatever their sequence numbers; never moves backwards
+     */
+    public void advancePast(long id) {
+        long floor = (id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS | SEQUENCE_MASK;
+        last.accumulateAndGet(floor, Math::max);
+    }
+
+    /**
+     * Creation time of an ID in epoch milliseconds, to the millisecond
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
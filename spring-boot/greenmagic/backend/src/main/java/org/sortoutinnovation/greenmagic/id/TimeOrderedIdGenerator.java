@@ -0,0 +1,41 @@
+package org.sortoutinnovation.greenmagic.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Hibernate identifier generator behind @TimeOrderedId
+ * Uses the TimeOrderedIdAllocator registered in the Hibernate settings under ALLOCATOR_SETTING, so
+ * entities and code that writes rows with JDBC share one allocator; without it, node 0 is used
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String ALLOCATOR_SETTING = "greenmagic.id.allocator";
+
+    private final TimeOrderedIdAllocator allocator;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        Object configured = context.getServiceRegistry().requireService(ConfigurationService.class)
+            .getSettings().get(ALLOCATOR_SETTING);
+        this.allocator = configured instanceof TimeOrderedIdAllocator
+            ? (TimeOrderedIdAllocator) configured
+            : new TimeOrderedIdAllocator(0);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return allocator.next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
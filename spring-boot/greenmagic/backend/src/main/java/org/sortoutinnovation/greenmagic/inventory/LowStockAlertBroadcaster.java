@@ -0,0 +1,55 @@
+package org.sortoutinnovation.greenmagic.inventory;
+
+import org.sortoutinnovation.greenmagic.event.LowStockAlertEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes LowStockAlertEvent to the vendor's open dashboards as server-sent events
+ * Subscriptions live only in this instance's memory; a dashboard that reconnects reads the current
+ * low-stock list from the dashboard endpoint and then follows the stream
+ */
+@Component
+public class LowStockAlertBroadcaster {
+
+    // Zero disables the container's async timeout; dead connections are dropped on the next send
+    private static final long NO_TIMEOUT = 0L;
+
+    private final Map<Integer, List<SseEmitter>> emittersByVendor = new ConcurrentHashMap<>();
+
+    /**
+     * Open an alert stream for a vendor
+     * @param vendorId vendor ID
+     * @return SseEmitter that receives a "low-stock" event per crossing
+     */
+    public SseEmitter subscribe(Integer vendorId) {
+        SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
+        List<SseEmitter> emitters = emittersByVendor.computeIfAbsent(vendorId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        return emitter;
+    }
+
+    @EventListener
+    public void onLowStockAlert(LowStockAlertEvent event) {
+        List<SseEmitter> emitters = emittersByVendor.get(event.getVendorId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("low-stock").data(event));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package org.sortoutinnovation.greenmagic.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.event.LowStockAlertEvent;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.ProductVariant;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductVariantRepository;
+import org.sortoutinnovation.greenmagic.search.CatalogIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Per-vendor sets of the active products and variants at or below their minStockAlert threshold
+ * Products arrive through CatalogIndexBootstrapper like the other catalog indexes; variants are
+ * loaded with one query once the products are in, then follow ProductVariantChangedEvent
+ * Every committed quantity, threshold or status write is compared with the item's previous state, so
+ * crossings are detected at write time and published as LowStockAlertEvent; dashboard counts are
+ * the size of a set
+ */
+@Component
+public class LowStockIndex implements CatalogIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Integer, Set<Integer>> lowProductsByVendor = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Long>> lowVariantsByVendor = new ConcurrentHashMap<>();
+
+    // Vendor of each low item, to find its set again when it recovers
+    private final Map<Integer, Integer> lowProductVendors = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> lowVariantVendors = new ConcurrentHashMap<>();
+
+    // Vendor of every product by ID (0 when unknown), so variant changes need no product lookup
+    private int[] vendorByProductId = new int[1024];
+
+    // Variant changes committed before the initial variant load; replayed after it
+    private final Queue<ProductVariantChangedEvent> pendingVariantChanges = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public synchronized void upsert(Product product) {
+        Integer productId = product.getProductId();
+        Integer vendorId = ProductChangedEvent.userIdOf(product.getCreatedBy());
+        if (productId == null) {
+            return;
+        }
+        setVendor(productId, vendorId);
+
+        boolean low = vendorId != null
+            && product.getStatus() == Product.ProductStatus.ACTIVE
+            && isAtOrBelow(product.getQuantity(), product.getMinStockAlert());
+        Integer previousVendor = low
+            ? lowProductVendors.put(productId, vendorId)
+            : lowProductVendors.remove(productId);
+
+        if (previousVendor != null && !previousVendor.equals(vendorId)) {
+            removeFrom(lowProductsByVendor, previousVendor, productId);
+        }
+        if (low) {
+            lowProductsByVendor.computeIfAbsent(vendorId, id -> ConcurrentHashMap.newKeySet()).add(productId);
+        } else if (previousVendor != null) {
+            removeFrom(lowProductsByVendor, previousVendor, productId);
+        }
+        if (low != (previousVendor != null)) {
+            alert(low ? vendorId : previousVendor, productId, null,
+                product.getQuantity(), product.getMinStockAlert(), low);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Integer productId) {
+        Integer previousVendor = lowProductVendors.remove(productId);
+        if (previousVendor != null) {
+            removeFrom(lowProductsByVendor, previousVendor, productId);
+        }
+        setVendor(productId, null);
+    }
+
+    /**
+     * Load the low-stock variants now that every product's vendor is known
+     */
+    @Override
+    public void onBootstrapComplete() {
+        List<Object[]> rows = productVariantRepository.findLowStockVariantKeys();
+        synchronized (this) {
+            for (Object[] row : rows) {
+                Long variantId = (Long) row[0];
+                Integer vendorId = (Integer) row[2];
+                lowVariantVendors.put(variantId, vendorId);
+                lowVariantsByVendor.computeIfAbsent(vendorId, id -> ConcurrentHashMap.newKeySet()).add(variantId);
+            }
+            ProductVariantChangedEvent pending;
+            while ((pending = pendingVariantChanges.poll()) != null) {
+                applyVariantChange(pending);
+            }
+            ready = true;
+        }
+        log.info("Low-stock index ready: {} products and {} variants below their alert threshold",
+            lowProductVendors.size(), lowVariantVendors.size());
+    }
+
+    /**
+     * Track committed variant writes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVariantChanged(ProductVariantChangedEvent event) {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    pendingVariantChanges.add(event);
+                    return;
+                }
+            }
+        }
+        synchronized (this) {
+            applyVariantChange(event);
+        }
+    }
+
+    /**
+     * Number of a vendor's active products at or below their alert threshold
+     */
+    public int countLowStockProducts(Integer vendorId) {
+        Set<Integer> ids = lowProductsByVendor.get(vendorId);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * IDs of a vendor's active products at or below their alert threshold, in no particular order
+     */
+    public List<Integer> getLowStockProductIds(Integer vendorId) {
+        Set<Integer> ids = lowProductsByVendor.get(vendorId);
+        return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+    }
+
+    /**
+     * Number of a vendor's active variants at or below their alert threshold
+     */
+    public int countLowStockVariants(Integer vendorId) {
+        Set<Long> ids = lowVariantsByVendor.get(vendorId);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * IDs of a vendor's active variants at or below their alert threshold, in no particular order
+     */
+    public List<Long> getLowStockVariantIds(Integer vendorId) {
+        Set<Long> ids = lowVariantsByVendor.get(vendorId);
+        return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void applyVariantChange(ProductVariantChangedEvent event) {
+        ProductVariant variant = event.getVariant();
+        Long variantId = variant.getVariantId();
+        if (variantId == null) {
+            return;
+        }
+        Integer vendorId = vendorOf(event.getProductId());
+        boolean low = !event.isDeleted()
+            && vendorId != null
+            && variant.getStatus() == ProductVariant.VariantStatus.ACTIVE
+            && isAtOrBelow(variant.getStockQuantity(), variant.getMinStockAlert());
+        Integer previousVendor = low
+            ? lowVariantVendors.put(variantId, vendorId)
+            : lowVariantVendors.remove(variantId);
+
+        if (previousVendor != null && !previousVendor.equals(vendorId)) {
+            removeFrom(lowVariantsByVendor, previousVendor, variantId);
+        }
+        if (low) {
+            lowVariantsByVendor.computeIfAbsent(vendorId, id -> ConcurrentHashMap.newKeySet()).add(variantId);
+        } else if (previousVendor != null) {
+            removeFrom(lowVariantsByVendor, previousVendor, variantId);
+        }
+        if (low != (previousVendor != null) && !event.isDeleted()) {
+            alert(low ? vendorId : previousVendor, event.getProductId(), variantId,
+                variant.getStockQuantity(), variant.getMinStockAlert(), low);
+        }
+    }
+
+    private void alert(Integer vendorId, Integer productId, Long variantId,
+                       Integer quantity, Integer threshold, boolean low) {
+        // The initial load reports the current state, not crossings
+        if (!ready) {
+            return;
+        }
+        eventPublisher.publishEvent(new LowStockAlertEvent(vendorId, productId, variantId, quantity, threshold, low));
+    }
+
+    private Integer vendorOf(Integer productId) {
+        if (productId == null) {
+            return null;
+        }
+        if (productId < vendorByProductId.length && vendorByProductId[productId] != 0) {
+            return vendorByProductId[productId];
+        }
+        // The product has not been seen yet, e.g. it was created in the same transaction
+        for (Object[] row : productRepository.findVendorIdsByProductIds(List.of(productId))) {
+            Integer vendorId = (Integer) row[1];
+            setVendor(productId, vendorId);
+            return vendorId;
+        }
+        return null;
+    }
+
+    private void setVendor(Integer productId, Integer vendorId) {
+        if (productId >= vendorByProductId.length) {
+            if (vendorId == null) {
+                return;
+            }
+            vendorByProductId = Arrays.copyOf(vendorByProductId, Math.max(productId + 1, vendorByProductId.length * 2));
+        }
+        vendorByProductId[productId] = vendorId == null ? 0 : vendorId;
+    }
+
+    private static boolean isAtOrBelow(Integer quantity, Integer threshold) {
+        return quantity != null && threshold != null && quantity <= threshold;
+    }
+
+    private static <K> void removeFrom(Map<Integer, Set<K>> byVendor, Integer vendorId, K id) {
+        Set<K> ids = byVendor.get(vendorId);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package org.sortoutinnovation.greenmagic.inventory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.dto.InventoryHoldDto;
+import org.sortoutinnovation.greenmagic.model.InventoryHold;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.InventoryHoldRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory ledger of checkout holds on product stock
+ * A hold reserves quantities of several products for a limited checkout window; stock available to
+ * new holds and carts is the product quantity minus everything held. Reserved totals are split over
+ * lock stripes by product ID, so checkouts of unrelated products never contend, and a multi-product
+ * hold takes its stripes in ascending order
+ * Each hold has an expiry timer that releases it; placing the order confirms the hold, which is
+ * dropped when the order commits. If the order rolls back, a checkout's hold is reopened so the
+ * checkout can try again, while a hold the order reserved for itself is released
+ * Holds are persisted write-behind to 'inventory_holds' and restored at startup, so a restart only
+ * loses the holds of the last flush interval
+ */
+@Component
+public class ReservationLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationLedger.class);
+
+    private static final int STRIPES = 64;
+
+    private static final TypeReference<Map<Integer, Integer>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private enum State {
+        ACTIVE, CONFIRMING, CLOSED
+    }
+
+    private static final class Hold {
+        private final String id;
+        private final Integer userId;
+        private final Map<Integer, Integer> quantities;
+        private final LocalDateTime expiresAt;
+        private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+        private volatile ScheduledFuture<?> expiry;
+
+        private Hold(String id, Integer userId, Map<Integer, Integer> quantities, LocalDateTime expiresAt) {
+            this.id = id;
+            this.userId = userId;
+            this.quantities = Collections.unmodifiableMap(quantities);
+            this.expiresAt = expiresAt;
+        }
+
+        private InventoryHoldDto toDto() {
+            return new InventoryHoldDto(id, userId, quantities, expiresAt);
+        }
+    }
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private InventoryHoldRepository inventoryHoldRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Duration ttl;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // Reserved quantity per product; written under the stripe's lock, read without it
+    private final List<Map<Integer, Integer>> reserved = new ArrayList<>(STRIPES);
+
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+
+    // Holds changed since the last flush, and holds that have a row in the table
+    private final Set<String> dirtyHoldIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> persistedHoldIds = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledThreadPoolExecutor expiryTimer;
+
+    public ReservationLedger(PlatformTransactionManager transactionManager,
+                             @Value("${inventory.holds.ttl:15m}") Duration ttl) {
+        this.ttl = ttl;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            reserved.add(new ConcurrentHashMap<>());
+        }
+        this.expiryTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expiryTimer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Reload the unexpired holds written before the last shutdown
+     */
+    @PostConstruct
+    public void restore() {
+        LocalDateTime now = LocalDateTime.now();
+        int restored = 0;
+        for (InventoryHold row : inventoryHoldRepository.findAll()) {
+            persistedHoldIds.add(row.getHoldId());
+            Map<Integer, Integer> items = row.getExpiresAt().isAfter(now) ? parseItems(row.getItems()) : null;
+            if (items == null) {
+                // Deleted by the next flush
+                dirtyHoldIds.add(row.getHoldId());
+                continue;
+            }
+            Hold hold = new Hold(row.getHoldId(), row.getUserId(), items, row.getExpiresAt());
+            List<Integer> stripes = lockStripes(hold.quantities.keySet());
+            try {
+                hold.quantities.forEach((productId, quantity) -> adjustReserved(productId, quantity));
+            } finally {
+                unlockStripes(stripes);
+            }
+            holds.put(hold.id, hold);
+            scheduleExpiry(hold);
+            restored++;
+        }
+        if (restored > 0) {
+            log.info("Restored {} checkout holds", restored);
+        }
+    }
+
+    /**
+     * Reserve stock for a checkout
+     * @param userId user placing the order, if known
+     * @param quantities quantity to hold per product ID, each positive
+     * @return InventoryHoldDto with the hold ID and expiry time
+     * @throws RuntimeException if a product is not found or has too little unreserved stock
+     */
+    public InventoryHoldDto reserve(Integer userId, Map<Integer, Integer> quantities) {
+        Map<Integer, Product> products = new HashMap<>();
+        for (Integer productId : quantities.keySet()) {
+            // Looked up before locking so a cache miss does not hold up the stripe
+            products.put(productId, productCache.getById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId)));
+        }
+        return reserve(userId, quantities, products);
+    }
+
+    /**
+     * Reserve stock for a checkout against products the caller has already loaded
+     * @param userId user placing the order, if known
+     * @param quantities quantity to hold per product ID, each positive
+     * @param products the products by ID, with their current stock
+     * @return InventoryHoldDto with the hold ID and expiry time
+     * @throws RuntimeException if a product is missing or has too little unreserved stock
+     */
+    public InventoryHoldDto reserve(Integer userId, Map<Integer, Integer> quantities, Map<Integer, Product> products) {
+        if (quantities.isEmpty()) {
+            throw new RuntimeException("Nothing to reserve");
+        }
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new RuntimeException("Quantity must be positive for product: " + entry.getKey());
+            }
+            if (!products.containsKey(entry.getKey())) {
+                throw new RuntimeException("Product not found with id: " + entry.getKey());
+            }
+        }
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), userId, new TreeMap<>(quantities), LocalDateTime.now().plus(ttl));
+        List<Integer> stripes = lockStripes(hold.quantities.keySet());
+        try {
+            for (Map.Entry<Integer, Integer> entry : hold.quantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                int available = product.getQuantity() - reservedQuantity(entry.getKey());
+                if (available < entry.getValue()) {
+                    throw new RuntimeException("Insufficient stock for product: " + product.getName());
+                }
+            }
+            hold.quantities.forEach((productId, quantity) -> adjustReserved(productId, quantity));
+        } finally {
+            unlockStripes(stripes);
+        }
+
+        holds.put(hold.id, hold);
+        dirtyHoldIds.add(hold.id);
+        scheduleExpiry(hold);
+        return hold.toDto();
+    }
+
+    /**
+     * Give up a hold before it expires
+     * @param holdId hold ID
+     * @throws RuntimeException if the hold does not exist, has expired or is being confirmed
+     */
+    public void release(String holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !hold.state.compareAndSet(State.ACTIVE, State.CLOSED)) {
+            throw new RuntimeException("Checkout hold not found or expired: " + holdId);
+        }
+        close(hold);
+    }
+
+    /**
+     * Take the stock of a checkout's hold for an order
+     * Inside a transaction the hold is dropped after commit and becomes active again on rollback;
+     * the caller still decrements the product rows in the same transaction
+     * @param holdId hold ID
+     * @param userId user placing the order; must be the user the hold was reserved for
+     * @param quantities quantity ordered per product ID; must be covered by the hold
+     * @throws RuntimeException if the hold does not exist, has expired, belongs to another user or does not cover the order
+     */
+    public void confirm(String holdId, Integer userId, Map<Integer, Integer> quantities) {
+        confirm(holdId, userId, quantities, false);
+    }
+
+    /**
+     * Take the stock of a hold for an order
+     * @param holdId hold ID
+     * @param userId user placing the order; must be the user the hold was reserved for
+     * @param quantities quantity ordered per product ID; must be covered by the hold
+     * @param releaseOnRollback whether a rollback releases the hold instead of reopening it; set for
+     *                          holds reserved by the order itself, whose ID nobody else knows
+     * @throws RuntimeException if the hold does not exist, has expired, belongs to another user or does not cover the order
+     */
+    public void confirm(String holdId, Integer userId, Map<Integer, Integer> quantities, boolean releaseOnRollback) {
+        Hold hold = holds.get(holdId);
+        if (hold == null) {
+            throw new RuntimeException("Checkout hold not found or expired: " + holdId);
+        }
+        if (!Objects.equals(hold.userId, userId)) {
+            throw new RuntimeException("Checkout hold belongs to another user: " + holdId);
+        }
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() > hold.quantities.getOrDefault(entry.getKey(), 0)) {
+                throw new RuntimeException("Checkout hold does not cover product: " + entry.getKey());
+            }
+        }
+        if (!hold.state.compareAndSet(State.ACTIVE, State.CONFIRMING)) {
+            throw new RuntimeException("Checkout hold not found or expired: " + holdId);
+        }
+        cancelExpiry(hold);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hold.state.set(State.CLOSED);
+            close(hold);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED || releaseOnRollback) {
+                    hold.state.set(State.CLOSED);
+                    close(hold);
+                } else if (hold.state.compareAndSet(State.CONFIRMING, State.ACTIVE)) {
+                    scheduleExpiry(hold);
+                }
+            }
+        });
+    }
+
+    /**
+     * Quantity of a product currently held by checkouts
+     */
+    public int reservedQuantity(Integer productId) {
+        return reserved.get(stripeOf(productId)).getOrDefault(productId, 0);
+    }
+
+    /**
+     * Write the holds changed since the last flush
+     */
+    @Scheduled(fixedDelayString = "${inventory.holds.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (dirtyHoldIds.isEmpty()) {
+            return;
+        }
+        List<String> changed = new ArrayList<>(dirtyHoldIds);
+        dirtyHoldIds.removeAll(changed);
+
+        List<InventoryHold> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        for (String holdId : changed) {
+            Hold hold = holds.get(holdId);
+            if (hold != null) {
+                upserts.add(new InventoryHold(hold.id, hold.userId, writeItems(hold.quantities), hold.expiresAt));
+            } else if (persistedHoldIds.contains(holdId)) {
+                deletes.add(holdId);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryHoldRepository.saveAll(upserts);
+                if (!deletes.isEmpty()) {
+                    inventoryHoldRepository.deleteAllByIdInBatch(deletes);
+                }
+            });
+            upserts.forEach(row -> persistedHoldIds.add(row.getHoldId()));
+            deletes.forEach(persistedHoldIds::remove);
+        } catch (Exception e) {
+            // Retried on the next flush
+            dirtyHoldIds.addAll(changed);
+            log.warn("Failed to write checkout holds: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        expiryTimer.shutdownNow();
+        flush();
+    }
+
+    private void expire(Hold hold) {
+        if (hold.state.compareAndSet(State.ACTIVE, State.CLOSED)) {
+            close(hold);
+        }
+    }
+
+    private void close(Hold hold) {
+        cancelExpiry(hold);
+        List<Integer> stripes = lockStripes(hold.quantities.keySet());
+        try {
+            hold.quantities.forEach((productId, quantity) -> adjustReserved(productId, -quantity));
+        } finally {
+            unlockStripes(stripes);
+        }
+        holds.remove(hold.id);
+        dirtyHoldIds.add(hold.id);
+    }
+
+    private void scheduleExpiry(Hold hold) {
+        long delay = Math.max(0, Duration.between(LocalDateTime.now(), hold.expiresAt).toMillis());
+        hold.expiry = expiryTimer.schedule(() -> expire(hold), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelExpiry(Hold hold) {
+        ScheduledFuture<?> expiry = hold.expiry;
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+    }
+
+    // Caller holds the product's stripe lock
+    private void adjustReserved(Integer productId, int delta) {
+        reserved.get(stripeOf(productId)).merge(productId, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private List<Integer> lockStripes(Set<Integer> productIds) {
+        Set<Integer> stripes = new TreeSet<>();
+        for (Integer productId : productIds) {
+            stripes.add(stripeOf(productId));
+        }
+        List<Integer> locked = new ArrayList<>(stripes);
+        for (Integer stripe : locked) {
+            locks[stripe].lock();
+        }
+        return locked;
+    }
+
+    private void unlockStripes(List<Integer> stripes) {
+        for (int i = stripes.size() - 1; i >= 0; i--) {
+            locks[stripes.get(i)].unlock();
+        }
+    }
+
+    private static int stripeOf(Integer productId) {
+        return Math.floorMod(productId, STRIPES);
+    }
+
+    private Map<Integer, Integer> parseItems(String items) {
+        try {
+            return new TreeMap<>(objectMapper.readValue(items, ITEMS_TYPE));
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping checkout hold with unreadable items: {}", items);
+            return null;
+        }
+    }
+
+    private String writeItems(Map<Integer, Integer> quantities) {
+        try {
+            return objectMapper.writeValueAsString(quantities);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to write checkout hold items", e);
+        }
+    }
+}
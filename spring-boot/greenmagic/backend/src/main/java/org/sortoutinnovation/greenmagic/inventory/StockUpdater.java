@@ -0,0 +1,199 @@
+package org.sortoutinnovation.greenmagic.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Takes product stock with conditional UPDATEs instead of read-compare-write on the entity
+ * Each product is one "quantity = quantity - ? WHERE quantity >= ?" statement, so the check and the
+ * decrement are a single atomic step in the database and concurrent checkouts cannot oversell;
+ * all products of an order go to the database in one JDBC batch and the row counts say which succeeded
+ * Stock is given back the same way, with relative "quantity = quantity + ?" statements
+ * The statements bypass Hibernate, so ProductChangedEvent is published here for the caches and indexes
+ */
+@Component
+public class StockUpdater {
+
+    private static final String DECREMENT_STOCK =
+        "UPDATE products SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ?";
+    private static final String INCREMENT_STOCK =
+        "UPDATE products SET quantity = quantity + ? WHERE product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Take stock for several products at once
+     * Runs in the caller's transaction: when a product is short the exception rolls back the
+     * decrements already applied to the others
+     * Product instances of the current persistence context are detached, as their quantity is stale
+     * @param quantities quantity to take per product ID, each positive
+     * @return List<Product> the updated products with their new quantities, detached
+     * @throws RuntimeException if a quantity is not positive or a product has insufficient stock
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Product> decrement(Map<Integer, Integer> quantities) {
+        return decrement(quantities, null);
+    }
+
+    /**
+     * Take stock for several products the caller has already loaded
+     * The given instances are updated and detached instead of loading the products again
+     * @param quantities quantity to take per product ID, each positive
+     * @param loaded the products of the current persistence context, or null to load them
+     * @return List<Product> the updated products with their new quantities, detached
+     * @throws RuntimeException if a quantity is not positive or a product has insufficient stock
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Product> decrement(Map<Integer, Integer> quantities, Collection<Product> loaded) {
+        if (quantities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> productIds = sortedProductIds(quantities);
+
+        // Pending entity changes must reach the rows before the statements do
+        entityManager.flush();
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Integer productId = productIds.get(i);
+                int quantity = quantities.get(productId);
+                ps.setInt(1, quantity);
+                ps.setInt(2, productId);
+                ps.setInt(3, quantity);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.size();
+            }
+        });
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Integer productId = productIds.get(i);
+                String name = productCache.getById(productId).map(Product::getName).orElse(String.valueOf(productId));
+                throw new RuntimeException("Insufficient stock for product: " + name);
+            }
+        }
+
+        return publishChanges(productIds, loaded);
+    }
+
+    /**
+     * Give stock back for several products at once, as when an order is cancelled
+     * Product instances of the current persistence context are detached, as their quantity is stale
+     * @param quantities quantity to give back per product ID, each positive
+     * @return List<Product> the updated products with their new quantities, detached
+     * @throws RuntimeException if a quantity is not positive
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Product> increment(Map<Integer, Integer> quantities) {
+        return increment(quantities, null);
+    }
+
+    /**
+     * Give stock back for several products the caller has already loaded
+     * Products deleted since are skipped, as there is no row to give the stock back to
+     * @param quantities quantity to give back per product ID, each positive
+     * @param loaded the products of the current persistence context, or null to load them
+     * @return List<Product> the updated products with their new quantities, detached
+     * @throws RuntimeException if a quantity is not positive
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Product> increment(Map<Integer, Integer> quantities, Collection<Product> loaded) {
+        if (quantities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> productIds = sortedProductIds(quantities);
+
+        entityManager.flush();
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Integer productId = productIds.get(i);
+                ps.setInt(1, quantities.get(productId));
+                ps.setInt(2, productId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.size();
+            }
+        });
+        List<Integer> restored = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) {
+                restored.add(productIds.get(i));
+            }
+        }
+        if (restored.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Collection<Product> restoredLoaded = loaded == null ? null
+            : loaded.stream().filter(product -> restored.contains(product.getProductId())).toList();
+        return publishChanges(restored, restoredLoaded);
+    }
+
+    // Ascending IDs make concurrent orders lock shared rows in the same order, so they cannot deadlock
+    private static List<Integer> sortedProductIds(Map<Integer, Integer> quantities) {
+        List<Integer> productIds = new ArrayList<>(quantities.keySet());
+        Collections.sort(productIds);
+        for (Integer productId : productIds) {
+            Integer quantity = quantities.get(productId);
+            if (quantity == null || quantity <= 0) {
+                throw new RuntimeException("Quantity must be positive for product: " + productId);
+            }
+        }
+        return productIds;
+    }
+
+    // The rows stay locked until commit, so the quantities read here are exact
+    private List<Product> publishChanges(List<Integer> productIds, Collection<Product> loaded) {
+        Map<Integer, Integer> stock = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query("SELECT product_id, quantity FROM products WHERE product_id IN (" + placeholders + ")",
+            rs -> {
+                stock.put(rs.getInt(1), rs.getInt(2));
+            }, productIds.toArray());
+
+        List<Product> products = loaded != null ? new ArrayList<>(loaded) : productRepository.findAllById(productIds);
+        for (Product product : products) {
+            entityManager.detach(product);
+            product.setQuantity(stock.get(product.getProductId()));
+            eventPublisher.publishEvent(new ProductChangedEvent(product, ProductChangedEvent.ChangeType.UPDATED));
+        }
+        return products;
+    }
+}
@@ -1,6 +1,7 @@
 package org.sortoutinnovation.greenmagic.mapper;
 
 import org.sortoutinnovation.greenmagic.dto.ProductResponseDto;
+import org.sortoutinnovation.greenmagic.dto.VendorProductRowDto;
 import org.sortoutinnovation.greenmagic.model.Product;
 import org.springframework.stereotype.Component;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -102,6 +103,46 @@ public class ProductMapper {
         return dto;
     }
 
+    /**
+     * Convert a vendor product list row to ProductResponseDto
+     * Only list fields are set; description holds a snippet, gallery images and bulk pricing tiers are left empty
+     */
+    public ProductResponseDto toDto(VendorProductRowDto row) {
+        if (row == null) {
+            return null;
+        }
+
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.setProductId(row.getProductId());
+        dto.setSku(row.getSku());
+        dto.setName(row.getName());
+        dto.setUrlSlug(row.getUrlSlug());
+        dto.setDescription(row.getDescriptionSnippet());
+        dto.setShortDescription(row.getShortDescription());
+        dto.setBrand(row.getBrand());
+        dto.setPrice(row.getPrice());
+        dto.setMrp(row.getMrp());
+        dto.setCostPrice(row.getCostPrice());
+        dto.setQuantity(row.getQuantity());
+        dto.setImageUrl(row.getImageUrl());
+        dto.setDeliveryTimeEstimate(row.getDeliveryTimeEstimate());
+        dto.setFreeShipping(row.getFreeShipping());
+        dto.setIsReturnable(row.getIsReturnable());
+        dto.setIsCodAvailable(row.getIsCodAvailable());
+        dto.setStatus(row.getStatus());
+        dto.setCreatedByName(row.getCreatedByName());
+        dto.setOfferStartDate(row.getOfferStartDate());
+        dto.setOfferEndDate(row.getOfferEndDate());
+        dto.setCreatedAt(row.getCreatedAt());
+
+        if (row.getCategoryId() != null) {
+            dto.setCategoryName(row.getCategoryName());
+            dto.setCategory(new ProductResponseDto.CategoryInfo(row.getCategoryId(), row.getCategoryName()));
+        }
+
+        return dto;
+    }
+
     /**
      * Convert ProductResponseDto to Product entity (simplified)
      */
@@ -0,0 +1,27 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity holding a version stamp of the catalog, shared by all application instances
+ * Maps to the 'catalog_versions' table in the database
+ * The 'catalog' row counts committed catalog writes; the 'category' row and one 'p<productId>' row per
+ * written product hold the catalog version of their last change. Written only by CatalogVersions
+ */
+@Entity
+@Table(name = "catalog_versions", indexes = @Index(name = "idx_catalog_versions_version", columnList = "version"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "scope", length = 20)
+    private String scope;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
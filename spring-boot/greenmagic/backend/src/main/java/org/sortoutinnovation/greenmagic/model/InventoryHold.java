@@ -0,0 +1,36 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding a live checkout reservation of product stock
+ * Maps to the 'inventory_holds' table in the database
+ * Written behind by ReservationLedger, which keeps the authoritative state in memory; the table
+ * only serves to restore unexpired holds after a restart
+ */
+@Entity
+@Table(name = "inventory_holds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHold {
+
+    @Id
+    @Column(name = "hold_id", length = 36)
+    private String holdId;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    // JSON object of product ID to held quantity
+    @Column(name = "items", columnDefinition = "TEXT", nullable = false)
+    private String items;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
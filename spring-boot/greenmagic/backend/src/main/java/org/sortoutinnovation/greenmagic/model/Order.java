@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedId;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,16 +21,20 @@ import java.util.Set;
  * Maps to the 'orders' table in the database
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_date", columnList = "user_id, order_date, order_id"),
+    // Current status lives on the order row, so status views never read order_status_history
+    @Index(name = "idx_orders_status_date", columnList = "status, order_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     @Column(name = "order_id")
-    private Integer orderId;
+    private Long orderId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "user_id")
@@ -6,7 +6,10 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedId;
 
 import java.math.BigDecimal;
 
@@ -22,16 +25,21 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     @Column(name = "order_item_id")
-    private Integer orderItemId;
+    private Long orderItemId;
 
+    // Excluded so hashing an order's item set does not recurse into the order
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", referencedColumnName = "order_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Order order;
 
+    // Compared by ID only (see productKey), so hashing an order's item set does not load the product's associations
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", referencedColumnName = "product_id")
+    @EqualsAndHashCode.Exclude
     private Product product;
 
     @Min(value = 1, message = "Quantity must be at least 1")
@@ -70,4 +78,9 @@ public class OrderItem {
         this.taxAmount = taxAmount;
         this.hsnCode = hsnCode;
     }
-} 
\ No newline at end of file
+
+    @EqualsAndHashCode.Include
+    private Integer productKey() {
+        return product != null ? product.getProductId() : null;
+    }
+}
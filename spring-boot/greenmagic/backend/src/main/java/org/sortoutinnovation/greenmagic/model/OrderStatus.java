@@ -6,18 +6,22 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedId;
 
 import java.time.LocalDateTime;
 
 /**
  * Entity representing order status history and tracking
  * Maps to the 'order_status_history' table in the database
+ * Append-only: every transition is a new row, written by OrderStatusLog; the only update is clearing
+ * isCurrent on an order's previous row
  */
 @Entity
 @Table(name = "order_status_history", indexes = {
     @Index(name = "idx_order_status_order_id", columnList = "order_id"),
     @Index(name = "idx_order_status_timestamp", columnList = "status_timestamp"),
-    @Index(name = "idx_order_status_current", columnList = "is_current")
+    @Index(name = "idx_order_status_current", columnList = "order_id, is_current"),
+    @Index(name = "idx_order_status_open_sla", columnList = "is_current, is_sla_breached, sla_deadline")
 })
 @Data
 @NoArgsConstructor
@@ -25,7 +29,7 @@ import java.time.LocalDateTime;
 public class OrderStatus {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     @Column(name = "status_id")
     private Long statusId;
 
@@ -124,6 +128,47 @@ public class OrderStatus {
             return slaHours > 0;
         }
 
+        /**
+         * Status type of an Order.status value; orders start as PENDING, which is NEW here
+         * Order.status is free text, so a value with no status type of its own maps to PROCESSING
+         * instead of failing the status change that is being recorded
+         */
+        public static StatusType fromOrderStatus(String status) {
+            StatusType type = lookup(status);
+            return type != null ? type : PROCESSING;
+        }
+
+        /**
+         * Whether fromOrderStatus maps the value to a status type of its own rather than the fallback
+         */
+        public static boolean isKnownOrderStatus(String status) {
+            return lookup(status) != null;
+        }
+
+        private static StatusType lookup(String status) {
+            if (status == null || status.isBlank()) {
+                return null;
+            }
+            String name = status.trim().toUpperCase();
+            switch (name) {
+                case "PENDING":
+                    return NEW;
+                case "CONFIRMED":
+                    return ACCEPTED;
+                case "CANCELED":
+                    return CANCELLED;
+                case "COMPLETED":
+                    return DELIVERED;
+                default:
+                    for (StatusType type : values()) {
+                        if (type.name().equals(name)) {
+                            return type;
+                        }
+                    }
+                    return null;
+            }
+        }
+
         public boolean isTerminalStatus() {
             return this == DELIVERED || this == CANCELLED || this == RETURNED || this == REFUNDED;
         }
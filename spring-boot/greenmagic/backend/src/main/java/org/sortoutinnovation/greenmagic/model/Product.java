@@ -4,9 +4,13 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.LazyGroup;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
@@ -20,18 +24,42 @@ import java.util.Set;
  * Entity representing products in the e-commerce system
  * Cleaned up to match product-form-structure.json specification
  * Maps to the 'products' table in the database
+ * Updates write only the changed columns (@DynamicUpdate), so inventory and pricing writes
+ * stay narrow
  */
 @Entity
 @Table(name = "products", indexes = {
     @Index(name = "idx_products_url_slug", columnList = "url_slug"),
     @Index(name = "idx_products_subcategory", columnList = "subcategory_id"),
-    @Index(name = "idx_products_sku", columnList = "sku")
+    @Index(name = "idx_products_sku", columnList = "sku"),
+    @Index(name = "idx_products_status_created", columnList = "status, created_at, product_id"),
+    @Index(name = "idx_products_category_status_created", columnList = "category_id, status, created_at, product_id")
 })
+@NamedEntityGraph(name = Product.CONTENT_GRAPH, attributeNodes = {
+    @NamedAttributeNode("description"),
+    @NamedAttributeNode("keyFeatures"),
+    @NamedAttributeNode("productHighlights"),
+    @NamedAttributeNode("qualityCertifications"),
+    @NamedAttributeNode("structuredData")
+})
+@EntityListeners(ProductEntityListener.class)
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+    /**
+     * Lazy group of the heavy content columns (description, key features, highlights,
+     * certifications, structured data); stock and price reads and writes never touch them
+     */
+    public static final String CONTENT_GROUP = "content";
+
+    /**
+     * Entity graph that fetches the content group in the same select, for reads that serialize it
+     */
+    public static final String CONTENT_GRAPH = "Product.content";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "product_id")
@@ -207,14 +235,27 @@ public class Product {
     @Column(name = "short_description", length = 300, nullable = false)
     private String shortDescription;
 
+    // Heavy content is in the lazily loaded CONTENT_GROUP; all of its columns are fetched together on first access
     @NotBlank(message = "Detailed description is required")
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(CONTENT_GROUP)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Column(name = "description", columnDefinition = "TEXT", nullable = false)
     private String description;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(CONTENT_GROUP)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "key_features", columnDefinition = "JSON")
     private List<String> keyFeatures;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(CONTENT_GROUP)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "product_highlights", columnDefinition = "JSON")
     private List<Map<String, String>> productHighlights;
@@ -228,6 +269,10 @@ public class Product {
     @Column(name = "fssai_license", length = 14)
     private String fssaiLicense;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(CONTENT_GROUP)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "quality_certifications", columnDefinition = "JSON")
     private String qualityCertifications;
@@ -252,6 +297,10 @@ public class Product {
     @Column(name = "url_slug", length = 100, unique = true)
     private String urlSlug;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(CONTENT_GROUP)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "structured_data", columnDefinition = "JSON")
     private String structuredData;
@@ -0,0 +1,45 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Entity holding the engagement counts of a product for one day
+ * Maps to the 'product_engagement_daily' table in the database
+ * Written only by ProductEngagementTracker, which adds its in-memory counts with batched upserts
+ */
+@Entity
+@Table(name = "product_engagement_daily",
+    uniqueConstraints = @UniqueConstraint(name = "uk_engagement_product_date", columnNames = {"product_id", "engagement_date"}),
+    indexes = @Index(name = "idx_engagement_date", columnList = "engagement_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEngagementDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "engagement_id")
+    private Long engagementId;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(name = "engagement_date", nullable = false)
+    private LocalDate engagementDate;
+
+    // Times the product was shown in a listing, search or filter result
+    @Column(name = "impressions", nullable = false)
+    private Long impressions = 0L;
+
+    // Times the product page was opened
+    @Column(name = "views", nullable = false)
+    private Long views = 0L;
+
+    @Column(name = "cart_additions", nullable = false)
+    private Long cartAdditions = 0L;
+}
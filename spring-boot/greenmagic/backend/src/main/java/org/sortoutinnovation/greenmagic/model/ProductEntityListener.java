@@ -0,0 +1,41 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA lifecycle listener for Product
+ * Turns every insert/update/delete into a ProductChangedEvent; listeners use
+ * @TransactionalEventListener so they only see committed changes
+ * Instantiated by Hibernate through Spring's bean container, which performs the injection
+ */
+public class ProductEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void afterInsert(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void afterUpdate(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void afterDelete(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.DELETED);
+    }
+
+    private void publish(Product product, ProductChangedEvent.ChangeType changeType) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product, changeType));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity holding the running rating aggregate of a product
+ * Maps to the 'product_rating_summary' table in the database
+ * Maintained by ProductRatingService in the same transaction as the review write
+ */
+@Entity
+@Table(name = "product_rating_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingSummary {
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "rating_sum", precision = 12, scale = 1, nullable = false)
+    private BigDecimal ratingSum = BigDecimal.ZERO;
+
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount = 0;
+
+    // Star histogram; a rating counts towards its value rounded half-up (4.5 -> 5 stars)
+    @Column(name = "star1", nullable = false)
+    private Integer star1 = 0;
+
+    @Column(name = "star2", nullable = false)
+    private Integer star2 = 0;
+
+    @Column(name = "star3", nullable = false)
+    private Integer star3 = 0;
+
+    @Column(name = "star4", nullable = false)
+    private Integer star4 = 0;
+
+    @Column(name = "star5", nullable = false)
+    private Integer star5 = 0;
+}
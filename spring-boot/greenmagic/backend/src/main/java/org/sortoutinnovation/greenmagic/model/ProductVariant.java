@@ -1,12 +1,17 @@
 package org.sortoutinnovation.greenmagic.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedId;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,19 +26,24 @@ import java.time.LocalDateTime;
     @Index(name = "idx_variants_sku", columnList = "variant_sku"),
     @Index(name = "idx_variants_status", columnList = "status")
 })
+@EntityListeners(ProductVariantEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductVariant {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     @Column(name = "variant_id")
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long variantId;
 
+    // Excluded so that hashing a variant, as loading the product's variant set does, never walks into the product
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", referencedColumnName = "product_id", nullable = false)
     @com.fasterxml.jackson.annotation.JsonBackReference
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Product product;
 
     @Size(max = 100, message = "Variant SKU must not exceed 100 characters")
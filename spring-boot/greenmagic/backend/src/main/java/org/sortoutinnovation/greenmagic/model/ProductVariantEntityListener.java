@@ -0,0 +1,43 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.proxy.HibernateProxy;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA lifecycle listener for ProductVariant
+ * Turns every insert/update/delete into a ProductVariantChangedEvent for the owning product
+ * Instantiated by Hibernate through Spring's bean container, which performs the injection
+ */
+public class ProductVariantEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void afterChange(ProductVariant variant) {
+        publish(variant, false);
+    }
+
+    @PostRemove
+    public void afterDelete(ProductVariant variant) {
+        publish(variant, true);
+    }
+
+    private void publish(ProductVariant variant, boolean deleted) {
+        Product product = variant.getProduct();
+        if (eventPublisher == null || product == null) {
+            return;
+        }
+        // Read the ID without initializing a lazy proxy
+        Integer productId = product instanceof HibernateProxy proxy
+            ? (Integer) proxy.getHibernateLazyInitializer().getInternalIdentifier()
+            : product.getProductId();
+        eventPublisher.publishEvent(new ProductVariantChangedEvent(productId, variant, deleted));
+    }
+}
@@ -0,0 +1,62 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the sales totals of orders placed in one hour or one day
+ * Maps to the 'sales_rollups' table in the database
+ * Written only by SalesRollupRecorder, which adds each transaction's changes with batched upserts;
+ * a period is split over a few stripe rows so concurrent orders do not queue on one row lock, and
+ * readers sum the stripes
+ */
+@Entity
+@Table(name = "sales_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollup_period", columnNames = {"granularity", "period_start", "stripe"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 10, nullable = false)
+    private Granularity granularity;
+
+    // Start of the hour or day, by Order.orderDate
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(name = "stripe", nullable = false)
+    private Integer stripe;
+
+    // Every order placed in the period, whatever its payment status
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "gross_sales", precision = 15, scale = 2, nullable = false)
+    private BigDecimal grossSales = BigDecimal.ZERO;
+
+    // Orders placed in the period whose payment is currently COMPLETED
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount = 0L;
+
+    @Column(name = "completed_sales", precision = 15, scale = 2, nullable = false)
+    private BigDecimal completedSales = BigDecimal.ZERO;
+
+    @Column(name = "completed_tax", precision = 15, scale = 2, nullable = false)
+    private BigDecimal completedTax = BigDecimal.ZERO;
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+}
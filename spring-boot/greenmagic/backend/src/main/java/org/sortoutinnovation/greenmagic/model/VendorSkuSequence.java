@@ -0,0 +1,26 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity holding the next unreserved SKU sequence number of a vendor
+ * Maps to the 'vendor_sku_sequences' table in the database
+ * Advanced a whole block at a time by SkuAllocationService; numbers inside a block are handed out from memory
+ */
+@Entity
+@Table(name = "vendor_sku_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorSkuSequence {
+
+    @Id
+    @Column(name = "vendor_id")
+    private Integer vendorId;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
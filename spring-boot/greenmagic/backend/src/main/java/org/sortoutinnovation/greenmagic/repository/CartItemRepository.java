@@ -10,7 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.cartId = :cartId")
     List<CartItem> findByCartId(@Param("cartId") Integer cartId);
@@ -26,4 +26,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
     
     @Query("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cart.cartId = :cartId")
     long countByCartId(@Param("cartId") Integer cartId);
+    
+    /**
+     * Count cart items per product of a vendor
+     * @return List<Object[]> containing product ID and cart item count
+     */
+    @Query("SELECT ci.product.productId, COUNT(ci) FROM CartItem ci " +
+           "WHERE ci.product.createdBy.userId = :vendorId GROUP BY ci.product.productId")
+    List<Object[]> countCartItemsPerProductForVendor(@Param("vendorId") Integer vendorId);
 } 
\ No newline at end of file
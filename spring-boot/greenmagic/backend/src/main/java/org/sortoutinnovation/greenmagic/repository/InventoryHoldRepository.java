@@ -0,0 +1,12 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+import org.sortoutinnovation.greenmagic.model.InventoryHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for InventoryHold entity operations
+ */
+@Repository
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, String> {
+}
@@ -57,6 +57,15 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT COALESCE(SUM(oi.price * oi.quantity), 0) FROM OrderItem oi WHERE oi.product.productId = :productId AND oi.order.paymentStatus = 'COMPLETED'")
     BigDecimal calculateTotalRevenueForProduct(@Param("productId") Integer productId);
     
+    /**
+     * Calculate units sold and revenue for a product in one query
+     * @param productId product ID
+     * @return List<Object[]> with one row containing total quantity and total revenue
+     */
+    @Query("SELECT COALESCE(SUM(oi.quantity), 0), COALESCE(SUM(oi.price * oi.quantity), 0) FROM OrderItem oi " +
+           "WHERE oi.product.productId = :productId AND oi.order.paymentStatus = 'COMPLETED'")
+    List<Object[]> calculateSalesTotalsForProduct(@Param("productId") Integer productId);
+    
     /**
      * Find top selling products by quantity
      * @param limit number of products to return
@@ -117,4 +126,26 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      */
     @Query("SELECT COUNT(oi) FROM OrderItem oi WHERE oi.product.productId = :productId AND oi.order.orderDate < :date")
     Integer countByProductIdBeforeDate(@Param("productId") Integer productId, @Param("date") LocalDateTime date);
+    
+    /**
+     * Total quantity sold per product over all completed orders
+     * @return List<Object[]> containing product ID and total quantity sold
+     */
+    @Query("SELECT oi.product.productId, SUM(oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.order.paymentStatus = 'COMPLETED' " +
+           "GROUP BY oi.product.productId")
+    List<Object[]> findQuantitySoldPerProduct();
+    
+    /**
+     * Count order items per product of a vendor, in total and before a date
+     * @param vendorId vendor ID
+     * @param date cut-off date for the second count
+     * @return List<Object[]> containing product ID, order item count and order item count before the date
+     */
+    @Query("SELECT oi.product.productId, COUNT(oi), " +
+           "SUM(CASE WHEN oi.order.orderDate < :date THEN 1 ELSE 0 END) FROM OrderItem oi " +
+           "WHERE oi.product.createdBy.userId = :vendorId " +
+           "GROUP BY oi.product.productId")
+    List<Object[]> countOrderItemsPerProductForVendor(@Param("vendorId") Integer vendorId,
+                                                      @Param("date") LocalDateTime date);
 } 
\ No newline at end of file
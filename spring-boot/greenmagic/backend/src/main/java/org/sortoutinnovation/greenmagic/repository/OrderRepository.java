@@ -1,10 +1,14 @@
 package org.sortoutinnovation.greenmagic.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sortoutinnovation.greenmagic.dto.OrderResponseDto;
 import org.sortoutinnovation.greenmagic.model.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +16,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity operations
@@ -29,6 +34,29 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.user.userId = :userId ORDER BY o.orderDate DESC")
     Page<Order> findByUserId(@Param("userId") Long userId, Pageable pageable);
     
+    /**
+     * First slice of a user's orders, newest first (orderId breaks ties)
+     * @param userId the user ID
+     * @param pageable slice size
+     * @return List<Order>
+     */
+    @Query("SELECT o FROM Order o WHERE o.user.userId = :userId ORDER BY o.orderDate DESC, o.orderId DESC")
+    List<Order> findByUserIdSeekFirst(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * A user's orders after the given (orderDate, orderId) position, newest first
+     * @param userId the user ID
+     * @param orderDate order date of the last order already returned
+     * @param orderId ID of the last order already returned
+     * @param pageable slice size
+     * @return List<Order>
+     */
+    @Query("SELECT o FROM Order o WHERE o.user.userId = :userId " +
+           "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.orderId < :orderId)) " +
+           "ORDER BY o.orderDate DESC, o.orderId DESC")
+    List<Order> findByUserIdSeekAfter(@Param("userId") Long userId, @Param("orderDate") LocalDateTime orderDate,
+                                      @Param("orderId") Long orderId, Pageable pageable);
+    
     /**
      * Find orders by user ID and status
      * @param userId the user ID
@@ -76,6 +104,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.orderDate BETWEEN :startDate AND :endDate ORDER BY o.orderDate DESC")
     Page<Order> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
     
+    /**
+     * Stream order summaries in a date range, newest first, read one by one (see StreamingQuery)
+     * Must be consumed inside a transaction
+     */
+    @Query("SELECT new org.sortoutinnovation.greenmagic.dto.OrderResponseDto(o.orderId, o.status, o.totalPrice, o.orderDate, o.paymentStatus) " +
+           "FROM Order o WHERE o.orderDate BETWEEN :startDate AND :endDate ORDER BY o.orderDate DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<OrderResponseDto> streamSummariesByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
     /**
      * Find orders by total amount range
      * @param minAmount minimum amount
@@ -248,7 +285,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COUNT(oi) > 0 FROM OrderItem oi " +
            "WHERE oi.order.orderId = :orderId " +
            "AND oi.product.createdBy.userId = :vendorId")
-    boolean isOrderFromVendor(@Param("orderId") Integer orderId, @Param("vendorId") Integer vendorId);
+    boolean isOrderFromVendor(@Param("orderId") Long orderId, @Param("vendorId") Integer vendorId);
     
     /**
      * Check if product has any orders
@@ -0,0 +1,49 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sortoutinnovation.greenmagic.dto.OrderSlaDeadlineDto;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for OrderStatus (order status history) entity operations
+ */
+@Repository
+public interface OrderStatusRepository extends JpaRepository<OrderStatus, Long> {
+
+    /**
+     * Clear the current flag of the given orders' latest status rows in one statement
+     * @param orderIds order IDs
+     * @return int rows affected
+     */
+    @Modifying
+    @Query("UPDATE OrderStatus s SET s.isCurrent = false WHERE s.order.orderId IN :orderIds AND s.isCurrent = true")
+    int clearCurrent(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Stream the SLA deadlines of current status rows not yet flagged as breached, read one by one (see StreamingQuery)
+     * Must be consumed inside a transaction
+     */
+    @Query("SELECT new org.sortoutinnovation.greenmagic.dto.OrderSlaDeadlineDto(s.order.orderId, s.statusId, s.status, s.slaDeadline) " +
+           "FROM OrderStatus s WHERE s.isCurrent = true AND s.isSlaBreached = false AND s.slaDeadline IS NOT NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<OrderSlaDeadlineDto> streamOpenSlaDeadlines();
+
+    /**
+     * Flag status rows as having breached their SLA in one statement
+     * @param statusIds status row IDs
+     * @return int rows affected
+     */
+    @Modifying
+    @Query("UPDATE OrderStatus s SET s.isSlaBreached = true WHERE s.statusId IN :statusIds")
+    int markSlaBreached(@Param("statusIds") Collection<Long> statusIds);
+}
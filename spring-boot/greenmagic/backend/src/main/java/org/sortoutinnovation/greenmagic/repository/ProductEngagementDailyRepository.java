@@ -0,0 +1,27 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+import org.sortoutinnovation.greenmagic.model.ProductEngagementDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for ProductEngagementDaily entity operations
+ * Rows are written by ProductEngagementTracker with batched JDBC upserts; this interface only reads them
+ */
+@Repository
+public interface ProductEngagementDailyRepository extends JpaRepository<ProductEngagementDaily, Long> {
+
+    /**
+     * Sum the engagement counts of products over all days
+     * @param productIds product IDs
+     * @return List<Object[]> containing product ID, impressions, views and cart additions
+     */
+    @Query("SELECT e.productId, SUM(e.impressions), SUM(e.views), SUM(e.cartAdditions) " +
+           "FROM ProductEngagementDaily e WHERE e.productId IN :productIds GROUP BY e.productId")
+    List<Object[]> sumByProductIds(@Param("productIds") Collection<Integer> productIds);
+}
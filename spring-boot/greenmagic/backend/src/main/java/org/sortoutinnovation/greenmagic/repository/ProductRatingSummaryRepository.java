@@ -0,0 +1,62 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+import org.sortoutinnovation.greenmagic.model.ProductRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Repository interface for ProductRatingSummary entity operations
+ * Updates are applied as deltas in a single upsert statement, so concurrent reviews of the same
+ * product never lose an update
+ */
+@Repository
+public interface ProductRatingSummaryRepository extends JpaRepository<ProductRatingSummary, Integer> {
+
+    /**
+     * Add deltas to a product's aggregate, creating the row if needed
+     * @param productId product ID
+     * @param sumDelta change of the rating sum
+     * @param countDelta change of the rating count
+     * @param star1 change of the 1-star count (likewise star2..star5)
+     * @return int rows affected
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_summary " +
+                   "(product_id, rating_sum, rating_count, star1, star2, star3, star4, star5) " +
+                   "VALUES (:productId, :sumDelta, :countDelta, :star1, :star2, :star3, :star4, :star5) " +
+                   "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + VALUES(rating_sum), " +
+                   "rating_count = rating_count + VALUES(rating_count), " +
+                   "star1 = star1 + VALUES(star1), star2 = star2 + VALUES(star2), star3 = star3 + VALUES(star3), " +
+                   "star4 = star4 + VALUES(star4), star5 = star5 + VALUES(star5)",
+           nativeQuery = true)
+    int applyDelta(@Param("productId") Integer productId,
+                   @Param("sumDelta") BigDecimal sumDelta,
+                   @Param("countDelta") int countDelta,
+                   @Param("star1") int star1,
+                   @Param("star2") int star2,
+                   @Param("star3") int star3,
+                   @Param("star4") int star4,
+                   @Param("star5") int star5);
+
+    /**
+     * Recompute every product's aggregate from the reviews table (backfill and repair)
+     * @return int rows affected
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_summary " +
+                   "(product_id, rating_sum, rating_count, star1, star2, star3, star4, star5) " +
+                   "SELECT product_id, SUM(rating), COUNT(*), " +
+                   "SUM(ROUND(rating) = 1), SUM(ROUND(rating) = 2), SUM(ROUND(rating) = 3), " +
+                   "SUM(ROUND(rating) = 4), SUM(ROUND(rating) = 5) " +
+                   "FROM reviews GROUP BY product_id " +
+                   "ON DUPLICATE KEY UPDATE rating_sum = VALUES(rating_sum), rating_count = VALUES(rating_count), " +
+                   "star1 = VALUES(star1), star2 = VALUES(star2), star3 = VALUES(star3), " +
+                   "star4 = VALUES(star4), star5 = VALUES(star5)",
+           nativeQuery = true)
+    int rebuildFromReviews();
+}
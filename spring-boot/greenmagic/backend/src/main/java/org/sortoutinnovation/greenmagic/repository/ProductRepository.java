@@ -1,49 +1,158 @@
 package org.sortoutinnovation.greenmagic.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sortoutinnovation.greenmagic.dto.ProductCardDto;
+import org.sortoutinnovation.greenmagic.dto.VendorProductRowDto;
 import org.sortoutinnovation.greenmagic.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
     
+    // Listing projections select only the columns shown in a list, so the description and
+    // the JSON columns are neither transferred nor parsed; c is the category, u the vendor
+    String CARD_COLUMNS = "new org.sortoutinnovation.greenmagic.dto.ProductCardDto(" +
+        "p.productId, p.sku, p.name, p.urlSlug, p.shortDescription, p.brand, p.price, p.mrp, p.quantity, " +
+        "p.imageUrl, p.freeShipping, p.isCodAvailable, p.status, c.categoryId, c.name, p.createdAt)";
+    
+    String VENDOR_ROW_COLUMNS = "new org.sortoutinnovation.greenmagic.dto.VendorProductRowDto(" +
+        "p.productId, p.sku, p.name, p.urlSlug, SUBSTRING(p.description, 1, 200), p.shortDescription, p.brand, " +
+        "p.price, p.mrp, p.costPrice, p.quantity, p.imageUrl, p.deliveryTimeEstimate, p.freeShipping, " +
+        "p.isReturnable, p.isCodAvailable, p.status, c.categoryId, c.name, u.name, " +
+        "p.offerStartDate, p.offerEndDate, p.createdAt)";
+    
     Optional<Product> findBySku(String sku);
     Optional<Product> findByUrlSlug(String urlSlug);
     boolean existsBySku(String sku);
     boolean existsByUrlSlug(String urlSlug);
     
+    @Query("SELECT p.productId FROM Product p WHERE p.sku = :sku")
+    Optional<Integer> findIdBySku(@Param("sku") String sku);
+    
+    @Query("SELECT p.productId FROM Product p WHERE p.urlSlug = :urlSlug")
+    Optional<Integer> findIdByUrlSlug(@Param("urlSlug") String urlSlug);
+    
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
     Page<Product> findAllActiveProducts(Pageable pageable);
     
+    @Query(value = "SELECT " + CARD_COLUMNS + " FROM Product p LEFT JOIN p.category c " +
+                   "WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = 'ACTIVE'")
+    Page<ProductCardDto> findActiveProductCards(Pageable pageable);
+    
+    @Query(value = "SELECT " + CARD_COLUMNS + " FROM Product p LEFT JOIN p.category c " +
+                   "WHERE p.status = 'ACTIVE' AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY p.name",
+           countQuery = "SELECT COUNT(p) FROM Product p " +
+                        "WHERE p.status = 'ACTIVE' AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<ProductCardDto> findProductCardsByNameContaining(@Param("name") String name, Pageable pageable);
+    
+    @Query("SELECT " + CARD_COLUMNS + " FROM Product p LEFT JOIN p.category c WHERE p.productId IN :productIds")
+    List<ProductCardDto> findProductCardsByIds(@Param("productIds") Collection<Integer> productIds);
+    
     @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId AND p.status = 'ACTIVE' ORDER BY p.name")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     Page<Product> findByCategoryId(@Param("categoryId") Integer categoryId, Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY p.name")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     Page<Product> findByNameContaining(@Param("name") String name, Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.price")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     Page<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
     
+    /**
+     * First slice of active products in a price range, cheapest first (productId breaks ties)
+     */
+    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.price BETWEEN :minPrice AND :maxPrice " +
+           "ORDER BY p.price, p.productId")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findByPriceRangeSeekFirst(@Param("minPrice") BigDecimal minPrice,
+                                            @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
+    
+    /**
+     * Next slice of active products in a price range, after the given (price, productId)
+     */
+    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.price BETWEEN :minPrice AND :maxPrice " +
+           "AND (p.price > :price OR (p.price = :price AND p.productId > :productId)) " +
+           "ORDER BY p.price, p.productId")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findByPriceRangeSeekAfter(@Param("minPrice") BigDecimal minPrice,
+                                            @Param("maxPrice") BigDecimal maxPrice,
+                                            @Param("price") BigDecimal price,
+                                            @Param("productId") Integer productId, Pageable pageable);
+    
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.quantity > 0 ORDER BY p.name")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     Page<Product> findProductsInStock(Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.quantity = 0 ORDER BY p.name")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     List<Product> findOutOfStockProducts();
     
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.quantity > 0 AND p.quantity <= :threshold ORDER BY p.quantity")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
     
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND LOWER(p.brand) = LOWER(:brand) ORDER BY p.name")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     Page<Product> findByBrand(@Param("brand") String brand, Pageable pageable);
     
+    // ===========================
+    // KEYSET PAGINATION METHODS
+    // ===========================
+    
+    /**
+     * First slice of active products, newest first (productId breaks ties)
+     */
+    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC, p.productId DESC")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findActiveProductsSeekFirst(Pageable pageable);
+    
+    /**
+     * Active products after the given (createdAt, productId) position, newest first
+     */
+    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.productId < :productId)) " +
+           "ORDER BY p.createdAt DESC, p.productId DESC")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findActiveProductsSeekAfter(@Param("createdAt") LocalDateTime createdAt,
+                                              @Param("productId") Integer productId, Pageable pageable);
+    
+    /**
+     * First slice of active products in a category, newest first
+     */
+    @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId AND p.status = 'ACTIVE' " +
+           "ORDER BY p.createdAt DESC, p.productId DESC")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findByCategoryIdSeekFirst(@Param("categoryId") Integer categoryId, Pageable pageable);
+    
+    /**
+     * Active products in a category after the given (createdAt, productId) position, newest first
+     */
+    @Query("SELECT p FROM Product p WHERE p.category.categoryId = :categoryId AND p.status = 'ACTIVE' " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.productId < :productId)) " +
+           "ORDER BY p.createdAt DESC, p.productId DESC")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findByCategoryIdSeekAfter(@Param("categoryId") Integer categoryId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("productId") Integer productId, Pageable pageable);
+    
     // ===========================
     // VENDOR-SPECIFIC METHODS
     // ===========================
@@ -62,6 +171,12 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
      * Count products by vendor
      */
     long countByCreatedByUserId(Integer vendorId);
+
+    /**
+     * SKUs of a vendor's products matching a LIKE pattern
+     */
+    @Query("SELECT p.sku FROM Product p WHERE p.createdBy.userId = :vendorId AND p.sku LIKE :pattern")
+    List<String> findSkusByVendorLike(@Param("vendorId") Integer vendorId, @Param("pattern") String pattern);
     
     /**
      * Count products by vendor and status
@@ -80,6 +195,60 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
                                           @Param("search") String search, 
                                           Pageable pageable);
     
+    /**
+     * Find list rows of a vendor's products, optionally filtered by status and category
+     * Ordered by the pageable's sort
+     */
+    @Query(value = "SELECT " + VENDOR_ROW_COLUMNS + " FROM Product p LEFT JOIN p.category c LEFT JOIN p.createdBy u " +
+                   "WHERE p.createdBy.userId = :vendorId " +
+                   "AND (:status IS NULL OR p.status = :status) " +
+                   "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId)",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.createdBy.userId = :vendorId " +
+                        "AND (:status IS NULL OR p.status = :status) " +
+                        "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId)")
+    Page<VendorProductRowDto> findVendorProductRows(@Param("vendorId") Integer vendorId,
+                                                    @Param("status") Product.ProductStatus status,
+                                                    @Param("categoryId") Integer categoryId,
+                                                    Pageable pageable);
+    
+    /**
+     * Stream all list rows of a vendor's products, newest first, read one by one (see StreamingQuery)
+     * Must be consumed inside a transaction
+     */
+    @Query("SELECT " + VENDOR_ROW_COLUMNS + " FROM Product p LEFT JOIN p.category c LEFT JOIN p.createdBy u " +
+           "WHERE p.createdBy.userId = :vendorId " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId) " +
+           "ORDER BY p.createdAt DESC, p.productId DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<VendorProductRowDto> streamVendorProductRows(@Param("vendorId") Integer vendorId,
+                                                        @Param("status") Product.ProductStatus status,
+                                                        @Param("categoryId") Integer categoryId);
+    
+    /**
+     * Find list rows of a vendor's products matching a search term in name, description or SKU
+     */
+    @Query(value = "SELECT " + VENDOR_ROW_COLUMNS + " FROM Product p LEFT JOIN p.category c LEFT JOIN p.createdBy u " +
+                   "WHERE p.createdBy.userId = :vendorId " +
+                   "AND (:search IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
+                   "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')) " +
+                   "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+                   "ORDER BY p.createdAt DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.createdBy.userId = :vendorId " +
+                        "AND (:search IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
+                        "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')) " +
+                        "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Page<VendorProductRowDto> findVendorProductRowsWithSearch(@Param("vendorId") Integer vendorId,
+                                                              @Param("search") String search,
+                                                              Pageable pageable);
+    
+    /**
+     * Find list rows of products by IDs
+     */
+    @Query("SELECT " + VENDOR_ROW_COLUMNS + " FROM Product p LEFT JOIN p.category c LEFT JOIN p.createdBy u " +
+           "WHERE p.productId IN :productIds")
+    List<VendorProductRowDto> findVendorProductRowsByIds(@Param("productIds") Collection<Integer> productIds);
+    
     /**
      * Find products by vendor, status and category
      */
@@ -127,9 +296,61 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     @Query("SELECT p FROM Product p WHERE p.createdBy.userId = :vendorId")
     List<Product> findByVendorId(@Param("vendorId") Integer vendorId);
     
+    /**
+     * Find a product with its category and vendor in one query, for the vendor details view
+     */
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.createdBy WHERE p.productId = :productId")
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    Optional<Product> findWithCategoryAndVendorById(@Param("productId") Integer productId);
+    
+    /**
+     * Find ID and name of all products of a vendor
+     * @return List<Object[]> containing product ID and name
+     */
+    @Query("SELECT p.productId, p.name FROM Product p WHERE p.createdBy.userId = :vendorId ORDER BY p.productId")
+    List<Object[]> findIdAndNameByVendorId(@Param("vendorId") Integer vendorId);
+    
+    /**
+     * Find the vendor of each of the given products
+     * @return List<Object[]> containing product ID and vendor user ID
+     */
+    @Query("SELECT p.productId, p.createdBy.userId FROM Product p WHERE p.productId IN :productIds")
+    List<Object[]> findVendorIdsByProductIds(@Param("productIds") Collection<Integer> productIds);
+    
     /**
      * Find products by IDs and vendor ID for bulk operations
      */
     @Query("SELECT p FROM Product p WHERE p.productId IN :productIds AND p.createdBy.userId = :vendorId")
     List<Product> findByIdInAndCreatedByUserId(@Param("productIds") List<Integer> productIds, @Param("vendorId") Integer vendorId);
+    
+    // ===========================
+    // INDEX BOOTSTRAP METHODS
+    // ===========================
+    
+    /**
+     * Walk the products table in primary key order (used to build in-memory indexes)
+     * Fetches the description, which the search index reads, but not the rest of the content group
+     */
+    @EntityGraph(attributePaths = "description", type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findByProductIdGreaterThanOrderByProductIdAsc(Integer productId, Pageable pageable);
+    
+    /**
+     * Load products by ID together with their content, for pages that serialize whole products
+     */
+    @EntityGraph(value = Product.CONTENT_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Product> findWithContentByProductIdIn(Collection<Integer> productIds);
+    
+    /**
+     * Read only the description of a product, without loading the rest of its content group
+     */
+    @Query("SELECT p.description FROM Product p WHERE p.productId = :productId")
+    Optional<String> findDescriptionById(@Param("productId") Integer productId);
+    
+    /**
+     * Walk active products in primary key order, selecting only the fields used for autocomplete
+     * @return List<Object[]> containing product ID, name, brand and search keywords
+     */
+    @Query("SELECT p.productId, p.name, p.brand, p.searchKeywords FROM Product p " +
+           "WHERE p.status = 'ACTIVE' AND p.productId > :afterId ORDER BY p.productId")
+    List<Object[]> findActiveSuggestionSourcesAfter(@Param("afterId") Integer afterId, Pageable pageable);
 } 
\ No newline at end of file
@@ -130,4 +130,12 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Query("SELECT v FROM ProductVariant v WHERE v.product.createdBy.userId = :vendorId " +
            "AND v.stockQuantity <= v.minStockAlert AND v.status = 'ACTIVE'")
     List<ProductVariant> findLowStockVariantsByVendor(@Param("vendorId") Integer vendorId);
-} 
\ No newline at end of file
+
+    /**
+     * Find active variants needing stock alert across all vendors
+     * @return List<Object[]> containing variant ID, product ID and vendor ID
+     */
+    @Query("SELECT v.variantId, v.product.productId, v.product.createdBy.userId FROM ProductVariant v " +
+           "WHERE v.stockQuantity <= v.minStockAlert AND v.status = 'ACTIVE'")
+    List<Object[]> findLowStockVariantKeys();
+}
@@ -0,0 +1,42 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+import org.sortoutinnovation.greenmagic.dto.SalesTotalsDto;
+import org.sortoutinnovation.greenmagic.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for SalesRollup entity operations
+ * Rows are written by SalesRollupRecorder with batched JDBC upserts; this interface only reads them
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    boolean existsByGranularity(SalesRollup.Granularity granularity);
+
+    /**
+     * Sum the daily rollups of a range of days, reading one row per day and stripe
+     * @param firstDay start of the first day
+     * @param lastDay start of the last day
+     * @return SalesTotalsDto, all zero if no orders were placed
+     */
+    @Query("SELECT new org.sortoutinnovation.greenmagic.dto.SalesTotalsDto(COALESCE(SUM(r.orderCount), 0), " +
+           "COALESCE(SUM(r.grossSales), 0), COALESCE(SUM(r.completedCount), 0), COALESCE(SUM(r.completedSales), 0), " +
+           "COALESCE(SUM(r.completedTax), 0)) " +
+           "FROM SalesRollup r WHERE r.granularity = 'DAY' AND r.periodStart BETWEEN :firstDay AND :lastDay")
+    SalesTotalsDto sumDays(@Param("firstDay") LocalDateTime firstDay, @Param("lastDay") LocalDateTime lastDay);
+
+    /**
+     * Sum the daily rollups of all days
+     * @return SalesTotalsDto, all zero if no orders were placed
+     */
+    @Query("SELECT new org.sortoutinnovation.greenmagic.dto.SalesTotalsDto(COALESCE(SUM(r.orderCount), 0), " +
+           "COALESCE(SUM(r.grossSales), 0), COALESCE(SUM(r.completedCount), 0), COALESCE(SUM(r.completedSales), 0), " +
+           "COALESCE(SUM(r.completedTax), 0)) " +
+           "FROM SalesRollup r WHERE r.granularity = 'DAY'")
+    SalesTotalsDto sumAllDays();
+}
@@ -0,0 +1,17 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+/**
+ * Query hint values of the repository methods that return a Stream
+ */
+public final class StreamingQuery {
+
+    /**
+     * Fetch size that makes MySQL Connector/J stream a result set row by row instead of buffering all
+     * of it; only the statement with this fetch size is affected. Until the stream is closed no other
+     * statement can run on the connection, so the rows must not need lazy loading or further queries
+     */
+    public static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingQuery() {
+    }
+}
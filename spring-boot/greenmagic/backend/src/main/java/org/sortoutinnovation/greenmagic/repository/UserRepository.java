@@ -1,16 +1,21 @@
 package org.sortoutinnovation.greenmagic.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sortoutinnovation.greenmagic.dto.UserResponseDto;
 import org.sortoutinnovation.greenmagic.model.Role;
 import org.sortoutinnovation.greenmagic.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for User entity operations
@@ -75,6 +80,18 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT u FROM User u ORDER BY u.name")
     List<User> findAllUsers();
     
+    /**
+     * Stream all users ordered by name, as response rows read one by one (see StreamingQuery)
+     * Selects the columns of the response, as loading User entities would query their role,
+     * cart and vendor profile while the stream is open
+     * Must be consumed inside a transaction
+     */
+    @Query("SELECT new org.sortoutinnovation.greenmagic.dto.UserResponseDto(u.userId, u.name, u.email, u.phoneNumber, " +
+           "u.profilePicture, r.roleName, CASE WHEN u.googleId IS NOT NULL THEN true ELSE false END, u.createdAt) " +
+           "FROM User u LEFT JOIN u.role r ORDER BY u.name")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<UserResponseDto> streamAllUsers();
+    
     /**
      * Find users by role
      * @param roleName the role name
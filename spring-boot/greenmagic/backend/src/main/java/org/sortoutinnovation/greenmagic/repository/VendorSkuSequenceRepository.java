@@ -0,0 +1,25 @@
+package org.sortoutinnovation.greenmagic.repository;
+
+import jakarta.persistence.LockModeType;
+import org.sortoutinnovation.greenmagic.model.VendorSkuSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for VendorSkuSequence entity operations
+ */
+@Repository
+public interface VendorSkuSequenceRepository extends JpaRepository<VendorSkuSequence, Integer> {
+
+    /**
+     * Read a vendor's sequence row and lock it until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM VendorSkuSequence s WHERE s.vendorId = :vendorId")
+    Optional<VendorSkuSequence> findForUpdate(@Param("vendorId") Integer vendorId);
+}
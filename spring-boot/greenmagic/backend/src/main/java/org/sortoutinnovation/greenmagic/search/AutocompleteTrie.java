@@ -0,0 +1,242 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie for typeahead suggestions
+ * Nodes are flattened into parallel arrays (children of a node are contiguous and sorted by label)
+ * and every node carries its precomputed top-K suggestions, so a lookup is one walk down the
+ * prefix followed by an array copy, independent of catalog size
+ * Instances never change after build(), so they can be shared between threads without locking
+ */
+public final class AutocompleteTrie {
+
+    public enum SuggestionType {
+        PRODUCT, BRAND, KEYWORD
+    }
+
+    /**
+     * A completion candidate; productId is only set for PRODUCT suggestions
+     */
+    public record Suggestion(String text, SuggestionType type, Integer productId, long weight) {
+    }
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+        .comparingLong(Suggestion::weight).reversed()
+        .thenComparing(Suggestion::text, String.CASE_INSENSITIVE_ORDER);
+
+    private static final AutocompleteTrie EMPTY = new Builder(1).build();
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[][] topSuggestions;
+    private final Suggestion[] suggestions;
+
+    private AutocompleteTrie(char[] labels, int[] firstChild, int[] childCount,
+                             int[][] topSuggestions, Suggestion[] suggestions) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topSuggestions = topSuggestions;
+        this.suggestions = suggestions;
+    }
+
+    public static AutocompleteTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Best completions for a prefix
+     * @param prefix user input, normalized the same way as the indexed keys
+     * @param limit maximum number of suggestions (capped at the top-K the trie was built with)
+     * @return suggestions ordered by descending weight
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = findChild(node, key.charAt(i));
+            if (node < 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        int[] top = topSuggestions[node];
+        int count = Math.min(limit, top.length);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions[top[i]]);
+        }
+        return result;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public int suggestionCount() {
+        return suggestions.length;
+    }
+
+    private int findChild(int node, char label) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char candidate = labels[mid];
+            if (candidate < label) {
+                low = mid + 1;
+            } else if (candidate > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lowercase, map every run of non letter/digit characters to a single space and trim,
+     * so "Organic  Basmati-Rice" and "organic basmati rice" share a path
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && key.length() > 0) {
+                    key.append(' ');
+                }
+                pendingSpace = false;
+                key.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects keys for a new trie; not thread-safe, meant to be filled and built by one thread
+     */
+    public static final class Builder {
+
+        private final int topK;
+        private final BuildNode root = new BuildNode('\0');
+        private final List<Suggestion> suggestions = new ArrayList<>();
+
+        public Builder(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * Register a suggestion and return its handle for addKey
+         */
+        public int addSuggestion(Suggestion suggestion) {
+            suggestions.add(suggestion);
+            return suggestions.size() - 1;
+        }
+
+        /**
+         * Make the suggestion reachable through every prefix of the given key
+         */
+        public void addKey(String text, int suggestionIndex) {
+            String key = normalize(text);
+            if (key.isEmpty()) {
+                return;
+            }
+            Suggestion suggestion = suggestions.get(suggestionIndex);
+            BuildNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), BuildNode::new);
+                node.offer(suggestionIndex, suggestion, suggestions, topK);
+            }
+        }
+
+        public AutocompleteTrie build() {
+            // Breadth-first numbering keeps each node's children contiguous in the flat arrays
+            List<BuildNode> order = new ArrayList<>();
+            Deque<BuildNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                BuildNode node = queue.poll();
+                order.add(node);
+                queue.addAll(node.children.values());
+            }
+
+            int size = order.size();
+            char[] labels = new char[size];
+            int[] firstChild = new int[size];
+            int[] childCount = new int[size];
+            int[][] top = new int[size][];
+
+            int next = 1;
+            for (int i = 0; i < size; i++) {
+                BuildNode node = order.get(i);
+                labels[i] = node.label;
+                firstChild[i] = next;
+                childCount[i] = node.children.size();
+                top[i] = node.top.length == node.topSize ? node.top : Arrays.copyOf(node.top, node.topSize);
+                next += node.children.size();
+            }
+
+            return new AutocompleteTrie(labels, firstChild, childCount, top,
+                suggestions.toArray(new Suggestion[0]));
+        }
+    }
+
+    private static final class BuildNode {
+        private final char label;
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private int[] top = new int[0];
+        private int topSize;
+
+        private BuildNode(char label) {
+            this.label = label;
+        }
+
+        // Keep the node's best topK suggestions in ranking order; a suggestion reachable through
+        // several keys (e.g. "basmati rice" and "rice") must only be counted once
+        private void offer(int index, Suggestion suggestion, List<Suggestion> all, int topK) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == index) {
+                    return;
+                }
+            }
+
+            int position = topSize;
+            while (position > 0 && RANKING.compare(suggestion, all.get(top[position - 1])) < 0) {
+                position--;
+            }
+            if (position >= topK) {
+                return;
+            }
+
+            if (topSize < topK) {
+                if (top.length == topSize) {
+                    top = Arrays.copyOf(top, Math.min(topK, Math.max(2, topSize * 2)));
+                }
+                topSize++;
+            }
+            System.arraycopy(top, position, top, position + 1, topSize - position - 1);
+            top[position] = index;
+        }
+    }
+}
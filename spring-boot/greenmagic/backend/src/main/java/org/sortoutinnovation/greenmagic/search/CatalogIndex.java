@@ -0,0 +1,26 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.sortoutinnovation.greenmagic.model.Product;
+
+/**
+ * An in-memory structure derived from the products table
+ * CatalogIndexBootstrapper fills every CatalogIndex bean from one walk over the catalog at startup
+ * and then keeps it current from committed product writes
+ */
+public interface CatalogIndex {
+
+    /**
+     * Add or replace a product
+     */
+    void upsert(Product product);
+
+    /**
+     * Remove a product
+     */
+    void remove(Integer productId);
+
+    /**
+     * Called once the initial load and the changes queued during it have been applied
+     */
+    void onBootstrapComplete();
+}
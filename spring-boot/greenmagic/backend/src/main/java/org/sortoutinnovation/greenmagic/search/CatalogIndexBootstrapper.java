@@ -0,0 +1,117 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Loads all CatalogIndex beans from a single pass over the products table and keeps them in sync
+ * The pass runs on a background thread after startup; product changes committed meanwhile are
+ * queued and replayed before the indexes are told they are complete
+ */
+@Component
+public class CatalogIndexBootstrapper {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexBootstrapper.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private List<CatalogIndex> indexes;
+
+    @Value("${search.index.bootstrap-batch-size:500}")
+    private int bootstrapBatchSize;
+
+    // Changes committed while the initial load is running; replayed once it finishes
+    private final Queue<ProductChangedEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Build the indexes in the background once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexesOnStartup() {
+        Thread builder = new Thread(this::buildIndexes, "catalog-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Forward committed product writes to every index
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    pendingChanges.add(event);
+                    return;
+                }
+            }
+        }
+        dispatch(event);
+    }
+
+    private void buildIndexes() {
+        long start = System.currentTimeMillis();
+        try {
+            int loaded = 0;
+            Integer lastId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(
+                    lastId, PageRequest.of(0, bootstrapBatchSize));
+                for (Product product : batch) {
+                    for (CatalogIndex index : indexes) {
+                        index.upsert(product);
+                    }
+                    lastId = product.getProductId();
+                }
+                loaded += batch.size();
+            } while (batch.size() == bootstrapBatchSize);
+
+            synchronized (this) {
+                ProductChangedEvent pending;
+                while ((pending = pendingChanges.poll()) != null) {
+                    dispatch(pending);
+                }
+                ready = true;
+            }
+            for (CatalogIndex index : indexes) {
+                index.onBootstrapComplete();
+            }
+            log.info("Catalog indexes built: {} products into {} indexes in {} ms",
+                loaded, indexes.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build catalog indexes, database queries stay in use: {}", e.getMessage());
+        }
+    }
+
+    private void dispatch(ProductChangedEvent event) {
+        for (CatalogIndex index : indexes) {
+            if (event.isDeleted()) {
+                index.remove(event.getProductId());
+            } else {
+                index.upsert(event.getProduct());
+            }
+        }
+    }
+}
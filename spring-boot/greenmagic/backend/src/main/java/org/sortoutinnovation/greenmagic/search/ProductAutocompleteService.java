@@ -0,0 +1,174 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.ProductSuggestionDto;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.repository.OrderItemRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service for product typeahead
+ * Suggestions come from active product names, brands and search keywords, ranked by units sold
+ * The trie is immutable: a background job rebuilds it when products have changed and publishes
+ * the new instance through a volatile field, so lookups never lock or touch the database
+ */
+@Service
+public class ProductAutocompleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAutocompleteService.class);
+
+    // Product names are also reachable from their later words ("rice" -> "Organic Basmati Rice")
+    private static final int MAX_NAME_WORD_KEYS = 8;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${search.index.bootstrap-batch-size:500}")
+    private int batchSize;
+
+    @Value("${search.autocomplete.max-suggestions:10}")
+    private int maxSuggestions;
+
+    private volatile AutocompleteTrie trie = AutocompleteTrie.empty();
+
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    /**
+     * Mark the trie stale after committed product writes; the next scheduled run rebuilds it
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Rebuild the trie in the background if products changed since the last build
+     */
+    @Scheduled(fixedDelayString = "${search.autocomplete.rebuild-interval-ms:60000}")
+    public void rebuildIfStale() {
+        if (!stale.getAndSet(false)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            AutocompleteTrie rebuilt = buildTrie();
+            trie = rebuilt;
+            log.info("Autocomplete trie rebuilt: {} suggestions, {} nodes in {} ms",
+                rebuilt.suggestionCount(), rebuilt.nodeCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            stale.set(true);
+            log.error("Failed to rebuild autocomplete trie, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get completions for a prefix
+     * @param prefix user input
+     * @param limit maximum number of suggestions
+     * @return List<ProductSuggestionDto> ordered by units sold
+     */
+    public List<ProductSuggestionDto> suggest(String prefix, int limit) {
+        List<AutocompleteTrie.Suggestion> completions = trie.complete(prefix, Math.min(limit, maxSuggestions));
+        List<ProductSuggestionDto> result = new ArrayList<>(completions.size());
+        for (AutocompleteTrie.Suggestion suggestion : completions) {
+            result.add(new ProductSuggestionDto(suggestion.text(), suggestion.type().name(),
+                suggestion.productId(), suggestion.weight()));
+        }
+        return result;
+    }
+
+    private AutocompleteTrie buildTrie() {
+        Map<Integer, Long> unitsSold = new HashMap<>();
+        for (Object[] row : orderItemRepository.findQuantitySoldPerProduct()) {
+            unitsSold.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
+
+        AutocompleteTrie.Builder builder = new AutocompleteTrie.Builder(maxSuggestions);
+
+        // Brands and keywords are shared by many products; they rank by the sales of all of them
+        Map<String, String> brandText = new LinkedHashMap<>();
+        Map<String, Long> brandWeight = new HashMap<>();
+        Map<String, String> keywordText = new LinkedHashMap<>();
+        Map<String, Long> keywordWeight = new HashMap<>();
+
+        Integer lastId = 0;
+        List<Object[]> batch;
+        do {
+            batch = productRepository.findActiveSuggestionSourcesAfter(lastId, PageRequest.of(0, batchSize));
+            for (Object[] row : batch) {
+                Integer productId = (Integer) row[0];
+                String name = (String) row[1];
+                String brand = (String) row[2];
+                @SuppressWarnings("unchecked")
+                List<String> keywords = (List<String>) row[3];
+                long weight = unitsSold.getOrDefault(productId, 0L);
+
+                addProduct(builder, productId, name, weight);
+                accumulate(brandText, brandWeight, brand, weight);
+                if (keywords != null) {
+                    for (String keyword : keywords) {
+                        accumulate(keywordText, keywordWeight, keyword, weight);
+                    }
+                }
+                lastId = productId;
+            }
+        } while (batch.size() == batchSize);
+
+        for (Map.Entry<String, String> brand : brandText.entrySet()) {
+            int handle = builder.addSuggestion(new AutocompleteTrie.Suggestion(
+                brand.getValue(), AutocompleteTrie.SuggestionType.BRAND, null, brandWeight.get(brand.getKey())));
+            builder.addKey(brand.getKey(), handle);
+        }
+        for (Map.Entry<String, String> keyword : keywordText.entrySet()) {
+            if (brandText.containsKey(keyword.getKey())) {
+                continue;
+            }
+            int handle = builder.addSuggestion(new AutocompleteTrie.Suggestion(
+                keyword.getValue(), AutocompleteTrie.SuggestionType.KEYWORD, null, keywordWeight.get(keyword.getKey())));
+            builder.addKey(keyword.getKey(), handle);
+        }
+        return builder.build();
+    }
+
+    private void addProduct(AutocompleteTrie.Builder builder, Integer productId, String name, long weight) {
+        String key = AutocompleteTrie.normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        int handle = builder.addSuggestion(new AutocompleteTrie.Suggestion(
+            name.trim(), AutocompleteTrie.SuggestionType.PRODUCT, productId, weight));
+        builder.addKey(key, handle);
+
+        int words = 1;
+        for (int i = key.indexOf(' '); i >= 0 && words < MAX_NAME_WORD_KEYS; i = key.indexOf(' ', i + 1)) {
+            builder.addKey(key.substring(i + 1), handle);
+            words++;
+        }
+    }
+
+    private void accumulate(Map<String, String> texts, Map<String, Long> weights, String value, long weight) {
+        String key = AutocompleteTrie.normalize(value);
+        if (key.isEmpty()) {
+            return;
+        }
+        texts.putIfAbsent(key, value.trim());
+        weights.merge(key, weight, Long::sum);
+    }
+}
@@ -0,0 +1,295 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of active products by facet value
+ * One BitSet per (facet, value), with the product ID as bit position; product IDs come from an
+ * auto-increment column and stay dense, so the bitmaps stay small and AND/OR are word-level operations
+ * Values of one facet are OR-ed, facets are AND-ed; counts per facet value are computed against
+ * the selections of all other facets, so a category page can show how many products each
+ * alternative value would give
+ * Thread-safe: queries share a read lock, incremental updates take the write lock
+ */
+public class ProductFacetIndex {
+
+    public enum Facet {
+        CATEGORY("category"),
+        BRAND("brand"),
+        SHIPPING_CLASS("shippingClass"),
+        COD_AVAILABLE("codAvailable"),
+        FREE_SHIPPING("freeShipping"),
+        PRICE_BUCKET("priceBucket"),
+        IN_STOCK("inStock");
+
+        private final String paramName;
+
+        Facet(String paramName) {
+            this.paramName = paramName;
+        }
+
+        public String getParamName() {
+            return paramName;
+        }
+    }
+
+    /**
+     * Result of a filter: the product IDs of one page (newest first), the total and the facet counts
+     */
+    public record Result(List<Integer> pageIds, int total, Map<Facet, Map<String, Integer>> counts) {
+    }
+
+    private static final Facet[] FACETS = Facet.values();
+
+    private final List<BigDecimal> priceBoundaries;
+    private final List<String> priceBucketLabels;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet active = new BitSet();
+    private final EnumMap<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+    private final Map<Integer, String[]> documentValues = new HashMap<>();
+    private final Map<String, String> brandLabels = new HashMap<>();
+
+    /**
+     * @param priceBoundaries ascending upper bounds of the price buckets; prices at or above
+     *                        the last bound fall in an open-ended bucket
+     */
+    public ProductFacetIndex(List<BigDecimal> priceBoundaries) {
+        this.priceBoundaries = List.copyOf(priceBoundaries);
+        List<String> labels = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : this.priceBoundaries) {
+            labels.add(lower.toPlainString() + "-" + upper.toPlainString());
+            lower = upper;
+        }
+        labels.add(lower.toPlainString() + "+");
+        this.priceBucketLabels = List.copyOf(labels);
+
+        for (Facet facet : FACETS) {
+            bitmaps.put(facet, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Add or replace a product; products that are not ACTIVE are only removed
+     */
+    public void index(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        int productId = product.getProductId();
+        String[] values = product.getStatus() == Product.ProductStatus.ACTIVE ? valuesOf(product) : null;
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            if (values == null) {
+                return;
+            }
+            active.set(productId);
+            documentValues.put(productId, values);
+            for (Facet facet : FACETS) {
+                String value = values[facet.ordinal()];
+                if (value != null) {
+                    bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(productId);
+                }
+            }
+            if (product.getBrand() != null && !product.getBrand().isBlank()) {
+                brandLabels.putIfAbsent(values[Facet.BRAND.ordinal()], product.getBrand().trim());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product
+     */
+    public void remove(Integer productId) {
+        if (productId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filter active products
+     * @param selections selected values per facet; facets without a selection do not filter
+     * @param offset number of matches to skip
+     * @param limit maximum number of IDs to return
+     * @return Result with the requested page of IDs (newest first), total matches and facet counts
+     */
+    public Result filter(Map<Facet, ? extends Collection<String>> selections, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            // OR the selected values within each facet
+            BitSet[] unions = new BitSet[FACETS.length];
+            for (Facet facet : FACETS) {
+                Collection<String> selected = selections.get(facet);
+                if (selected == null || selected.isEmpty()) {
+                    continue;
+                }
+                BitSet union = new BitSet();
+                for (String value : selected) {
+                    BitSet bitmap = bitmaps.get(facet).get(normalizeValue(facet, value));
+                    if (bitmap != null) {
+                        union.or(bitmap);
+                    }
+                }
+                unions[facet.ordinal()] = union;
+            }
+
+            BitSet matches = intersectAllExcept(unions, null);
+
+            Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+            for (Facet facet : FACETS) {
+                BitSet base = unions[facet.ordinal()] == null ? matches : intersectAllExcept(unions, facet);
+                counts.put(facet, countValues(facet, base));
+            }
+
+            List<Integer> pageIds = new ArrayList<>(Math.max(0, limit));
+            long skipped = 0;
+            for (int id = matches.length() - 1; id >= 0 && pageIds.size() < limit; id = matches.previousSetBit(id - 1)) {
+                if (skipped++ >= offset) {
+                    pageIds.add(id);
+                }
+            }
+            return new Result(pageIds, matches.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return active.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalize a requested facet value to the form used as bitmap key
+     */
+    public String normalizeValue(Facet facet, String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return switch (facet) {
+            case BRAND, COD_AVAILABLE, FREE_SHIPPING, IN_STOCK -> trimmed.toLowerCase(Locale.ROOT);
+            case SHIPPING_CLASS -> trimmed.toUpperCase(Locale.ROOT);
+            default -> trimmed;
+        };
+    }
+
+    private BitSet intersectAllExcept(BitSet[] unions, Facet excluded) {
+        BitSet result = (BitSet) active.clone();
+        for (Facet facet : FACETS) {
+            BitSet union = unions[facet.ordinal()];
+            if (union != null && facet != excluded) {
+                result.and(union);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Integer> countValues(Facet facet, BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        if (base.isEmpty()) {
+            return counts;
+        }
+        if (facet == Facet.PRICE_BUCKET) {
+            // Report buckets in price order rather than by label
+            for (String label : priceBucketLabels) {
+                BitSet bitmap = bitmaps.get(facet).get(label);
+                if (bitmap != null) {
+                    putCount(counts, label, base, bitmap);
+                }
+            }
+            return counts;
+        }
+        for (Map.Entry<String, BitSet> entry : bitmaps.get(facet).entrySet()) {
+            String label = facet == Facet.BRAND ? brandLabels.getOrDefault(entry.getKey(), entry.getKey()) : entry.getKey();
+            putCount(counts, label, base, entry.getValue());
+        }
+        return counts;
+    }
+
+    private static void putCount(Map<String, Integer> counts, String label, BitSet base, BitSet bitmap) {
+        BitSet intersection = (BitSet) bitmap.clone();
+        intersection.and(base);
+        int count = intersection.cardinality();
+        if (count > 0) {
+            counts.put(label, count);
+        }
+    }
+
+    private String[] valuesOf(Product product) {
+        String[] values = new String[FACETS.length];
+        Integer categoryId = ProductChangedEvent.categoryIdOf(product.getCategory());
+        values[Facet.CATEGORY.ordinal()] = categoryId != null ? categoryId.toString() : null;
+        values[Facet.BRAND.ordinal()] = product.getBrand() != null && !product.getBrand().isBlank()
+            ? normalizeValue(Facet.BRAND, product.getBrand()) : null;
+        values[Facet.SHIPPING_CLASS.ordinal()] = product.getShippingClass() != null ? product.getShippingClass().name() : null;
+        values[Facet.COD_AVAILABLE.ordinal()] = product.getIsCodAvailable() != null ? product.getIsCodAvailable().toString() : null;
+        values[Facet.FREE_SHIPPING.ordinal()] = product.getFreeShipping() != null ? product.getFreeShipping().toString() : null;
+        values[Facet.PRICE_BUCKET.ordinal()] = product.getPrice() != null ? priceBucketOf(product.getPrice()) : null;
+        values[Facet.IN_STOCK.ordinal()] = product.getQuantity() != null ? Boolean.toString(product.getQuantity() > 0) : null;
+        return values;
+    }
+
+    private String priceBucketOf(BigDecimal price) {
+        for (int i = 0; i < priceBoundaries.size(); i++) {
+            if (price.compareTo(priceBoundaries.get(i)) < 0) {
+                return priceBucketLabels.get(i);
+            }
+        }
+        return priceBucketLabels.get(priceBucketLabels.size() - 1);
+    }
+
+    private void removeInternal(int productId) {
+        String[] values = documentValues.remove(productId);
+        if (values == null) {
+            return;
+        }
+        active.clear(productId);
+        for (Facet facet : FACETS) {
+            String value = values[facet.ordinal()];
+            if (value == null) {
+                continue;
+            }
+            Map<String, BitSet> facetBitmaps = bitmaps.get(facet);
+            BitSet bitmap = facetBitmaps.get(value);
+            if (bitmap != null) {
+                bitmap.clear(productId);
+                if (bitmap.isEmpty()) {
+                    facetBitmaps.remove(value);
+                    if (facet == Facet.BRAND) {
+                        brandLabels.remove(value);
+                    }
+                }
+            }
+        }
+    }
+}
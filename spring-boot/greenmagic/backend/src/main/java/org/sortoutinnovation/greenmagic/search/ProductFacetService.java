@@ -0,0 +1,85 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.ProductFacetResultDto;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for faceted filtering of the public catalog
+ * Answers any combination of category, brand, shipping class, COD, free shipping, price bucket and
+ * stock filters together with per-facet counts from a ProductFacetIndex, which CatalogIndexBootstrapper
+ * loads at startup and keeps in sync with product writes
+ */
+@Service
+public class ProductFacetService implements CatalogIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetService.class);
+
+    @Autowired
+    private ProductPageLoader productPageLoader;
+
+    private final ProductFacetIndex index;
+
+    private volatile boolean ready = false;
+
+    public ProductFacetService(@Value("${search.facets.price-buckets:100,250,500,1000}") List<BigDecimal> priceBuckets) {
+        this.index = new ProductFacetIndex(priceBuckets);
+    }
+
+    @Override
+    public void upsert(Product product) {
+        index.index(product);
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        index.remove(productId);
+    }
+
+    @Override
+    public void onBootstrapComplete() {
+        ready = true;
+        log.info("Product facet index ready: {} active products", index.size());
+    }
+
+    /**
+     * Filter active products by facet values
+     * @param selections selected values per facet (OR within a facet, AND across facets)
+     * @param pageable pagination information
+     * @return ProductFacetResultDto with the page of products, newest first, and facet counts
+     */
+    public ProductFacetResultDto filterActiveProducts(Map<ProductFacetIndex.Facet, List<String>> selections,
+                                                      Pageable pageable) {
+        if (!ready) {
+            throw new RuntimeException("Catalog filters are still loading, please retry shortly");
+        }
+
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        ProductFacetIndex.Result result = index.filter(selections, offset, limit);
+
+        Page<Product> products = productPageLoader.load(new ArrayList<>(result.pageIds()), pageable, result.total());
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (Map.Entry<ProductFacetIndex.Facet, Map<String, Integer>> entry : result.counts().entrySet()) {
+            facets.put(entry.getKey().getParamName(), entry.getValue());
+        }
+        return new ProductFacetResultDto(products, facets);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,84 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns product IDs answered by an in-memory index into a Page of entities or listing projections
+ * Loads only the IDs of the requested page, by primary key, and keeps the index's ordering
+ */
+@Component
+public class ProductPageLoader {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Load a page from the full ordered result
+     * @param orderedIds all matching product IDs in result order
+     * @param pageable pagination information
+     * @return Page<Product> in the given order
+     */
+    public Page<Product> slice(List<Integer> orderedIds, Pageable pageable) {
+        return slice(orderedIds, pageable, productRepository::findWithContentByProductIdIn, Product::getProductId);
+    }
+
+    /**
+     * Load a page of listing projections from the full ordered result
+     * @param orderedIds all matching product IDs in result order
+     * @param pageable pagination information
+     * @param loader loads the rows of the given IDs, in any order
+     * @param idOf product ID of a row
+     * @return Page<T> in the given order
+     */
+    public <T> Page<T> slice(List<Integer> orderedIds, Pageable pageable,
+                             Function<List<Integer>, List<T>> loader, Function<T, Integer> idOf) {
+        List<Integer> pageIds = orderedIds;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), orderedIds.size());
+            int to = Math.min(from + pageable.getPageSize(), orderedIds.size());
+            pageIds = orderedIds.subList(from, to);
+        }
+        return load(pageIds, pageable, orderedIds.size(), loader, idOf);
+    }
+
+    /**
+     * Load a page whose IDs have already been selected
+     * @param pageIds product IDs of this page, in result order
+     * @param pageable pagination information
+     * @param total total number of matches
+     * @return Page<Product> in the given order
+     */
+    public Page<Product> load(List<Integer> pageIds, Pageable pageable, long total) {
+        return load(pageIds, pageable, total, productRepository::findWithContentByProductIdIn, Product::getProductId);
+    }
+
+    private <T> Page<T> load(List<Integer> pageIds, Pageable pageable, long total,
+                             Function<List<Integer>, List<T>> loader, Function<T, Integer> idOf) {
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, total);
+        }
+        Map<Integer, T> loaded = loader.apply(pageIds).stream()
+            .collect(Collectors.toMap(idOf, Function.identity()));
+
+        List<T> content = new ArrayList<>(pageIds.size());
+        for (Integer id : pageIds) {
+            T row = loaded.get(id);
+            if (row != null) {
+                content.add(row);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+}
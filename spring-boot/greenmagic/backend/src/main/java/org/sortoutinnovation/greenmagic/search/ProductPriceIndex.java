@@ -0,0 +1,306 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.sortoutinnovation.greenmagic.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted index of active products by price
+ * Entries live in two parallel primitive arrays, prices in paise and product IDs, ordered by
+ * (price, productId); a price range is two binary searches and every page is a slice of the arrays
+ * A dense price-by-ID array lets writes that do not change the price or the active status (stock,
+ * content) return immediately; a real price change only shifts the entries it moves past
+ * Until build() is called only the price-by-ID array is maintained, so the initial load is one sort
+ * instead of a shifting insert per product
+ * Thread-safe: queries share a read lock, incremental updates take the write lock
+ */
+public class ProductPriceIndex {
+
+    /**
+     * Entries of one page, in index order, and the total number of entries in the queried range
+     */
+    public record Slice(int[] productIds, long[] prices, int total) {
+    }
+
+    private static final long ABSENT = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] productIds = new int[INITIAL_CAPACITY];
+    private int size;
+    private long[] priceById = newPriceById(INITIAL_CAPACITY);
+    private boolean built;
+
+    /**
+     * Add, move or remove a product according to its current price and status
+     */
+    public void index(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        int productId = product.getProductId();
+        long price = product.getStatus() == Product.ProductStatus.ACTIVE && product.getPrice() != null
+            ? toPaise(product.getPrice(), RoundingMode.HALF_UP) : ABSENT;
+
+        lock.writeLock().lock();
+        try {
+            long current = productId < priceById.length ? priceById[productId] : ABSENT;
+            if (current == price) {
+                return;
+            }
+            if (!built) {
+                setPriceById(productId, price);
+                return;
+            }
+            if (current != ABSENT && price != ABSENT) {
+                moveTo(search(current, productId), -search(price, productId) - 1, price);
+            } else if (current != ABSENT) {
+                removeAt(search(current, productId));
+            } else {
+                insertAt(-search(price, productId) - 1, price, productId);
+            }
+            setPriceById(productId, price);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product
+     */
+    public void remove(Integer productId) {
+        if (productId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (productId < priceById.length && priceById[productId] != ABSENT) {
+                if (built) {
+                    removeAt(search(priceById[productId], productId));
+                }
+                priceById[productId] = ABSENT;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sort the products loaded so far into the price order; later updates are applied in place
+     */
+    public void build() {
+        lock.writeLock().lock();
+        try {
+            int count = 0;
+            for (long price : priceById) {
+                if (price != ABSENT) {
+                    count++;
+                }
+            }
+            int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, count)) << 1);
+            prices = new long[capacity];
+            productIds = new int[capacity];
+            int next = 0;
+            for (long price : priceById) {
+                if (price != ABSENT) {
+                    prices[next++] = price;
+                }
+            }
+            Arrays.sort(prices, 0, count);
+
+            // Walking IDs in ascending order fills each run of equal prices in ID order
+            int[] filled = new int[count];
+            for (int id = 0; id < priceById.length; id++) {
+                if (priceById[id] != ABSENT) {
+                    int first = firstIndexOf(prices, count, priceById[id]);
+                    productIds[first + filled[first]++] = id;
+                }
+            }
+            size = count;
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Page through a price range by offset
+     * @param minPaise lowest price, inclusive
+     * @param maxPaise highest price, inclusive
+     * @param offset number of entries to skip
+     * @param limit maximum number of entries to return
+     * @return Slice ordered by price, then product ID
+     */
+    public Slice range(long minPaise, long maxPaise, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(minPaise, Integer.MIN_VALUE);
+            int to = upperBound(maxPaise, Integer.MAX_VALUE);
+            int total = Math.max(0, to - from);
+            // Compared before adding, so huge offsets cannot overflow
+            long skip = Math.max(0, offset);
+            int start = skip >= total ? Math.max(from, to) : from + (int) skip;
+            return slice(start, to, limit, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Page through a price range by keyset, starting after a given entry
+     * @param minPaise lowest price, inclusive
+     * @param maxPaise highest price, inclusive
+     * @param afterPaise price of the last entry already returned
+     * @param afterProductId product ID of the last entry already returned
+     * @param limit maximum number of entries to return
+     * @return Slice ordered by price, then product ID
+     */
+    public Slice rangeAfter(long minPaise, long maxPaise, long afterPaise, int afterProductId, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(minPaise, Integer.MIN_VALUE);
+            int to = upperBound(maxPaise, Integer.MAX_VALUE);
+            int start = Math.max(from, upperBound(afterPaise, afterProductId));
+            return slice(Math.min(start, Math.max(from, to)), to, limit, Math.max(0, to - from));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Convert a rupee amount to paise, clamped to the long range
+     */
+    public static long toPaise(BigDecimal amount, RoundingMode roundingMode) {
+        BigDecimal paise = amount.movePointRight(2).setScale(0, roundingMode);
+        if (paise.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (paise.compareTo(BigDecimal.valueOf(Long.MIN_VALUE + 1)) <= 0) {
+            return Long.MIN_VALUE + 1;
+        }
+        return paise.longValue();
+    }
+
+    private Slice slice(int start, int to, int limit, int total) {
+        int end = (int) Math.min(to, (long) start + Math.max(0, limit));
+        if (end <= start) {
+            return new Slice(new int[0], new long[0], total);
+        }
+        return new Slice(Arrays.copyOfRange(productIds, start, end), Arrays.copyOfRange(prices, start, end), total);
+    }
+
+    private static int firstIndexOf(long[] sorted, int length, long price) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Position of the entry, or -(insertion point) - 1 like Arrays.binarySearch
+    private int search(long price, int productId) {
+        int position = lowerBound(price, productId);
+        return position < size && prices[position] == price && productIds[position] == productId
+            ? position : -position - 1;
+    }
+
+    // First position whose key is >= (price, productId)
+    private int lowerBound(long price, int productId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < price || (prices[mid] == price && productIds[mid] < productId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position whose key is > (price, productId)
+    private int upperBound(long price, int productId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < price || (prices[mid] == price && productIds[mid] <= productId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void insertAt(int position, long price, int productId) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            productIds = Arrays.copyOf(productIds, size * 2);
+        }
+        System.arraycopy(prices, position, prices, position + 1, size - position);
+        System.arraycopy(productIds, position, productIds, position + 1, size - position);
+        prices[position] = price;
+        productIds[position] = productId;
+        size++;
+    }
+
+    // Only the entries between the old and the new position shift, so small repricings stay cheap
+    private void moveTo(int from, int insertionPoint, long price) {
+        int productId = productIds[from];
+        int to = insertionPoint > from ? insertionPoint - 1 : insertionPoint;
+        if (to > from) {
+            System.arraycopy(prices, from + 1, prices, from, to - from);
+            System.arraycopy(productIds, from + 1, productIds, from, to - from);
+        } else if (to < from) {
+            System.arraycopy(prices, to, prices, to + 1, from - to);
+            System.arraycopy(productIds, to, productIds, to + 1, from - to);
+        }
+        prices[to] = price;
+        productIds[to] = productId;
+    }
+
+    private void removeAt(int position) {
+        System.arraycopy(prices, position + 1, prices, position, size - position - 1);
+        System.arraycopy(productIds, position + 1, productIds, position, size - position - 1);
+        size--;
+    }
+
+    private void setPriceById(int productId, long price) {
+        if (productId >= priceById.length) {
+            if (price == ABSENT) {
+                return;
+            }
+            long[] grown = newPriceById(Math.max(productId + 1, priceById.length * 2));
+            System.arraycopy(priceById, 0, grown, 0, priceById.length);
+            priceById = grown;
+        }
+        priceById[productId] = price;
+    }
+
+    private static long[] newPriceById(int capacity) {
+        long[] array = new long[capacity];
+        Arrays.fill(array, ABSENT);
+        return array;
+    }
+}
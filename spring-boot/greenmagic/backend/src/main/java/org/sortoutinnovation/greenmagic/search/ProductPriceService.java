@@ -0,0 +1,141 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.CursorSliceDto;
+import org.sortoutinnovation.greenmagic.dto.PriceSeekCursor;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for browsing active products by price range
+ * Answers from a ProductPriceIndex, which CatalogIndexBootstrapper loads at startup and keeps in sync
+ * with product writes; only the requested page of products is loaded, by primary key
+ * Falls back to the BETWEEN queries in ProductRepository until the index has been built
+ */
+@Service
+public class ProductPriceService implements CatalogIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPriceService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductPageLoader productPageLoader;
+
+    private final ProductPriceIndex index = new ProductPriceIndex();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void upsert(Product product) {
+        index.index(product);
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        index.remove(productId);
+    }
+
+    @Override
+    public void onBootstrapComplete() {
+        index.build();
+        ready = true;
+        log.info("Product price index ready: {} active products", index.size());
+    }
+
+    /**
+     * Get active products in a price range, cheapest first
+     * @param minPrice minimum price, inclusive
+     * @param maxPrice maximum price, inclusive
+     * @param pageable pagination information
+     * @return Page<Product> ordered by price, then product ID
+     */
+    public Page<Product> findActiveByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        if (!ready) {
+            return productRepository.findByPriceRange(minPrice, maxPrice, pageable);
+        }
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        ProductPriceIndex.Slice slice = index.range(lowerPaise(minPrice), upperPaise(maxPrice), offset, limit);
+        return productPageLoader.load(idsOf(slice), pageable, slice.total());
+    }
+
+    /**
+     * Get active products in a price range with cursor pagination, cheapest first
+     * @param minPrice minimum price, inclusive
+     * @param maxPrice maximum price, inclusive
+     * @param cursor nextCursor of the previous slice, or null for the first slice
+     * @param size slice size
+     * @return CursorSliceDto<Product> ordered by price, then product ID
+     * @throws RuntimeException if the cursor is malformed
+     */
+    public CursorSliceDto<Product> findActiveByPriceRangeSlice(BigDecimal minPrice, BigDecimal maxPrice,
+                                                               String cursor, int size) {
+        PriceSeekCursor after = PriceSeekCursor.decode(cursor);
+        if (!ready) {
+            Pageable limit = PageRequest.of(0, size + 1);
+            List<Product> rows = after == null
+                ? productRepository.findByPriceRangeSeekFirst(minPrice, maxPrice, limit)
+                : productRepository.findByPriceRangeSeekAfter(minPrice, maxPrice,
+                    BigDecimal.valueOf(after.getPricePaise(), 2), after.getId(), limit);
+            boolean hasNext = rows.size() > size;
+            List<Product> content = hasNext ? rows.subList(0, size) : rows;
+            String nextCursor = hasNext && !content.isEmpty()
+                ? cursorOf(content.get(content.size() - 1)).encode()
+                : null;
+            return new CursorSliceDto<>(content, content.size(), hasNext, nextCursor);
+        }
+        long min = lowerPaise(minPrice);
+        long max = upperPaise(maxPrice);
+        // One entry of look-ahead tells whether a next slice exists
+        ProductPriceIndex.Slice slice = after == null
+            ? index.range(min, max, 0, size + 1)
+            : index.rangeAfter(min, max, after.getPricePaise(), after.getId(), size + 1);
+
+        boolean hasNext = slice.productIds().length > size;
+        int count = Math.min(slice.productIds().length, size);
+        List<Integer> pageIds = idsOf(slice).subList(0, count);
+        List<Product> content = productPageLoader.load(pageIds, PageRequest.of(0, Math.max(size, 1)), count).getContent();
+        String nextCursor = hasNext && count > 0
+            ? new PriceSeekCursor(slice.prices()[count - 1], slice.productIds()[count - 1]).encode()
+            : null;
+        return new CursorSliceDto<>(content, content.size(), hasNext, nextCursor);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private static PriceSeekCursor cursorOf(Product product) {
+        return new PriceSeekCursor(ProductPriceIndex.toPaise(product.getPrice(), RoundingMode.HALF_UP), product.getProductId());
+    }
+
+    private static List<Integer> idsOf(ProductPriceIndex.Slice slice) {
+        List<Integer> ids = new ArrayList<>(slice.productIds().length);
+        for (int id : slice.productIds()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // A bound between two paise values only admits prices on its inner side, as BETWEEN would
+    private static long lowerPaise(BigDecimal minPrice) {
+        return ProductPriceIndex.toPaise(minPrice, RoundingMode.CEILING);
+    }
+
+    private static long upperPaise(BigDecimal maxPrice) {
+        return ProductPriceIndex.toPaise(maxPrice, RoundingMode.FLOOR);
+    }
+}
@@ -0,0 +1,317 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.sortoutinnovation.greenmagic.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the product catalog with BM25 ranking
+ * Indexed fields: name, brand, sku, searchKeywords and description; each field carries a boost
+ * that is folded into the term frequency (BM25F-style) so a hit in the name outranks a hit in the description
+ * All query terms must match; the last term is also matched as a prefix to support partial input
+ * A prefix expands to at most 64 indexed terms: the term itself if indexed, then the terms found in
+ * the most products, so a short prefix keeps its most common completions instead of the first ones
+ * in dictionary order
+ * Thread-safe: searches share a read lock, incremental updates take the write lock
+ */
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float BRAND_BOOST = 2.0f;
+    private static final float SKU_BOOST = 2.0f;
+    private static final float KEYWORD_BOOST = 2.0f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    /**
+     * Per-product entry: the data needed for filtering and for removing the product's postings
+     */
+    public static final class IndexedDocument {
+        private final int productId;
+        private final Integer vendorId;
+        private final Product.ProductStatus status;
+        private final int fieldsHash;
+        private final float length;
+        private final Map<String, Float> termWeights;
+
+        private IndexedDocument(int productId, Integer vendorId, Product.ProductStatus status,
+                                int fieldsHash, float length, Map<String, Float> termWeights) {
+            this.productId = productId;
+            this.vendorId = vendorId;
+            this.status = status;
+            this.fieldsHash = fieldsHash;
+            this.length = length;
+            this.termWeights = termWeights;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public Integer getVendorId() {
+            return vendorId;
+        }
+
+        public Product.ProductStatus getStatus() {
+            return status;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    private final Map<Integer, IndexedDocument> documents = new HashMap<>();
+    private double totalLength;
+
+    /**
+     * Add or replace a product in the index
+     */
+    public void index(Product product, Integer vendorId) {
+        index(product, vendorId, product != null ? product.getDescription() : null);
+    }
+
+    /**
+     * Add or replace a product in the index, with its description supplied separately
+     * (the description is lazily loaded and may have been read on its own)
+     */
+    public void index(Product product, Integer vendorId, String description) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, SearchTokenizer.tokenize(product.getName()), NAME_BOOST);
+        addField(weights, SearchTokenizer.tokenize(product.getBrand()), BRAND_BOOST);
+        addField(weights, SearchTokenizer.tokenize(product.getSku()), SKU_BOOST);
+        addField(weights, SearchTokenizer.tokenize(product.getSearchKeywords()), KEYWORD_BOOST);
+        addField(weights, SearchTokenizer.tokenize(description), DESCRIPTION_BOOST);
+
+        float length = 0f;
+        for (float weight : weights.values()) {
+            length += weight;
+        }
+
+        IndexedDocument document = new IndexedDocument(
+            product.getProductId(), vendorId, product.getStatus(), fieldsHash(product), length, weights);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getProductId());
+            documents.put(document.productId, document);
+            totalLength += document.length;
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                    .put(document.productId, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the indexed entry of a product already matches its status, vendor and all indexed
+     * fields except the description
+     * Lets a caller skip reindexing writes that did not touch the description (stock, price)
+     */
+    public boolean isCurrent(Product product, Integer vendorId) {
+        lock.readLock().lock();
+        try {
+            IndexedDocument document = documents.get(product.getProductId());
+            return document != null
+                && document.status == product.getStatus()
+                && Objects.equals(document.vendorId, vendorId)
+                && document.fieldsHash == fieldsHash(product);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product from the index
+     */
+    public void remove(Integer productId) {
+        if (productId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search the index
+     * @param query free-text query
+     * @param vendorId restrict to one vendor's products, or null for all vendors
+     * @param activeOnly restrict to ACTIVE products
+     * @return matching product IDs ordered by descending relevance
+     */
+    public List<Integer> search(String query, Integer vendorId, boolean activeOnly) {
+        List<String> terms = SearchTokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double avgLength = totalLength / documents.size();
+
+            // Score each query term separately, then intersect starting with the rarest term
+            List<Map<Integer, Double>> termScores = new ArrayList<>(terms.size());
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<Integer, Double> scores = scoreTerm(terms.get(i), prefix, avgLength);
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                termScores.add(scores);
+            }
+            termScores.sort(Comparator.comparingInt(Map::size));
+
+            Map<Integer, Double> result = new HashMap<>();
+            for (Map.Entry<Integer, Double> candidate : termScores.get(0).entrySet()) {
+                IndexedDocument document = documents.get(candidate.getKey());
+                if (!matchesFilter(document, vendorId, activeOnly)) {
+                    continue;
+                }
+                double total = candidate.getValue();
+                boolean matchesAll = true;
+                for (int i = 1; i < termScores.size(); i++) {
+                    Double score = termScores.get(i).get(candidate.getKey());
+                    if (score == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    total += score;
+                }
+                if (matchesAll) {
+                    result.put(candidate.getKey(), total);
+                }
+            }
+
+            List<Integer> ranked = new ArrayList<>(result.keySet());
+            ranked.sort((a, b) -> {
+                int byScore = Double.compare(result.get(b), result.get(a));
+                return byScore != 0 ? byScore : Integer.compare(b, a);
+            });
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Double> scoreTerm(String term, boolean prefix, double avgLength) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map<Integer, Float> posting : expand(term, prefix)) {
+            double idf = Math.log(1.0 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+            for (Map.Entry<Integer, Float> entry : posting.entrySet()) {
+                IndexedDocument document = documents.get(entry.getKey());
+                double tf = entry.getValue();
+                double norm = K1 * (1 - B + B * document.length / avgLength);
+                double score = idf * (tf * (K1 + 1)) / (tf + norm);
+                // A prefix can expand to several terms in one product; count the best one only
+                scores.merge(entry.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    // Postings of the term, or for a prefix of up to MAX_PREFIX_EXPANSIONS of its completions
+    private List<Map<Integer, Float>> expand(String term, boolean prefix) {
+        if (!prefix) {
+            Map<Integer, Float> posting = postings.get(term);
+            return posting != null ? List.of(posting) : List.of();
+        }
+        SortedMap<String, Map<Integer, Float>> candidates = postings.subMap(term, term + Character.MAX_VALUE);
+        Map<Integer, Float> exact = postings.get(term);
+        int limit = exact != null ? MAX_PREFIX_EXPANSIONS - 1 : MAX_PREFIX_EXPANSIONS;
+
+        // Keep the completions with the largest postings; the heap's head is the smallest kept
+        PriorityQueue<Map.Entry<String, Map<Integer, Float>>> kept = new PriorityQueue<>(
+            Comparator.<Map.Entry<String, Map<Integer, Float>>>comparingInt(e -> e.getValue().size())
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()));
+        for (Map.Entry<String, Map<Integer, Float>> candidate : candidates.entrySet()) {
+            if (candidate.getKey().equals(term)) {
+                continue;
+            }
+            if (kept.size() < limit) {
+                kept.add(candidate);
+            } else if (kept.comparator().compare(candidate, kept.peek()) > 0) {
+                kept.poll();
+                kept.add(candidate);
+            }
+        }
+
+        List<Map<Integer, Float>> expanded = new ArrayList<>(kept.size() + 1);
+        if (exact != null) {
+            expanded.add(exact);
+        }
+        for (Map.Entry<String, Map<Integer, Float>> entry : kept) {
+            expanded.add(entry.getValue());
+        }
+        return expanded;
+    }
+
+    private boolean matchesFilter(IndexedDocument document, Integer vendorId, boolean activeOnly) {
+        if (document == null) {
+            return false;
+        }
+        if (activeOnly && document.status != Product.ProductStatus.ACTIVE) {
+            return false;
+        }
+        return vendorId == null || vendorId.equals(document.vendorId);
+    }
+
+    private void removeInternal(Integer productId) {
+        IndexedDocument existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length;
+        for (String term : existing.termWeights.keySet()) {
+            Map<Integer, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, List<String> tokens, float boost) {
+        for (String token : tokens) {
+            weights.merge(token, boost, Float::sum);
+        }
+    }
+
+    private static int fieldsHash(Product product) {
+        return Objects.hash(product.getName(), product.getBrand(), product.getSku(), product.getSearchKeywords());
+    }
+}
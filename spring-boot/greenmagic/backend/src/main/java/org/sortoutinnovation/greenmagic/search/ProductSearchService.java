@@ -0,0 +1,99 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.ProductCardDto;
+import org.sortoutinnovation.greenmagic.dto.VendorProductRowDto;
+import org.sortoutinnovation.greenmagic.event.ProductChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for full-text product search
+ * Keeps a ProductSearchIndex (loaded and kept in sync by CatalogIndexBootstrapper) and answers
+ * storefront and vendor searches from memory; only the requested page of products is loaded, by primary key
+ * Falls back to the LIKE queries in ProductRepository until the index has been built
+ */
+@Service
+public class ProductSearchService implements CatalogIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductPageLoader productPageLoader;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void upsert(Product product) {
+        Integer vendorId = ProductChangedEvent.userIdOf(product.getCreatedBy());
+        if (Hibernate.isPropertyInitialized(product, "description")) {
+            index.index(product, vendorId);
+            return;
+        }
+        // The content group was never loaded, so the description did not change: stock and price
+        // writes need no reindexing, other changes read the description on its own
+        if (index.isCurrent(product, vendorId)) {
+            return;
+        }
+        index.index(product, vendorId, productRepository.findDescriptionById(product.getProductId()).orElse(null));
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        index.remove(productId);
+    }
+
+    @Override
+    public void onBootstrapComplete() {
+        ready = true;
+        log.info("Product search index ready: {} products", index.size());
+    }
+
+    /**
+     * Search active products for the storefront, returning product cards only
+     * @param query search term
+     * @param pageable pagination information
+     * @return Page<ProductCardDto> ordered by relevance
+     */
+    public Page<ProductCardDto> searchActiveProductCards(String query, Pageable pageable) {
+        if (!isSearchable(query)) {
+            return productRepository.findProductCardsByNameContaining(query, pageable);
+        }
+        return productPageLoader.slice(index.search(query, null, true), pageable,
+            productRepository::findProductCardsByIds, ProductCardDto::getProductId);
+    }
+
+    /**
+     * Search all products of a vendor, regardless of status, returning list rows only
+     * @param vendorId vendor ID
+     * @param query search term
+     * @param pageable pagination information
+     * @return Page<VendorProductRowDto> ordered by relevance
+     */
+    public Page<VendorProductRowDto> searchVendorProductRows(Integer vendorId, String query, Pageable pageable) {
+        if (!isSearchable(query)) {
+            return productRepository.findVendorProductRowsWithSearch(vendorId, query, pageable);
+        }
+        return productPageLoader.slice(index.search(query, vendorId, false), pageable,
+            productRepository::findVendorProductRowsByIds, VendorProductRowDto::getProductId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private boolean isSearchable(String query) {
+        return ready && !SearchTokenizer.tokenize(query).isEmpty();
+    }
+}
@@ -0,0 +1,48 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tokenizer shared by the search index and query parsing
+ * Lowercases and splits on anything that is not a letter or digit, so "Organic Basmati-Rice"
+ * becomes [organic, basmati, rice] and SKUs such as "GMFR0010001" stay a single token
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                tokens.add(current.toString().toLowerCase(Locale.ROOT));
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    public static List<String> tokenize(List<String> values) {
+        List<String> tokens = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                tokens.addAll(tokenize(value));
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,5 +1,8 @@
 package org.sortoutinnovation.greenmagic.service;
 
+import org.sortoutinnovation.greenmagic.analytics.ProductEngagementTracker;
+import org.sortoutinnovation.greenmagic.dto.InventoryHoldDto;
+import org.sortoutinnovation.greenmagic.inventory.ReservationLedger;
 import org.sortoutinnovation.greenmagic.model.Cart;
 import org.sortoutinnovation.greenmagic.model.CartItem;
 import org.sortoutinnovation.greenmagic.model.Product;
@@ -12,7 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -35,6 +40,12 @@ public class CartService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProductEngagementTracker productEngagementTracker;
+
+    @Autowired
+    private ReservationLedger reservationLedger;
+
     /**
      * Get user's cart
      * @param userId user ID
@@ -89,6 +100,13 @@ public class CartService {
      * @throws RuntimeException if cart/product not found or insufficient stock
      */
     public CartItem addItemToCart(Integer cartId, Integer productId, Integer quantity) {
+        CartItem item = putItem(cartId, productId, quantity);
+        productEngagementTracker.recordCartAddition(productId);
+        return item;
+    }
+
+    // Adds to the cart without counting a cart addition, so merging a guest cart is not counted twice
+    private CartItem putItem(Integer cartId, Integer productId, Integer quantity) {
         // Validate cart exists
         Cart cart = cartRepository.findById(cartId)
             .orElseThrow(() -> new RuntimeException("Cart not found with id: " + cartId));
@@ -132,7 +150,7 @@ public class CartService {
      * @return CartItem
      * @throws RuntimeException if item not found or insufficient stock
      */
-    public CartItem updateCartItemQuantity(Integer itemId, Integer quantity) {
+    public CartItem updateCartItemQuantity(Long itemId, Integer quantity) {
         CartItem item = cartItemRepository.findById(itemId)
             .orElseThrow(() -> new RuntimeException("Cart item not found with id: " + itemId));
 
@@ -150,7 +168,7 @@ public class CartService {
      * @param itemId cart item ID
      * @throws RuntimeException if item not found
      */
-    public void removeItemFromCart(Integer itemId) {
+    public void removeItemFromCart(Long itemId) {
         if (!cartItemRepository.existsById(itemId)) {
             throw new RuntimeException("Cart item not found with id: " + itemId);
         }
@@ -254,7 +272,7 @@ public class CartService {
         // Merge items
         for (CartItem guestItem : guestItems) {
             try {
-                addItemToCart(userCart.getCartId(), 
+                putItem(userCart.getCartId(), 
                     guestItem.getProduct().getProductId(), 
                     guestItem.getQuantity());
             } catch (RuntimeException e) {
@@ -293,4 +311,36 @@ public class CartService {
 
         return true;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Reserve the stock of every cart item for checkout
+     * The hold expires unless the order is placed with its hold ID in time
+     * @param cartId cart ID
+     * @return InventoryHoldDto
+     * @throws RuntimeException if the cart is not found or empty, or an item has too little unreserved stock
+     */
+    public InventoryHoldDto holdCartForCheckout(Integer cartId) {
+        Cart cart = cartRepository.findById(cartId)
+            .orElseThrow(() -> new RuntimeException("Cart not found with id: " + cartId));
+        List<CartItem> items = getCartItems(cartId);
+        if (items.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (CartItem item : items) {
+            quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Integer userId = cart.getUser() != null ? cart.getUser().getUserId() : null;
+        return reservationLedger.reserve(userId, quantities);
+    }
+
+    /**
+     * Give up a checkout hold
+     * @param holdId hold ID
+     * @throws RuntimeException if the hold does not exist or has expired
+     */
+    public void releaseCheckoutHold(String holdId) {
+        reservationLedger.release(holdId);
+    }
+}
@@ -1,11 +1,16 @@
 package org.sortoutinnovation.greenmagic.service;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.sortoutinnovation.greenmagic.cache.CategorySnapshotCache;
 import org.sortoutinnovation.greenmagic.dto.CategoryResponseDto;
+import org.sortoutinnovation.greenmagic.event.CategoryChangedEvent;
 import org.sortoutinnovation.greenmagic.mapper.CategoryMapper;
 import org.sortoutinnovation.greenmagic.model.Category;
 import org.sortoutinnovation.greenmagic.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -21,27 +26,45 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategorySnapshotCache categorySnapshotCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all categories
+     * Served from the category snapshot; the returned list and DTOs are shared and must not be modified
      * @return List<CategoryResponseDto>
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<CategoryResponseDto> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return CategoryMapper.toResponseDtoList(categories);
+        return categorySnapshotCache.get().getCategories();
+    }
+
+    /**
+     * Get all categories as pre-serialized JSON, for embedding in API responses
+     * @return RawValue JSON array of CategoryResponseDto
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RawValue getAllCategoriesJson() {
+        return categorySnapshotCache.get().getCategoriesJson();
     }
 
     /**
      * Get category by ID
+     * Served from the category snapshot
      * @param id category ID
      * @return CategoryResponseDto
      * @throws RuntimeException if category not found
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CategoryResponseDto getCategoryById(Integer id) {
-        Category category = categoryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
-        return CategoryMapper.toResponseDto(category);
+        CategoryResponseDto category = categorySnapshotCache.get().get(id);
+        if (category == null) {
+            throw new RuntimeException("Category not found with id: " + id);
+        }
+        return category;
     }
 
     /**
@@ -82,6 +105,7 @@ public class CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId()));
         return CategoryMapper.toResponseDto(savedCategory);
     }
 
@@ -109,6 +133,7 @@ public class CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(existingCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId()));
         return CategoryMapper.toResponseDto(savedCategory);
     }
 
@@ -122,6 +147,7 @@ public class CategoryService {
             throw new RuntimeException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     /**
@@ -0,0 +1,341 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.analytics.SalesRollupRecorder;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedIdAllocator;
+import org.sortoutinnovation.greenmagic.inventory.ReservationLedger;
+import org.sortoutinnovation.greenmagic.inventory.StockUpdater;
+import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.model.OrderItem;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit order ingestion for sale traffic
+ * Orders are validated, priced and their stock reserved on the request thread, then queued; a single
+ * writer thread drains the queue in groups and writes each group in one transaction: one batched stock
+ * update for all of its products, then the orders, their items and their first status rows as batched inserts,
+ * and one batched upsert of the sales rollups
+ * The rows are written with JDBC, with IDs from the TimeOrderedIdAllocator the entities use, so no
+ * generated keys have to be read back
+ * A group that fails is written again one order per transaction, so a bad order only fails itself
+ * Each caller's future completes once its order is committed
+ */
+@Service
+public class OrderIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionService.class);
+
+    private static final String INSERT_ORDER =
+        "INSERT INTO orders (order_id, user_id, address_id, total_price, status, payment_method, order_date, subtotal, "
+            + "total_tax, payment_id, payment_status, payment_gateway, payment_transaction_id, payment_amount, "
+            + "payment_currency, payment_details, razorpay_order_id, razorpay_payment_id, razorpay_signature) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_ITEM =
+        "INSERT INTO order_items (order_item_id, order_id, product_id, quantity, price, tax_rate, tax_amount, hsn_code) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final class PendingOrder {
+        private final Order order;
+        private final Map<Integer, Integer> quantities;
+        private final String holdId;
+        private final boolean ownHold;
+        private final CompletableFuture<Order> result = new CompletableFuture<>();
+
+        private PendingOrder(Order order, Map<Integer, Integer> quantities, String holdId, boolean ownHold) {
+            this.order = order;
+            this.quantities = quantities;
+            this.holdId = holdId;
+            this.ownHold = ownHold;
+        }
+    }
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ReservationLedger reservationLedger;
+
+    @Autowired
+    private StockUpdater stockUpdater;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TimeOrderedIdAllocator idAllocator;
+
+    @Autowired
+    private OrderStatusLog orderStatusLog;
+
+    @Autowired
+    private SalesRollupRecorder salesRollupRecorder;
+
+    private final boolean enabled;
+    private final int maxGroupSize;
+    private final BlockingQueue<PendingOrder> queue;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    public OrderIngestionService(PlatformTransactionManager transactionManager,
+                                 @Value("${orders.ingest.enabled:false}") boolean enabled,
+                                 @Value("${orders.ingest.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${orders.ingest.max-group-size:200}") int maxGroupSize) {
+        this.enabled = enabled;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "order-ingest-writer");
+        writer.start();
+        log.info("Order ingestion started: groups of up to {} orders", maxGroupSize);
+    }
+
+    /**
+     * Stop taking orders and write the ones already queued
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join();
+        }
+        // Orders queued while the writer was exiting
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            fail(pending, new RejectedExecutionException("Order ingestion has stopped"));
+        }
+    }
+
+    /**
+     * Whether orders are taken through the group-commit queue
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validate an order, reserve its stock and queue it for the next group commit
+     * Without a hold the items are reserved on the spot, as in OrderService.createOrder
+     * @param order order data
+     * @param holdId checkout hold ID, or null
+     * @return CompletableFuture<Order> completed with the saved order once its group has committed, or
+     *         failed with RejectedExecutionException when the queue is full
+     * @throws RuntimeException if validation fails, or the stock cannot be reserved
+     */
+    public CompletableFuture<Order> submit(Order order, String holdId) {
+        if (!running) {
+            throw new RuntimeException("Order ingestion is not running");
+        }
+        Map<Integer, Integer> quantities = OrderService.collectQuantities(order);
+        Map<Integer, Product> products = new HashMap<>();
+        for (Integer productId : quantities.keySet()) {
+            products.put(productId, productCache.getById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId)));
+        }
+        OrderService.prepareOrder(order, products);
+
+        boolean ownHold = holdId == null;
+        if (ownHold) {
+            Integer userId = order.getUser() != null ? order.getUser().getUserId() : null;
+            holdId = reservationLedger.reserve(userId, quantities, products).getHoldId();
+        }
+        PendingOrder pending = new PendingOrder(order, quantities, holdId, ownHold);
+        if (!queue.offer(pending)) {
+            fail(pending, new RejectedExecutionException("Order queue is full, please retry"));
+        }
+        return pending.result;
+    }
+
+    private void drain() {
+        List<PendingOrder> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                write(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order ingestion failed for a group of {} orders", group.size(), e);
+                group.forEach(pending -> fail(pending, e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingOrder> group) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertGroup(group));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                fail(group.get(0), e);
+                return;
+            }
+            log.warn("Group of {} orders failed, writing them one by one: {}", group.size(), e.getMessage());
+            for (PendingOrder pending : group) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertGroup(List.of(pending)));
+                    pending.result.complete(pending.order);
+                } catch (RuntimeException single) {
+                    fail(pending, single);
+                }
+            }
+            return;
+        }
+        group.forEach(pending -> pending.result.complete(pending.order));
+    }
+
+    private void insertGroup(List<PendingOrder> group) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (PendingOrder pending : group) {
+            // Reopened on rollback even when reserved in submit, so the one-by-one retry can confirm
+            // it again; fail() releases it if the order is given up
+            Order order = pending.order;
+            reservationLedger.confirm(pending.holdId, order.getUser() != null ? order.getUser().getUserId() : null,
+                pending.quantities);
+            pending.quantities.forEach((productId, quantity) -> quantities.merge(productId, quantity, Integer::sum));
+        }
+        // Stock for the whole group in one batch; a short product rolls the group back
+        stockUpdater.decrement(quantities);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            insertOrders(connection, group);
+            insertOrderItems(connection, group);
+            return null;
+        });
+        for (PendingOrder pending : group) {
+            Order order = pending.order;
+            orderStatusLog.append(order.getOrderId(), order.getStatus(), null,
+                order.getUser() != null ? order.getUser().getUserId() : null, null);
+            salesRollupRecorder.recordOrderPlaced(order);
+        }
+    }
+
+    private void insertOrders(Connection connection, List<PendingOrder> group) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ORDER)) {
+            for (PendingOrder pending : group) {
+                Order order = pending.order;
+                order.setOrderId(idAllocator.next());
+                order.setOrderDate(now);
+                ps.setLong(1, order.getOrderId());
+                setNullable(ps, 2, order.getUser() != null ? order.getUser().getUserId() : null, Types.INTEGER);
+                setNullable(ps, 3, order.getAddress() != null ? order.getAddress().getAddressId() : null, Types.INTEGER);
+                setNullable(ps, 4, order.getTotalPrice(), Types.DECIMAL);
+                setNullable(ps, 5, order.getStatus(), Types.VARCHAR);
+                setNullable(ps, 6, order.getPaymentMethod(), Types.VARCHAR);
+                setNullable(ps, 7, order.getOrderDate(), Types.TIMESTAMP);
+                setNullable(ps, 8, order.getSubtotal(), Types.DECIMAL);
+                setNullable(ps, 9, order.getTotalTax(), Types.DECIMAL);
+                setNullable(ps, 10, order.getPaymentId(), Types.VARCHAR);
+                setNullable(ps, 11, order.getPaymentStatus() != null ? order.getPaymentStatus().name() : null, Types.VARCHAR);
+                setNullable(ps, 12, order.getPaymentGateway(), Types.VARCHAR);
+                setNullable(ps, 13, order.getPaymentTransactionId(), Types.VARCHAR);
+                setNullable(ps, 14, order.getPaymentAmount(), Types.DECIMAL);
+                setNullable(ps, 15, order.getPaymentCurrency(), Types.VARCHAR);
+                setNullable(ps, 16, toJson(order.getPaymentDetails()), Types.VARCHAR);
+                setNullable(ps, 17, order.getRazorpayOrderId(), Types.VARCHAR);
+                setNullable(ps, 18, order.getRazorpayPaymentId(), Types.VARCHAR);
+                setNullable(ps, 19, order.getRazorpaySignature(), Types.VARCHAR);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertOrderItems(Connection connection, List<PendingOrder> group) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ORDER_ITEM)) {
+            for (PendingOrder pending : group) {
+                for (OrderItem item : pending.order.getOrderItems()) {
+                    item.setOrderItemId(idAllocator.next());
+                    ps.setLong(1, item.getOrderItemId());
+                    ps.setLong(2, pending.order.getOrderId());
+                    ps.setInt(3, item.getProduct().getProductId());
+                    ps.setInt(4, item.getQuantity());
+                    setNullable(ps, 5, item.getPrice(), Types.DECIMAL);
+                    setNullable(ps, 6, item.getTaxRate(), Types.DECIMAL);
+                    setNullable(ps, 7, item.getTaxAmount(), Types.DECIMAL);
+                    setNullable(ps, 8, item.getHsnCode(), Types.VARCHAR);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void fail(PendingOrder pending, Throwable cause) {
+        if (pending.ownHold) {
+            try {
+                reservationLedger.release(pending.holdId);
+            } catch (RuntimeException e) {
+                // Already expired
+            }
+        }
+        pending.result.completeExceptionally(cause);
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid payment details: " + e.getOriginalMessage());
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+}
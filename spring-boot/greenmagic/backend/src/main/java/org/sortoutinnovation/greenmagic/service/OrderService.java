@@ -1,20 +1,34 @@
 package org.sortoutinnovation.greenmagic.service;
 
+import org.sortoutinnovation.greenmagic.analytics.SalesRollupRecorder;
+import org.sortoutinnovation.greenmagic.dto.CursorSliceDto;
+import org.sortoutinnovation.greenmagic.dto.OrderResponseDto;
+import org.sortoutinnovation.greenmagic.dto.SalesTotalsDto;
+import org.sortoutinnovation.greenmagic.dto.SeekCursor;
+import org.sortoutinnovation.greenmagic.inventory.ReservationLedger;
+import org.sortoutinnovation.greenmagic.inventory.StockUpdater;
 import org.sortoutinnovation.greenmagic.model.Order;
 import org.sortoutinnovation.greenmagic.model.OrderItem;
 import org.sortoutinnovation.greenmagic.model.Product;
 import org.sortoutinnovation.greenmagic.repository.OrderRepository;
 import org.sortoutinnovation.greenmagic.repository.OrderItemRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.sortoutinnovation.greenmagic.repository.SalesRollupRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service class for Order business logic
@@ -33,6 +47,24 @@ public class OrderService {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockUpdater stockUpdater;
+
+    @Autowired
+    private ReservationLedger reservationLedger;
+
+    @Autowired
+    private OrderStatusLog orderStatusLog;
+
+    @Autowired
+    private SalesRollupRecorder salesRollupRecorder;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
     /**
      * Get all orders with pagination
      * @param pageable pagination information
@@ -66,6 +98,25 @@ public class OrderService {
         return orderRepository.findByUserId(userId, pageable);
     }
 
+    /**
+     * Get orders by user with keyset pagination, newest first
+     * Seeks past the cursor instead of using OFFSET and skips the COUNT query
+     * @param userId user ID
+     * @param cursor continuation token from the previous slice, or null for the first slice
+     * @param size slice size
+     * @return CursorSliceDto<Order>
+     * @throws RuntimeException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceDto<Order> getOrdersByUserSlice(Long userId, String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows = after == null
+            ? orderRepository.findByUserIdSeekFirst(userId, limit)
+            : orderRepository.findByUserIdSeekAfter(userId, after.getTimestamp(), after.getId(), limit);
+        return CursorSliceDto.fromLookAhead(rows, size, o -> new SeekCursor(o.getOrderDate(), o.getOrderId()));
+    }
+
     /**
      * Get orders by status
      * @param status order status
@@ -107,19 +158,83 @@ public class OrderService {
      * @throws RuntimeException if validation fails
      */
     public Order createOrder(Order order) {
-        // Validate order items and check stock
+        return createOrder(order, null);
+    }
+
+    /**
+     * Create a new order, taking the stock reserved by a checkout hold
+     * Without a hold the items are reserved on the spot, so stock held by other checkouts is never taken
+     * @param order order data
+     * @param holdId checkout hold ID, or null
+     * @return Order
+     * @throws RuntimeException if validation fails, or the hold has expired, belongs to another user or does not cover the items
+     */
+    public Order createOrder(Order order, String holdId) {
+        Map<Integer, Integer> quantities = collectQuantities(order);
+
+        // Load every product of the order in one query
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(quantities.keySet())) {
+            products.put(product.getProductId(), product);
+        }
+        prepareOrder(order, products);
+
+        // Confirm the reservation; it is dropped on commit. On rollback the checkout's hold is reopened
+        // for a retry, and a hold reserved here is released, as nobody else knows its ID
+        Integer userId = order.getUser() != null ? order.getUser().getUserId() : null;
+        boolean ownHold = holdId == null;
+        if (ownHold) {
+            holdId = reservationLedger.reserve(userId, quantities, products).getHoldId();
+        }
+        reservationLedger.confirm(holdId, userId, quantities, ownHold);
+
+        // Take stock for all items in one batch; a short item rolls the whole order back
+        stockUpdater.decrement(quantities, products.values());
+
+        // Flushed so the insert fills in orderDate, which the sales rollups are bucketed by
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        orderStatusLog.append(savedOrder.getOrderId(), savedOrder.getStatus(), null,
+            savedOrder.getUser() != null ? savedOrder.getUser().getUserId() : null, null);
+        salesRollupRecorder.recordOrderPlaced(savedOrder);
+        return savedOrder;
+    }
+
+    /**
+     * Validate the order items and collect the quantity to take per product
+     * @throws RuntimeException if the order has no items, or an item has no product or a non-positive quantity
+     */
+    static Map<Integer, Integer> collectQuantities(Order order) {
+        // Validate order items
         if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
             throw new RuntimeException("Order must have at least one item");
         }
 
-        // Calculate total and validate stock
+        // Collect the quantity to take per product
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProduct() == null || item.getProduct().getProductId() == null) {
+                throw new RuntimeException("Order item must reference a product");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Quantity must be positive for product: " + item.getProduct().getProductId());
+            }
+            quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Link the items to their products, calculate the total and fill in the default statuses
+     * @param products the order's products by ID
+     * @throws RuntimeException if a product is not found
+     */
+    static void prepareOrder(Order order, Map<Integer, Product> products) {
+        // Calculate total
         BigDecimal calculatedTotal = BigDecimal.ZERO;
         for (OrderItem item : order.getOrderItems()) {
-            Product product = productService.getProductById(item.getProduct().getProductId());
-            
-            // Check stock availability
-            if (!productService.isInStock(product.getProductId(), item.getQuantity())) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            Product product = products.get(item.getProduct().getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + item.getProduct().getProductId());
             }
 
             // Calculate item total
@@ -143,20 +258,12 @@ public class OrderService {
         if (order.getPaymentStatus() == null) {
             order.setPaymentStatus(Order.PaymentStatus.PENDING);
         }
-
-        // Save order
-        Order savedOrder = orderRepository.save(order);
-
-        // Reduce stock for each item
-        for (OrderItem item : savedOrder.getOrderItems()) {
-            productService.reduceStock(item.getProduct().getProductId(), item.getQuantity());
-        }
-
-        return savedOrder;
     }
 
     /**
      * Update order status
+     * The transition is appended to the order's status history; moving into or out of CANCELLED updates
+     * the sales rollups
      * @param id order ID
      * @param status new status
      * @return Order
@@ -166,12 +273,19 @@ public class OrderService {
         Order order = orderRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         
+        String previousStatus = order.getStatus();
         order.setStatus(status);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        if (!status.equals(previousStatus)) {
+            orderStatusLog.append(id, status, previousStatus, null, null);
+            salesRollupRecorder.recordStatusChange(savedOrder, previousStatus);
+        }
+        return savedOrder;
     }
 
     /**
      * Update payment status
+     * Moving into or out of COMPLETED updates the sales rollups
      * @param id order ID
      * @param paymentStatus new payment status
      * @return Order
@@ -181,12 +295,16 @@ public class OrderService {
         Order order = orderRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         
+        Order.PaymentStatus previousStatus = order.getPaymentStatus();
         order.setPaymentStatus(paymentStatus);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        salesRollupRecorder.recordPaymentStatusChange(savedOrder, previousStatus);
+        return savedOrder;
     }
 
     /**
      * Cancel order
+     * The order is subtracted from the sales rollups of the period it was placed in
      * @param id order ID
      * @return Order
      * @throws RuntimeException if order not found or cannot be cancelled
@@ -200,53 +318,80 @@ public class OrderService {
             throw new RuntimeException("Order cannot be cancelled in current status: " + order.getStatus());
         }
 
-        // Restore stock for each item
+        // Restore stock for each item, relative to the current row so concurrent checkouts are not overwritten
+        Map<Integer, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() + item.getQuantity());
-            // Note: In a real implementation, you'd call productService.updateStock()
+            Integer productId = item.getProduct() != null ? item.getProduct().getProductId() : null;
+            if (productId != null && item.getQuantity() != null && item.getQuantity() > 0) {
+                quantities.merge(productId, item.getQuantity(), Integer::sum);
+            }
         }
+        stockUpdater.increment(quantities);
 
+        String previousStatus = order.getStatus();
         order.setStatus("CANCELLED");
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        orderStatusLog.append(id, "CANCELLED", previousStatus, null, null);
+        salesRollupRecorder.recordStatusChange(savedOrder, previousStatus);
+        return savedOrder;
     }
 
     /**
-     * Get total sales for date range
+     * Get total sales (completed payments) for date range
+     * Read from the daily sales rollups, so the cost grows with the number of days, not orders
      * @param startDate start date
      * @param endDate end date
      * @return BigDecimal total sales
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalSales(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-        return orderRepository.calculateTotalSalesByDateRange(startDateTime, endDateTime);
+        return getSalesTotals(startDate, endDate).getCompletedSales();
     }
 
     /**
      * Get order count for date range
+     * Read from the daily sales rollups, so the cost grows with the number of days, not orders
      * @param startDate start date
      * @param endDate end date
      * @return Long order count
      */
     @Transactional(readOnly = true)
     public Long getOrderCount(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-        // Use a custom query to count orders in date range
-        return orderRepository.findByDateRange(startDateTime, endDateTime, Pageable.unpaged()).getTotalElements();
+        return getSalesTotals(startDate, endDate).getOrderCount();
     }
 
     /**
-     * Get today's orders
-     * @return List<Order>
+     * Get order count, gross sales and completed sales and tax for date range, from the daily sales rollups
+     * Cancelled orders are not included
+     * @param startDate start date
+     * @param endDate end date, inclusive
+     * @return SalesTotalsDto
      */
     @Transactional(readOnly = true)
-    public List<Order> getTodaysOrders() {
+    public SalesTotalsDto getSalesTotals(LocalDate startDate, LocalDate endDate) {
+        return salesRollupRepository.sumDays(startDate.atStartOfDay(), endDate.atStartOfDay());
+    }
+
+    /**
+     * Get the number of orders placed today, from the daily sales rollups
+     * @return Long order count
+     */
+    @Transactional(readOnly = true)
+    public Long getTodaysOrderCount() {
+        return getOrderCount(LocalDate.now(), LocalDate.now());
+    }
+
+    /**
+     * Stream summaries of today's orders, newest first
+     * The stream reads from an open result set and must be consumed (and closed) inside the
+     * caller's transaction, see JsonResponseStreamer
+     * @return Stream<OrderResponseDto>
+     */
+    @Transactional(readOnly = true)
+    public Stream<OrderResponseDto> streamTodaysOrderSummaries() {
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         LocalDateTime endOfDay = LocalDate.now().atTime(23, 59, 59);
-        return orderRepository.findByDateRange(startOfDay, endOfDay, Pageable.unpaged()).getContent();
+        return orderRepository.streamSummariesByDateRange(startOfDay, endOfDay);
     }
 
     /**
@@ -281,22 +426,17 @@ public class OrderService {
     }
 
     /**
-     * Get average order value
+     * Get average order value of all completed orders
+     * Read from the daily sales rollups instead of loading the orders
      * @return BigDecimal average order value
      */
     @Transactional(readOnly = true)
     public BigDecimal getAverageOrderValue() {
-        // Calculate average from all completed orders
-        List<Order> allOrders = orderRepository.findByPaymentStatus(Order.PaymentStatus.COMPLETED, Pageable.unpaged()).getContent();
-        if (allOrders.isEmpty()) {
+        SalesTotalsDto totals = salesRollupRepository.sumAllDays();
+        if (totals.getCompletedCount() == 0) {
             return BigDecimal.ZERO;
         }
-        
-        BigDecimal total = allOrders.stream()
-            .map(Order::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return total.divide(BigDecimal.valueOf(allOrders.size()), 2, BigDecimal.ROUND_HALF_UP);
+        return totals.getCompletedSales().divide(BigDecimal.valueOf(totals.getCompletedCount()), 2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -0,0 +1,145 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.sortoutinnovation.greenmagic.event.OrderStatusChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+import org.sortoutinnovation.greenmagic.model.User;
+import org.sortoutinnovation.greenmagic.repository.OrderStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only log of order status transitions in order_status_history
+ * Transitions recorded during a transaction are buffered and written just before it commits: one
+ * set-based UPDATE clears isCurrent on the orders' previous rows, then the new rows are inserted in
+ * one JDBC batch (status IDs are time-ordered, so Hibernate can batch them)
+ * A transaction that moves many orders, such as an ingestion group, writes their history with two
+ * statements however many orders it touches
+ * Each order's new current status is published as an OrderStatusChangedEvent
+ * Order.status values without a status type of their own are recorded as PROCESSING with no SLA
+ * deadline, keeping the original value in the notes, so recording history never fails a status change
+ */
+@Component
+public class OrderStatusLog {
+
+    private record Transition(Long orderId, OrderStatus.StatusType status, OrderStatus.StatusType previousStatus,
+                              boolean known, Integer updatedBy, String notes, LocalDateTime timestamp) {
+    }
+
+    private static final int MAX_NOTES_LENGTH = 500;
+
+    @Autowired
+    private OrderStatusRepository orderStatusRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Record a status transition; it is written when the current transaction commits
+     * @param orderId ID of the saved order
+     * @param status new Order.status value
+     * @param previousStatus Order.status value before the change, or null for a new order
+     * @param updatedBy ID of the user making the change, or null
+     * @param notes optional notes
+     * @throws RuntimeException if no transaction is active
+     */
+    public void append(Long orderId, String status, String previousStatus, Integer updatedBy, String notes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new RuntimeException("Order status changes must be recorded in a transaction");
+        }
+        boolean known = OrderStatus.StatusType.isKnownOrderStatus(status);
+        if (!known) {
+            notes = notesWithOriginal(status, notes);
+        }
+        pending().add(new Transition(orderId,
+            OrderStatus.StatusType.fromOrderStatus(status),
+            previousStatus != null ? OrderStatus.StatusType.fromOrderStatus(previousStatus) : null,
+            known, updatedBy, notes, LocalDateTime.now()));
+    }
+
+    private static String notesWithOriginal(String status, String notes) {
+        String original = "Order status: " + status;
+        String combined = notes == null || notes.isBlank() ? original : original + "; " + notes;
+        return combined.length() > MAX_NOTES_LENGTH ? combined.substring(0, MAX_NOTES_LENGTH) : combined;
+    }
+
+    // Transitions of the current transaction; the first append registers the write before commit
+    @SuppressWarnings("unchecked")
+    private List<Transition> pending() {
+        List<Transition> pending = (List<Transition>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<Transition> buffer = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, buffer);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(buffer);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OrderStatusLog.this);
+            }
+        });
+        return buffer;
+    }
+
+    private void write(List<Transition> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        // A new order has no earlier row to clear
+        Set<Long> changedOrderIds = new LinkedHashSet<>();
+        for (Transition transition : transitions) {
+            if (transition.previousStatus() != null) {
+                changedOrderIds.add(transition.orderId());
+            }
+        }
+        if (!changedOrderIds.isEmpty()) {
+            orderStatusRepository.clearCurrent(changedOrderIds);
+        }
+
+        // Only the last transition of each order in this transaction stays current
+        Map<Long, OrderStatus> latest = new HashMap<>();
+        List<OrderStatus> rows = new ArrayList<>(transitions.size());
+        for (Transition transition : transitions) {
+            OrderStatus row = new OrderStatus();
+            row.setOrder(entityManager.getReference(Order.class, transition.orderId()));
+            row.setStatus(transition.status());
+            row.setPreviousStatus(transition.previousStatus());
+            row.setStatusTimestamp(transition.timestamp());
+            if (transition.updatedBy() != null) {
+                row.setUpdatedBy(entityManager.getReference(User.class, transition.updatedBy()));
+            }
+            row.setNotes(transition.notes());
+            // No SLA for a status the fallback stands in for
+            row.setSlaDeadline(transition.known() ? row.calculateSlaDeadline() : null);
+            OrderStatus earlier = latest.put(transition.orderId(), row);
+            if (earlier != null) {
+                earlier.setIsCurrent(false);
+            }
+            rows.add(row);
+        }
+        orderStatusRepository.saveAll(rows);
+        latest.forEach((orderId, row) -> eventPublisher.publishEvent(
+            new OrderStatusChangedEvent(orderId, row.getStatusId(), row.getStatus(), row.getSlaDeadline())));
+    }
+}
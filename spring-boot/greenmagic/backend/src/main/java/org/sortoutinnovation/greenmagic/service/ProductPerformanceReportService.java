@@ -0,0 +1,120 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import org.sortoutinnovation.greenmagic.analytics.EngagementCounters;
+import org.sortoutinnovation.greenmagic.analytics.ProductEngagementTracker;
+import org.sortoutinnovation.greenmagic.dto.ProductPerformanceDto;
+import org.sortoutinnovation.greenmagic.dto.ProductRatingDto;
+import org.sortoutinnovation.greenmagic.repository.CartItemRepository;
+import org.sortoutinnovation.greenmagic.repository.OrderItemRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class for the vendor product performance report
+ * Computes every metric with a fixed number of grouped queries, independent of the number of
+ * products, and assembles the DTOs in memory
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductPerformanceReportService {
+
+    private static final int TREND_WINDOW_DAYS = 30;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
+    @Autowired
+    private ProductEngagementTracker productEngagementTracker;
+
+    /**
+     * Build the performance report for all products of a vendor
+     * @param vendorId vendor ID
+     * @return List of product performance metrics, one per product
+     */
+    public List<ProductPerformanceDto> buildReport(Integer vendorId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> products = productRepository.findIdAndNameByVendorId(vendorId);
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> productIds = new ArrayList<>(products.size());
+        for (Object[] row : products) {
+            productIds.add((Integer) row[0]);
+        }
+
+        Map<Integer, long[]> salesCounts = new HashMap<>();
+        for (Object[] row : orderItemRepository.countOrderItemsPerProductForVendor(vendorId, now.minusDays(TREND_WINDOW_DAYS))) {
+            salesCounts.put((Integer) row[0], new long[] {toLong(row[1]), toLong(row[2])});
+        }
+
+        Map<Integer, Long> cartCounts = new HashMap<>();
+        for (Object[] row : cartItemRepository.countCartItemsPerProductForVendor(vendorId)) {
+            cartCounts.put((Integer) row[0], toLong(row[1]));
+        }
+
+        Map<Integer, ProductRatingDto> ratings = productRatingService.getRatings(productIds);
+        Map<Integer, EngagementCounters.Delta> engagement = productEngagementTracker.getTotals(productIds);
+
+        List<ProductPerformanceDto> report = new ArrayList<>(products.size());
+        for (Object[] row : products) {
+            Integer productId = (Integer) row[0];
+            ProductPerformanceDto performance = new ProductPerformanceDto(productId, (String) row[1]);
+
+            long[] sales = salesCounts.getOrDefault(productId, new long[2]);
+            performance.setSalesCount((int) sales[0]);
+            performance.setPreviousSalesCount((int) sales[1]);
+            performance.setSalesTrend(trendOf(sales[0], sales[1]));
+
+            performance.setViewCount((int) engagement.get(productId).views());
+            performance.setAddToCartCount(cartCounts.getOrDefault(productId, 0L).intValue());
+            performance.setConversionRate(conversionRate(performance.getSalesCount(), performance.getViewCount()));
+
+            ProductRatingDto rating = ratings.get(productId);
+            performance.setAverageRating(rating.getAverageRating().doubleValue());
+            performance.setReviewCount(rating.getReviewCount().intValue());
+
+            performance.setLastUpdated(now);
+            report.add(performance);
+        }
+        return report;
+    }
+
+    private static String trendOf(long salesCount, long previousSalesCount) {
+        if (salesCount > previousSalesCount * 1.1) {
+            return "up";
+        } else if (salesCount < previousSalesCount * 0.9) {
+            return "down";
+        }
+        return "stable";
+    }
+
+    private static double conversionRate(int salesCount, int viewCount) {
+        if (viewCount <= 0) {
+            return 0.0;
+        }
+        double conversionRate = (double) salesCount / viewCount * 100;
+        return Math.round(conversionRate * 100.0) / 100.0; // Round to 2 decimal places
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+}
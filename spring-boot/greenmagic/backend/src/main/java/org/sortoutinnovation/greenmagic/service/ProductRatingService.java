@@ -0,0 +1,176 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.ProductRatingDto;
+import org.sortoutinnovation.greenmagic.event.ProductRatingChangedEvent;
+import org.sortoutinnovation.greenmagic.model.ProductRatingSummary;
+import org.sortoutinnovation.greenmagic.repository.ProductRatingSummaryRepository;
+import org.sortoutinnovation.greenmagic.repository.ReviewRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service class for product rating aggregates
+ * Keeps sum, count and a 1-5 star histogram per product in product_rating_summary, updated by
+ * ReviewService in the same transaction as the review write, and caches them in memory so
+ * ratings can be shown on product cards and listings without AVG/COUNT queries over reviews
+ */
+@Service
+@Transactional
+public class ProductRatingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRatingService.class);
+
+    // Cached for products without reviews, so they are not looked up again
+    private static final Aggregate NO_RATINGS = new Aggregate(BigDecimal.ZERO, 0, new int[5]);
+
+    @Autowired
+    private ProductRatingSummaryRepository ratingSummaryRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Cache<Integer, Aggregate> cache;
+
+    public ProductRatingService(@Value("${product.rating-cache.maximum-size:50000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .build();
+    }
+
+    /**
+     * Apply a review write to the product's aggregate
+     * Must run inside the transaction that writes the review
+     * @param productId product ID
+     * @param oldRating previous rating, or null for a new review
+     * @param newRating new rating, or null for a deleted review
+     */
+    public void recordRatingChange(Integer productId, BigDecimal oldRating, BigDecimal newRating) {
+        BigDecimal sumDelta = BigDecimal.ZERO;
+        int countDelta = 0;
+        int[] starDeltas = new int[5];
+
+        if (oldRating != null) {
+            sumDelta = sumDelta.subtract(oldRating);
+            countDelta--;
+            starDeltas[starOf(oldRating) - 1]--;
+        }
+        if (newRating != null) {
+            sumDelta = sumDelta.add(newRating);
+            countDelta++;
+            starDeltas[starOf(newRating) - 1]++;
+        }
+        if (countDelta == 0 && sumDelta.signum() == 0 && starOf(oldRating) == starOf(newRating)) {
+            return;
+        }
+
+        ratingSummaryRepository.applyDelta(productId, sumDelta, countDelta,
+            starDeltas[0], starDeltas[1], starDeltas[2], starDeltas[3], starDeltas[4]);
+        eventPublisher.publishEvent(new ProductRatingChangedEvent(productId));
+    }
+
+    /**
+     * Get the rating aggregate of a product
+     * @param productId product ID
+     * @return ProductRatingDto (zero count for products without reviews)
+     */
+    @Transactional(readOnly = true)
+    public ProductRatingDto getRating(Integer productId) {
+        Aggregate aggregate = cache.get(productId, id -> ratingSummaryRepository.findById(id)
+            .map(Aggregate::of)
+            .orElse(NO_RATINGS));
+        return aggregate.toDto(productId);
+    }
+
+    /**
+     * Get the rating aggregates of several products with at most one query
+     * @param productIds product IDs
+     * @return Map of product ID to ProductRatingDto, in the order given
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, ProductRatingDto> getRatings(Collection<Integer> productIds) {
+        Map<Integer, Aggregate> aggregates = cache.getAll(productIds, missing -> {
+            Map<Integer, Aggregate> loaded = new HashMap<>();
+            for (Integer id : missing) {
+                loaded.put(id, NO_RATINGS);
+            }
+            for (ProductRatingSummary summary : ratingSummaryRepository.findAllById(new ArrayList<Integer>(missing))) {
+                loaded.put(summary.getProductId(), Aggregate.of(summary));
+            }
+            return loaded;
+        });
+
+        Map<Integer, ProductRatingDto> result = new LinkedHashMap<>();
+        for (Integer productId : productIds) {
+            result.put(productId, aggregates.getOrDefault(productId, NO_RATINGS).toDto(productId));
+        }
+        return result;
+    }
+
+    /**
+     * Drop a cached aggregate once the review write has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(ProductRatingChangedEvent event) {
+        cache.invalidate(event.getProductId());
+    }
+
+    /**
+     * Backfill the aggregate table from existing reviews on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (ratingSummaryRepository.count() == 0 && reviewRepository.count() > 0) {
+                int rows = ratingSummaryRepository.rebuildFromReviews();
+                log.info("Backfilled rating aggregates for {} products", rows);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill rating aggregates: {}", e.getMessage());
+        }
+    }
+
+    private static int starOf(BigDecimal rating) {
+        if (rating == null) {
+            return 0;
+        }
+        int star = rating.setScale(0, RoundingMode.HALF_UP).intValue();
+        return Math.max(1, Math.min(5, star));
+    }
+
+    private record Aggregate(BigDecimal sum, long count, int[] stars) {
+
+        static Aggregate of(ProductRatingSummary summary) {
+            return new Aggregate(summary.getRatingSum(), summary.getRatingCount(), new int[] {
+                summary.getStar1(), summary.getStar2(), summary.getStar3(), summary.getStar4(), summary.getStar5()
+            });
+        }
+
+        ProductRatingDto toDto(Integer productId) {
+            BigDecimal average = count > 0
+                ? sum.divide(BigDecimal.valueOf(count), 1, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+            return new ProductRatingDto(productId, average, count, stars.clone());
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package org.sortoutinnovation.greenmagic.service;
 
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.dto.CursorSliceDto;
+import org.sortoutinnovation.greenmagic.dto.ProductCardDto;
 import org.sortoutinnovation.greenmagic.dto.ProductPerformanceDto;
+import org.sortoutinnovation.greenmagic.dto.SeekCursor;
+import org.sortoutinnovation.greenmagic.inventory.ReservationLedger;
+import org.sortoutinnovation.greenmagic.inventory.StockUpdater;
 import org.sortoutinnovation.greenmagic.model.Product;
 import org.sortoutinnovation.greenmagic.repository.ProductRepository;
-import org.sortoutinnovation.greenmagic.repository.ReviewRepository;
-import org.sortoutinnovation.greenmagic.repository.OrderItemRepository;
+import org.sortoutinnovation.greenmagic.search.ProductPriceService;
+import org.sortoutinnovation.greenmagic.search.ProductSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,8 +22,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 /**
  * Service class for Product business logic
@@ -30,10 +37,22 @@ public class ProductService {
     private ProductRepository productRepository;
 
     @Autowired
-    private ReviewRepository reviewRepository;
+    private ProductSearchService productSearchService;
 
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductPriceService productPriceService;
+
+    @Autowired
+    private StockUpdater stockUpdater;
+
+    @Autowired
+    private ReservationLedger reservationLedger;
+
+    @Autowired
+    private ProductPerformanceReportService productPerformanceReportService;
 
     /**
      * Create a new product
@@ -61,60 +80,93 @@ public class ProductService {
     }
 
     /**
-     * Get all active products with pagination
+     * Get all active products with pagination, as product cards
      * @param pageable pagination information
-     * @return Page<Product>
+     * @return Page<ProductCardDto>
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductCardDto> getAllActiveProducts(Pageable pageable) {
+        return productRepository.findActiveProductCards(pageable);
+    }
+
+    /**
+     * Get active products with keyset pagination, newest first
+     * Seeks past the cursor instead of using OFFSET and skips the COUNT query
+     * @param cursor continuation token from the previous slice, or null for the first slice
+     * @param size slice size
+     * @return CursorSliceDto<Product>
+     * @throws RuntimeException if the cursor is malformed
      */
     @Transactional(readOnly = true)
-    public Page<Product> getAllActiveProducts(Pageable pageable) {
-        return productRepository.findAllActiveProducts(pageable);
+    public CursorSliceDto<Product> getActiveProductsSlice(String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Product> rows = after == null
+            ? productRepository.findActiveProductsSeekFirst(limit)
+            : productRepository.findActiveProductsSeekAfter(after.getTimestamp(), Math.toIntExact(after.getId()), limit);
+        return CursorSliceDto.fromLookAhead(rows, size, p -> new SeekCursor(p.getCreatedAt(), p.getProductId().longValue()));
     }
 
     /**
      * Get product by ID
+     * Served from the product cache; the returned instance is shared and must not be modified
      * @param id product ID
      * @return Product
      * @throws RuntimeException if product not found
      */
     @Transactional(readOnly = true)
     public Product getProductById(Integer id) {
-        return productRepository.findById(id)
+        return productCache.getById(id)
             .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
     /**
      * Get product by SKU
+     * Served from the product cache; the returned instance is shared and must not be modified
      * @param sku product SKU
      * @return Product
      * @throws RuntimeException if product not found
      */
     @Transactional(readOnly = true)
     public Product getProductBySku(String sku) {
-        return productRepository.findBySku(sku)
+        return productCache.getBySku(sku)
+            .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
+    }
+
+    /**
+     * Get the ID of the product with a SKU, from the product cache's SKU index
+     * @param sku product SKU
+     * @return Integer
+     * @throws RuntimeException if product not found
+     */
+    public Integer getProductIdBySku(String sku) {
+        return productCache.idBySku(sku)
             .orElseThrow(() -> new RuntimeException("Product not found with SKU: " + sku));
     }
 
     /**
      * Get product by URL slug
+     * Served from the product cache; the returned instance is shared and must not be modified
      * @param urlSlug product URL slug
      * @return Product
      * @throws RuntimeException if product not found
      */
     @Transactional(readOnly = true)
     public Product getProductByUrlSlug(String urlSlug) {
-        return productRepository.findByUrlSlug(urlSlug)
+        return productCache.getByUrlSlug(urlSlug)
             .orElseThrow(() -> new RuntimeException("Product not found with URL slug: " + urlSlug));
     }
 
     /**
-     * Search products by name
+     * Search products by name, brand, SKU, keywords and description
+     * Served from the in-memory search index, ranked by relevance
      * @param name search term
      * @param pageable pagination information
-     * @return Page<Product>
+     * @return Page<ProductCardDto>
      */
     @Transactional(readOnly = true)
-    public Page<Product> searchProductsByName(String name, Pageable pageable) {
-        return productRepository.findByNameContaining(name, pageable);
+    public Page<ProductCardDto> searchProductsByName(String name, Pageable pageable) {
+        return productSearchService.searchActiveProductCards(name, pageable);
     }
 
     /**
@@ -128,6 +180,24 @@ public class ProductService {
         return productRepository.findByCategoryId(categoryId, pageable);
     }
 
+    /**
+     * Get active products in a category with keyset pagination, newest first
+     * @param categoryId category ID
+     * @param cursor continuation token from the previous slice, or null for the first slice
+     * @param size slice size
+     * @return CursorSliceDto<Product>
+     * @throws RuntimeException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceDto<Product> getProductsByCategorySlice(Integer categoryId, String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Product> rows = after == null
+            ? productRepository.findByCategoryIdSeekFirst(categoryId, limit)
+            : productRepository.findByCategoryIdSeekAfter(categoryId, after.getTimestamp(), Math.toIntExact(after.getId()), limit);
+        return CursorSliceDto.fromLookAhead(rows, size, p -> new SeekCursor(p.getCreatedAt(), p.getProductId().longValue()));
+    }
+
     /**
      * Get featured products (replaced with products in stock)
      * @param pageable pagination information
@@ -153,11 +223,25 @@ public class ProductService {
      * @param minPrice minimum price
      * @param maxPrice maximum price
      * @param pageable pagination information
-     * @return Page<Product>
+     * @return Page<Product> ordered by price
      */
     @Transactional(readOnly = true)
     public Page<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findByPriceRange(minPrice, maxPrice, pageable);
+        return productPriceService.findActiveByPriceRange(minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * Get products by price range with cursor pagination
+     * @param minPrice minimum price
+     * @param maxPrice maximum price
+     * @param cursor nextCursor of the previous slice, or null for the first slice
+     * @param size slice size
+     * @return CursorSliceDto<Product> ordered by price
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceDto<Product> getProductsByPriceRangeSlice(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                String cursor, int size) {
+        return productPriceService.findActiveByPriceRangeSlice(minPrice, maxPrice, cursor, size);
     }
 
     /**
@@ -287,15 +371,10 @@ public class ProductService {
      * @throws RuntimeException if product not found or insufficient stock
      */
     public Product reduceStock(Integer id, Integer quantity) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        
-        if (product.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock for product: " + product.getName());
+        if (!productRepository.existsById(id)) {
+            throw new RuntimeException("Product not found with id: " + id);
         }
-        
-        product.setQuantity(product.getQuantity() - quantity);
-        return productRepository.save(product);
+        return stockUpdater.decrement(Map.of(id, quantity)).get(0);
     }
 
     /**
@@ -306,8 +385,8 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public boolean isInStock(Integer id, Integer quantity) {
-        Product product = productRepository.findById(id).orElse(null);
-        return product != null && product.getQuantity() >= quantity;
+        Product product = productCache.getById(id).orElse(null);
+        return product != null && product.getQuantity() - reservationLedger.reservedQuantity(id) >= quantity;
     }
 
     /**
@@ -343,74 +422,6 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductPerformanceDto> getProductPerformanceByVendor(Integer vendorId) {
-        // Get all products for the vendor
-        List<Product> products = productRepository.findByVendorId(vendorId);
-        List<ProductPerformanceDto> performanceList = new ArrayList<>();
-        
-        // For each product, collect performance metrics
-        for (Product product : products) {
-            ProductPerformanceDto performance = new ProductPerformanceDto(product.getProductId(), product.getName());
-            
-            // Get sales count (from order items)
-            try {
-                Integer salesCount = orderItemRepository.countByProductId(product.getProductId());
-                performance.setSalesCount(salesCount != null ? salesCount : 0);
-            } catch (Exception e) {
-                // If order items table doesn't exist or other error, use mock data
-                performance.setSalesCount(new Random().nextInt(100));
-            }
-            
-            // Get previous sales count (30 days ago)
-            try {
-                Integer previousSalesCount = orderItemRepository.countByProductIdBeforeDate(
-                    product.getProductId(), LocalDateTime.now().minusDays(30));
-                performance.setPreviousSalesCount(previousSalesCount != null ? previousSalesCount : 0);
-            } catch (Exception e) {
-                // If order items table doesn't exist or other error, use mock data
-                performance.setPreviousSalesCount(new Random().nextInt(100));
-            }
-            
-            // Calculate sales trend
-            if (performance.getSalesCount() > performance.getPreviousSalesCount() * 1.1) {
-                performance.setSalesTrend("up");
-            } else if (performance.getSalesCount() < performance.getPreviousSalesCount() * 0.9) {
-                performance.setSalesTrend("down");
-            } else {
-                performance.setSalesTrend("stable");
-            }
-            
-            // Get view count (mock data for now)
-            performance.setViewCount(new Random().nextInt(1000));
-            
-            // Get add to cart count (mock data for now)
-            performance.setAddToCartCount(new Random().nextInt(200));
-            
-            // Calculate conversion rate
-            if (performance.getViewCount() > 0) {
-                double conversionRate = (double) performance.getSalesCount() / performance.getViewCount() * 100;
-                performance.setConversionRate(Math.round(conversionRate * 100.0) / 100.0); // Round to 2 decimal places
-            } else {
-                performance.setConversionRate(0.0);
-            }
-            
-            // Get average rating and review count
-            try {
-                Double avgRating = reviewRepository.calculateAverageRatingForProduct(product.getProductId()).doubleValue();
-                Long reviewCount = reviewRepository.countByProductId(product.getProductId());
-                
-                performance.setAverageRating(avgRating != null ? avgRating : 0.0);
-                performance.setReviewCount(reviewCount != null ? reviewCount.intValue() : 0);
-            } catch (Exception e) {
-                // If reviews table doesn't exist or other error, use mock data
-                performance.setAverageRating(3.5 + new Random().nextDouble() * 1.5); // Random between 3.5 and 5.0
-                performance.setReviewCount(new Random().nextInt(50));
-            }
-            
-            performance.setLastUpdated(LocalDateTime.now());
-            
-            performanceList.add(performance);
-        }
-        
-        return performanceList;
+        return productPerformanceReportService.buildReport(vendorId);
     }
 } 
\ No newline at end of file
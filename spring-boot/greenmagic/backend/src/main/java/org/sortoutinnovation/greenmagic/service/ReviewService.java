@@ -1,5 +1,6 @@
 package org.sortoutinnovation.greenmagic.service;
 
+import org.sortoutinnovation.greenmagic.dto.ProductRatingDto;
 import org.sortoutinnovation.greenmagic.model.Review;
 import org.sortoutinnovation.greenmagic.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,7 +10,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Service class for Review business logic
@@ -22,6 +22,9 @@ public class ReviewService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private ProductRatingService productRatingService;
+
     /**
      * Get reviews for a product
      * @param productId product ID
@@ -70,7 +73,9 @@ public class ReviewService {
             throw new RuntimeException("User has already reviewed this product");
         }
 
-        return reviewRepository.save(review);
+        Review savedReview = reviewRepository.save(review);
+        productRatingService.recordRatingChange(review.getProduct().getProductId(), null, savedReview.getRating());
+        return savedReview;
     }
 
     /**
@@ -84,6 +89,8 @@ public class ReviewService {
         Review existingReview = reviewRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Review not found with id: " + id));
 
+        BigDecimal previousRating = existingReview.getRating();
+
         // Update fields
         if (updatedReview.getRating() != null) {
             existingReview.setRating(updatedReview.getRating());
@@ -95,7 +102,10 @@ public class ReviewService {
             existingReview.setContent(updatedReview.getContent());
         }
 
-        return reviewRepository.save(existingReview);
+        Review savedReview = reviewRepository.save(existingReview);
+        productRatingService.recordRatingChange(
+            savedReview.getProduct().getProductId(), previousRating, savedReview.getRating());
+        return savedReview;
     }
 
     /**
@@ -104,31 +114,42 @@ public class ReviewService {
      * @throws RuntimeException if review not found
      */
     public void deleteReview(Long id) {
-        if (!reviewRepository.existsById(id)) {
-            throw new RuntimeException("Review not found with id: " + id);
-        }
-        reviewRepository.deleteById(id);
+        Review review = reviewRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Review not found with id: " + id));
+        reviewRepository.delete(review);
+        productRatingService.recordRatingChange(review.getProduct().getProductId(), review.getRating(), null);
     }
 
     /**
      * Get average rating for a product
+     * Read from the product's rating aggregate
      * @param productId product ID
      * @return BigDecimal average rating
      */
     @Transactional(readOnly = true)
     public BigDecimal getAverageRating(Integer productId) {
-        BigDecimal average = reviewRepository.calculateAverageRatingForProduct(productId);
-        return average != null ? average.setScale(1, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        return productRatingService.getRating(productId).getAverageRating();
     }
 
     /**
      * Get review count for a product
+     * Read from the product's rating aggregate
      * @param productId product ID
      * @return Long review count
      */
     @Transactional(readOnly = true)
     public Long getReviewCount(Integer productId) {
-        return reviewRepository.countByProductId(productId);
+        return productRatingService.getRating(productId).getReviewCount();
+    }
+
+    /**
+     * Get rating summary (average, count and star histogram) for a product
+     * @param productId product ID
+     * @return ProductRatingDto
+     */
+    @Transactional(readOnly = true)
+    public ProductRatingDto getRatingSummary(Integer productId) {
+        return productRatingService.getRating(productId);
     }
 
     /**
@@ -0,0 +1,170 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import org.sortoutinnovation.greenmagic.model.VendorSkuSequence;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.sortoutinnovation.greenmagic.repository.VendorSkuSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Service allocating product SKUs in the format GM[XX][000][0000]
+ * XX = 2 letters from the category name, 000 = vendor ID (at least 3 digits),
+ * 0000 = per-vendor sequence number (at least 4 digits)
+ * Sequence numbers are reserved from 'vendor_sku_sequences' in blocks (hi/lo) and handed out from
+ * memory with an atomic counter, so concurrent creates and bulk imports never get the same number
+ * and only one create per block touches the database
+ * Numbers left in a block at shutdown are skipped, so sequences can have gaps
+ * A vendor's first block starts after the highest sequence number found in its existing SKUs,
+ * so deleted products or SKUs from the old random generator never lead to a reused number
+ */
+@Service
+public class SkuAllocationService {
+
+    private static final Pattern NON_LETTERS = Pattern.compile("[^A-Z]");
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    /**
+     * A reserved range of sequence numbers, [next, limit)
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+
+    @Autowired
+    private VendorSkuSequenceRepository vendorSkuSequenceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int blockSize;
+
+    private final ConcurrentHashMap<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Integer, Object> refillLocks = new ConcurrentHashMap<>();
+
+    public SkuAllocationService(PlatformTransactionManager transactionManager,
+                                @Value("${sku.allocator.block-size:20}") int blockSize) {
+        // Reservations commit on their own, so the row lock is not held for the caller's whole transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocate a new SKU
+     * @param vendorId vendor ID
+     * @param categoryName category name, or null for the default "GM" code
+     * @return String unique SKU
+     */
+    public String nextSku(Integer vendorId, String categoryName) {
+        return "GM" + categoryCode(categoryName) + String.format("%03d", vendorId)
+            + String.format("%04d", nextSequence(vendorId));
+    }
+
+    /**
+     * Allocate the next sequence number of a vendor
+     */
+    public long nextSequence(Integer vendorId) {
+        while (true) {
+            Block block = blocks.get(vendorId);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return value;
+                }
+            }
+            refill(vendorId, block);
+        }
+    }
+
+    /**
+     * Two-letter category code: the first two letters of the name, padded with 'X'
+     */
+    static String categoryCode(String categoryName) {
+        if (categoryName == null) {
+            return "GM";
+        }
+        String letters = NON_LETTERS.matcher(categoryName.toUpperCase(Locale.ROOT)).replaceAll("");
+        if (letters.length() >= 2) {
+            return letters.substring(0, 2);
+        }
+        return letters.length() == 1 ? letters + "X" : "GM";
+    }
+
+    /**
+     * Highest sequence number in the SKUs of a vendor's products, or 0 if none has a generated SKU
+     */
+    long maxExistingSequence(Integer vendorId) {
+        String vendorCode = String.format("%03d", vendorId);
+        long max = 0;
+        for (String sku : productRepository.findSkusByVendorLike(vendorId, "GM__" + vendorCode + "%")) {
+            max = Math.max(max, sequenceOf(sku, vendorCode));
+        }
+        return max;
+    }
+
+    /**
+     * Sequence number of a generated SKU, or 0 if the SKU does not have the GM[XX][vendor][number] format
+     */
+    static long sequenceOf(String sku, String vendorCode) {
+        int start = 4 + vendorCode.length();
+        if (sku == null || sku.length() <= start || sku.length() > start + 18
+                || !sku.startsWith("GM") || !sku.startsWith(vendorCode, 4)) {
+            return 0;
+        }
+        for (int i = start; i < sku.length(); i++) {
+            if (sku.charAt(i) < '0' || sku.charAt(i) > '9') {
+                return 0;
+            }
+        }
+        return Long.parseLong(sku.substring(start));
+    }
+
+    private void refill(Integer vendorId, Block exhausted) {
+        synchronized (refillLocks.computeIfAbsent(vendorId, id -> new Object())) {
+            // Another thread may have installed a fresh block while this one waited
+            if (blocks.get(vendorId) == exhausted) {
+                blocks.put(vendorId, reserveBlock(vendorId));
+            }
+        }
+    }
+
+    private Block reserveBlock(Integer vendorId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    VendorSkuSequence sequence = vendorSkuSequenceRepository.findForUpdate(vendorId)
+                        .orElseGet(() -> new VendorSkuSequence(vendorId, maxExistingSequence(vendorId) + 1));
+                    long start = sequence.getNextValue();
+                    sequence.setNextValue(start + blockSize);
+                    vendorSkuSequenceRepository.save(sequence);
+                    return new Block(start, start + blockSize);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the vendor's row first; read it again
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw new RuntimeException("Failed to reserve SKU numbers for vendor " + vendorId, e);
+                }
+            }
+        }
+    }
+}
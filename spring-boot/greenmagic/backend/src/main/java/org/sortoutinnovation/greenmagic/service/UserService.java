@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for User business logic
@@ -193,6 +194,17 @@ public class UserService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Stream all users ordered by name
+     * The stream reads from an open result set and must be consumed (and closed) inside the
+     * caller's transaction, see JsonResponseStreamer
+     * @return Stream<UserResponseDto>
+     */
+    @Transactional(readOnly = true)
+    public Stream<UserResponseDto> streamAllUsers() {
+        return userRepository.streamAllUsers();
+    }
+
     /**
      * Update user profile
      * @param id user ID
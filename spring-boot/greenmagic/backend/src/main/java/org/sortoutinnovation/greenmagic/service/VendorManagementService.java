@@ -1,12 +1,23 @@
 package org.sortoutinnovation.greenmagic.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.sortoutinnovation.greenmagic.analytics.EngagementCounters;
+import org.sortoutinnovation.greenmagic.analytics.ProductEngagementTracker;
+import org.sortoutinnovation.greenmagic.analytics.SalesRollupRecorder;
+import org.sortoutinnovation.greenmagic.cache.CategorySnapshot;
+import org.sortoutinnovation.greenmagic.cache.CategorySnapshotCache;
+import org.sortoutinnovation.greenmagic.cache.VendorProductDetailsCache;
 import org.sortoutinnovation.greenmagic.dto.ProductCreateRequestDto;
+import org.sortoutinnovation.greenmagic.dto.ProductRatingDto;
 import org.sortoutinnovation.greenmagic.dto.ProductUpdateRequestDto;
+import org.sortoutinnovation.greenmagic.dto.VendorProductDetailsDto;
 import org.sortoutinnovation.greenmagic.dto.ProductResponseDto;
+import org.sortoutinnovation.greenmagic.dto.VendorProductRowDto;
+import org.sortoutinnovation.greenmagic.inventory.LowStockIndex;
 import org.sortoutinnovation.greenmagic.mapper.ProductMapper;
 import org.sortoutinnovation.greenmagic.model.*;
 import org.sortoutinnovation.greenmagic.repository.*;
+import org.sortoutinnovation.greenmagic.search.ProductSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,6 +32,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for Vendor Management operations
@@ -38,6 +50,12 @@ public class VendorManagementService {
     
     @Autowired
     private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusLog orderStatusLog;
+
+    @Autowired
+    private SalesRollupRecorder salesRollupRecorder;
     
     @Autowired
     private VendorAnalyticsRepository vendorAnalyticsRepository;
@@ -60,6 +78,30 @@ public class VendorManagementService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CategorySnapshotCache categorySnapshotCache;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private SkuAllocationService skuAllocationService;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
+    @Autowired
+    private ProductEngagementTracker productEngagementTracker;
+
+    @Autowired
+    private VendorProductDetailsCache vendorProductDetailsCache;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
     // ===========================
     // DASHBOARD METHODS
     // ===========================
@@ -142,40 +184,20 @@ public class VendorManagementService {
      * Get vendor products with filtering
      */
     public Page<ProductResponseDto> getVendorProducts(Integer vendorId, Pageable pageable, String status, String category, String search) {
-        Page<Product> products;
+        Page<VendorProductRowDto> products;
         
         try {
-            // Parse status if provided
-            Product.ProductStatus productStatus = null;
-            if (status != null && !status.isEmpty()) {
-                try {
-                    productStatus = Product.ProductStatus.valueOf(status.toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    // Invalid status value, ignore and continue
-                }
-            }
+            Product.ProductStatus productStatus = parseProductStatus(status);
+            Integer categoryId = parseCategoryId(category);
             
-            // Parse category if provided
-            Integer categoryId = null;
-            if (category != null && !category.isEmpty()) {
-                try {
-                    categoryId = Integer.valueOf(category);
-                } catch (NumberFormatException e) {
-                    // Invalid category ID, ignore and continue
-                }
-            }
-            
-            // Use appropriate repository method based on provided filters
+            // Select list rows only; the full product is loaded by the details endpoint
             if (search != null && !search.isEmpty()) {
-                products = productRepository.findByVendorIdWithSearch(vendorId, search, pageable);
-            } else if (productStatus != null || categoryId != null) {
-                products = productRepository.findByVendorIdWithFilters(vendorId, productStatus, categoryId, pageable);
+                products = productSearchService.searchVendorProductRows(vendorId, search, pageable);
             } else {
-                products = productRepository.findByCreatedByUserId(vendorId, pageable);
+                products = productRepository.findVendorProductRows(vendorId, productStatus, categoryId, pageable);
             }
             
-            // Convert entities to DTOs to avoid serialization issues
-            return products.map(product -> productMapper.toDto(product));
+            return products.map(row -> productMapper.toDto(row));
             
         } catch (Exception e) {
             // Return empty page on error
@@ -183,6 +205,40 @@ public class VendorManagementService {
         }
     }
 
+    /**
+     * Stream all of a vendor's products as list rows, newest first, without paging
+     * The stream reads from an open result set and must be consumed (and closed) inside the
+     * caller's transaction, see JsonResponseStreamer
+     */
+    @Transactional(readOnly = true)
+    public Stream<ProductResponseDto> streamVendorProducts(Integer vendorId, String status, String category) {
+        return productRepository.streamVendorProductRows(vendorId, parseProductStatus(status), parseCategoryId(category))
+            .map(row -> productMapper.toDto(row));
+    }
+
+    // Invalid filter values are ignored rather than rejected
+    private Product.ProductStatus parseProductStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return Product.ProductStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Integer parseCategoryId(String category) {
+        if (category == null || category.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(category);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Get product statistics for vendor
      */
@@ -195,6 +251,7 @@ public class VendorManagementService {
         stats.put("outOfStockProducts", getOutOfStockProductCount(vendorId));
         stats.put("lowStockProducts", getLowStockProductCount(vendorId));
         stats.put("totalVariants", getTotalVariantCount(vendorId));
+        stats.put("lowStockVariants", getLowStockVariantCount(vendorId));
         
         return stats;
     }
@@ -621,9 +678,14 @@ public class VendorManagementService {
      * Get vendor orders with filtering
      */
     public Page<Order> getVendorOrders(Integer vendorId, Pageable pageable, String status, String search) {
-        // Implementation would use custom query to filter orders containing vendor's products
-        // For now, basic implementation
-        return orderRepository.findAll(pageable);
+        // Filters on the current status kept on the order row, not on the status history
+        if (status != null && !status.isBlank()) {
+            return orderRepository.findOrdersByVendorAndStatus(vendorId, status, pageable);
+        }
+        if (search != null && !search.isBlank()) {
+            return orderRepository.findOrdersByVendorWithSearch(vendorId, search, pageable);
+        }
+        return orderRepository.findOrdersByVendor(vendorId, pageable);
     }
 
     /**
@@ -649,17 +711,21 @@ public class VendorManagementService {
     /**
      * Update order status
      */
-    public Order updateOrderStatus(Integer vendorId, Integer orderId, String status, String notes) {
-        Order order = orderRepository.findById(orderId.longValue())
+    public Order updateOrderStatus(Integer vendorId, Long orderId, String status, String notes) {
+        Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new RuntimeException("Order not found"));
         
         // Verify vendor has products in this order
         // This would require checking if any order items belong to vendor's products
         
+        String previousStatus = order.getStatus();
         order.setStatus(status);
-        // Would also create an order status history entry
-        
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        if (!status.equals(previousStatus)) {
+            orderStatusLog.append(orderId, status, previousStatus, vendorId, notes);
+            salesRollupRecorder.recordStatusChange(savedOrder, previousStatus);
+        }
+        return savedOrder;
     }
 
     // ===========================
@@ -797,8 +863,17 @@ public class VendorManagementService {
     }
 
     private long getLowStockProductCount(Integer vendorId) {
-        // Implementation would count products with quantity <= minStockAlert
-        return 0;
+        if (!lowStockIndex.isReady()) {
+            return productRepository.findLowStockProductsByVendor(vendorId).size();
+        }
+        return lowStockIndex.countLowStockProducts(vendorId);
+    }
+
+    private long getLowStockVariantCount(Integer vendorId) {
+        if (!lowStockIndex.isReady()) {
+            return productVariantRepository.findLowStockVariantsByVendor(vendorId).size();
+        }
+        return lowStockIndex.countLowStockVariants(vendorId);
     }
 
     private long getTotalVariantCount(Integer vendorId) {
@@ -846,8 +921,14 @@ public class VendorManagementService {
     }
 
     private List<Product> getLowStockProducts(Integer vendorId) {
-        // Implementation would return products with low stock
-        return new ArrayList<>();
+        if (!lowStockIndex.isReady()) {
+            return productRepository.findLowStockProductsByVendor(vendorId);
+        }
+        List<Integer> productIds = lowStockIndex.getLowStockProductIds(vendorId);
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return productRepository.findWithContentByProductIdIn(productIds);
     }
 
     private Map<String, Object> getGrowthMetrics(Integer vendorId, int days) {
@@ -871,118 +952,49 @@ public class VendorManagementService {
     }
 
     private int getPendingOrderCount(Integer vendorId) {
-        // Implementation would count pending orders
-        return 0;
+        return (int) orderRepository.countOrdersByVendorAndStatus(vendorId, "PENDING");
     }
 
     private int getProcessingOrderCount(Integer vendorId) {
-        // Implementation would count processing orders
-        return 0;
+        return (int) orderRepository.countOrdersByVendorAndStatus(vendorId, "PROCESSING");
     }
 
     private int getShippedOrderCount(Integer vendorId) {
-        // Implementation would count shipped orders
-        return 0;
+        return (int) orderRepository.countOrdersByVendorAndStatus(vendorId, "SHIPPED");
     }
 
     private int getDeliveredOrderCount(Integer vendorId) {
-        // Implementation would count delivered orders
-        return 0;
+        return (int) orderRepository.countOrdersByVendorAndStatus(vendorId, "DELIVERED");
     }
 
     private int getCancelledOrderCount(Integer vendorId) {
-        // Implementation would count cancelled orders
-        return 0;
+        return (int) orderRepository.countOrdersByVendorAndStatus(vendorId, "CANCELLED");
     }
 
     /**
-     * Generate SKU in format GM[XX][000][0000]
-     * XX = 2 letters from category name (e.g., FR for Fruits)
-     * 000 = 3-digit vendor ID
-     * 0000 = 4-digit sequential product number
+     * Generate SKU in format GM[XX][000][0000], see SkuAllocationService
      */
     private String generateSKU(Integer vendorId, Product product) {
-        // Get category code (2 letters)
-        String categoryCode = "GM"; // Default if no category
-        if (product.getCategory() != null && product.getCategory().getName() != null) {
-            String categoryName = product.getCategory().getName().toUpperCase();
-            // Remove any non-alphabetic characters
-            categoryName = categoryName.replaceAll("[^A-Z]", "");
-            // Take first two letters, or pad with 'X' if needed
-            if (categoryName.length() >= 2) {
-                categoryCode = categoryName.substring(0, 2);
-            } else if (categoryName.length() == 1) {
-                categoryCode = categoryName + "X";
-            }
-        }
-        
-        // Format vendor ID to 3 digits
-        String vendorCode = String.format("%03d", vendorId);
-        
-        // Get sequential number based on existing products count
-        long sequence = getProductCount(vendorId) + 1;
-        String productNumber = String.format("%04d", sequence);
-        
-        return "GM" + categoryCode + vendorCode + productNumber;
+        String categoryName = product.getCategory() != null ? product.getCategory().getName() : null;
+        return skuAllocationService.nextSku(vendorId, categoryName);
     }
 
     /**
      * Generate SKU from DTO
      */
     private String generateSkuFromDto(Integer vendorId, String productTitle, Integer categoryId) {
-        // Get category code (2 letters)
-        String categoryCode = "GM"; // Default if no category
+        String categoryName = null;
         if (categoryId != null) {
-            Category category = categoryRepository.findById(categoryId).orElse(null);
-            if (category != null && category.getName() != null) {
-                String categoryName = category.getName().toUpperCase();
-                // Remove any non-alphabetic characters
-                categoryName = categoryName.replaceAll("[^A-Z]", "");
-                // Take first two letters, or pad with 'X' if needed
-                if (categoryName.length() >= 2) {
-                    categoryCode = categoryName.substring(0, 2);
-                } else if (categoryName.length() == 1) {
-                    categoryCode = categoryName + "X";
-                }
-            }
+            categoryName = categoryRepository.findById(categoryId).map(Category::getName).orElse(null);
         }
-        
-        // Format vendor ID to 3 digits
-        String vendorCode = String.format("%03d", vendorId);
-        
-        // Get sequential number based on existing products count
-        long sequence = getProductCount(vendorId) + 1;
-        String productNumber = String.format("%04d", sequence);
-        
-        return "GM" + categoryCode + vendorCode + productNumber;
+        return skuAllocationService.nextSku(vendorId, categoryName);
     }
 
     /**
      * Generate SKU for public API
      */
     public String generateSku(Integer vendorId, String category, String subcategory) {
-        // Get category code (2 letters)
-        String categoryCode = "GM"; // Default if no category
-        if (category != null && !category.isEmpty()) {
-            String categoryName = category.toUpperCase();
-            // Remove any non-alphabetic characters
-            categoryName = categoryName.replaceAll("[^A-Z]", "");
-            // Take first two letters, or pad with 'X' if needed
-            if (categoryName.length() >= 2) {
-                categoryCode = categoryName.substring(0, 2);
-            } else if (categoryName.length() == 1) {
-                categoryCode = categoryName + "X";
-            }
-        }
-        
-        // Format vendor ID to 3 digits
-        String vendorCode = String.format("%03d", vendorId);
-        
-        // Get sequential number based on existing products count
-        long sequence = getProductCount(vendorId) + 1;
-        String productNumber = String.format("%04d", sequence);
-        
-        return "GM" + categoryCode + vendorCode + productNumber;
+        return skuAllocationService.nextSku(vendorId, category != null && !category.isEmpty() ? category : null);
     }
 
     private String generateVariantSKU(Product product, ProductVariant variant) {
@@ -1246,182 +1258,176 @@ public class VendorManagementService {
 
     /**
      * Get detailed product information for comprehensive editing
+     * Served from VendorProductDetailsCache; a miss loads the product with its category and vendor
+     * in one query and the variants in a second one
      */
-    public Map<String, Object> getProductDetails(Integer vendorId, Integer productId) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
+    public VendorProductDetailsDto getProductDetails(Integer vendorId, Integer productId) {
+        VendorProductDetailsDto details = vendorProductDetailsCache.get(productId, this::assembleProductDetails);
+        if (details == null) {
+            throw new RuntimeException("Product not found");
+        }
         
         // Verify ownership
-        if (!product.getCreatedBy().getUserId().equals(vendorId)) {
+        if (!details.getVendorId().equals(vendorId)) {
             throw new RuntimeException("Unauthorized to access this product");
         }
         
-        Map<String, Object> details = new HashMap<>();
+        return details;
+    }
+
+    /**
+     * Get product analytics data
+     */
+    public VendorProductDetailsDto.Analytics getProductAnalytics(Integer vendorId, Integer productId) {
+        return getProductDetails(vendorId, productId).getAnalytics();
+    }
+
+    private VendorProductDetailsDto assembleProductDetails(Integer productId) {
+        Product product = productRepository.findWithCategoryAndVendorById(productId).orElse(null);
+        if (product == null) {
+            return null;
+        }
+        
+        VendorProductDetailsDto details = new VendorProductDetailsDto();
+        details.setVendorId(product.getCreatedBy() != null ? product.getCreatedBy().getUserId() : null);
         
         // ===========================
         // BASIC INFORMATION
         // ===========================
-        Map<String, Object> basic = new HashMap<>();
-        basic.put("productId", product.getProductId());
-        basic.put("name", product.getName());
-        basic.put("description", product.getDescription());
-        basic.put("shortDescription", product.getShortDescription());
-        basic.put("sku", product.getSku());
-        basic.put("categoryId", product.getCategory() != null ? product.getCategory().getCategoryId() : null);
-        basic.put("categoryName", product.getCategory() != null ? product.getCategory().getName() : "Uncategorized");
-        basic.put("subcategoryId", product.getSubcategoryId());
-        basic.put("brand", product.getBrand());
-        basic.put("productType", product.getProductType() != null ? product.getProductType().toString() : "SIMPLE");
-        basic.put("status", product.getStatus() != null ? product.getStatus().toString() : "ACTIVE");
-        basic.put("createdAt", product.getCreatedAt());
-        basic.put("updatedAt", product.getCreatedAt()); // Using createdAt since updatedAt doesn't exist
-        details.put("basic", basic);
+        VendorProductDetailsDto.Basic basic = new VendorProductDetailsDto.Basic();
+        basic.setProductId(product.getProductId());
+        basic.setName(product.getName());
+        basic.setDescription(product.getDescription());
+        basic.setShortDescription(product.getShortDescription());
+        basic.setSku(product.getSku());
+        basic.setCategoryId(product.getCategory() != null ? product.getCategory().getCategoryId() : null);
+        basic.setCategoryName(product.getCategory() != null ? product.getCategory().getName() : "Uncategorized");
+        basic.setSubcategoryId(product.getSubcategoryId());
+        basic.setBrand(product.getBrand());
+        basic.setProductType(product.getProductType() != null ? product.getProductType().toString() : "SIMPLE");
+        basic.setStatus(product.getStatus() != null ? product.getStatus().toString() : "ACTIVE");
+        basic.setCreatedAt(product.getCreatedAt());
+        basic.setUpdatedAt(product.getCreatedAt()); // Using createdAt since updatedAt doesn't exist
+        details.setBasic(basic);
         
         // ===========================
         // PRICING STRATEGY
         // ===========================
-        Map<String, Object> pricing = new HashMap<>();
-        pricing.put("price", product.getPrice());
-        pricing.put("mrp", product.getMrp());
-        pricing.put("costPrice", product.getCostPrice());
-        pricing.put("offerStartDate", product.getOfferStartDate());
-        pricing.put("offerEndDate", product.getOfferEndDate());
-        pricing.put("bulkPricingTiers", product.getBulkPricingTiers());
-        pricing.put("comparePrice", product.getMrp()); // Use MRP as compare price
-        pricing.put("margin", calculateMargin(product.getPrice(), product.getCostPrice()));
-        details.put("pricing", pricing);
+        VendorProductDetailsDto.Pricing pricing = new VendorProductDetailsDto.Pricing();
+        pricing.setPrice(product.getPrice());
+        pricing.setMrp(product.getMrp());
+        pricing.setCostPrice(product.getCostPrice());
+        pricing.setOfferStartDate(product.getOfferStartDate());
+        pricing.setOfferEndDate(product.getOfferEndDate());
+        pricing.setBulkPricingTiers(product.getBulkPricingTiers());
+        pricing.setComparePrice(product.getMrp()); // Use MRP as compare price
+        pricing.setMargin(calculateMargin(product.getPrice(), product.getCostPrice()));
+        details.setPricing(pricing);
         
         // ===========================
         // INVENTORY MANAGEMENT
         // ===========================
-        Map<String, Object> inventory = new HashMap<>();
-        inventory.put("stockQuantity", product.getQuantity());
-        inventory.put("unitOfMeasurement", product.getUnitOfMeasurement());
-        inventory.put("minimumOrderQuantity", product.getMinimumOrderQuantity());
-        inventory.put("maximumOrderQuantity", product.getMaximumOrderQuantity());
-        inventory.put("minStockAlert", product.getMinStockAlert() != null ? product.getMinStockAlert() : 10);
-        inventory.put("trackQuantity", product.getTrackQuantity());
-        inventory.put("restockDate", product.getRestockDate());
-        inventory.put("variants", getProductVariants(vendorId, productId));
-        details.put("inventory", inventory);
+        VendorProductDetailsDto.Inventory inventory = new VendorProductDetailsDto.Inventory();
+        inventory.setStockQuantity(product.getQuantity());
+        inventory.setUnitOfMeasurement(product.getUnitOfMeasurement());
+        inventory.setMinimumOrderQuantity(product.getMinimumOrderQuantity());
+        inventory.setMaximumOrderQuantity(product.getMaximumOrderQuantity());
+        inventory.setMinStockAlert(product.getMinStockAlert() != null ? product.getMinStockAlert() : 10);
+        inventory.setTrackQuantity(product.getTrackQuantity());
+        inventory.setRestockDate(product.getRestockDate());
+        inventory.setVariants(productVariantRepository.findByProductProductIdOrderBySortOrderAsc(productId));
+        details.setInventory(inventory);
         
         // ===========================
         // MEDIA GALLERY
         // ===========================
-        Map<String, Object> media = new HashMap<>();
+        VendorProductDetailsDto.Media media = new VendorProductDetailsDto.Media();
         List<String> images = new ArrayList<>();
         if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
             images.add(product.getImageUrl());
         }
         // Add gallery images if available
         if (product.getGalleryImages() != null && !product.getGalleryImages().isEmpty()) {
-            // Parse gallery images JSON string
-            try {
-                String[] galleryImages = product.getGalleryImages().split(",");
-                for (String img : galleryImages) {
-                    if (!img.trim().isEmpty()) {
-                        images.add(img.trim());
-                    }
+            for (String img : product.getGalleryImages().split(",")) {
+                if (!img.trim().isEmpty()) {
+                    images.add(img.trim());
                 }
-            } catch (Exception e) {
-                // Fallback if parsing fails
             }
         }
-        media.put("images", images);
-        media.put("mainImageUrl", product.getImageUrl());
-        media.put("galleryImages", images.size() > 1 ? images.subList(1, images.size()) : new ArrayList<>());
-        media.put("videoUrl", product.getVideoUrl());
-        media.put("imageAltTags", product.getImageAltTags() != null ? product.getImageAltTags() : new ArrayList<>());
-        media.put("videos", new ArrayList<>());
-        media.put("documents", new ArrayList<>());
-        details.put("media", media);
+        media.setImages(images);
+        media.setMainImageUrl(product.getImageUrl());
+        media.setGalleryImages(images.size() > 1 ? images.subList(1, images.size()) : new ArrayList<>());
+        media.setVideoUrl(product.getVideoUrl());
+        media.setImageAltTags(product.getImageAltTags() != null ? product.getImageAltTags() : new ArrayList<>());
+        details.setMedia(media);
         
         // ===========================
         // SHIPPING & LOGISTICS
         // ===========================
-        Map<String, Object> shipping = new HashMap<>();
-        shipping.put("weightForShipping", product.getWeightForShipping());
-        shipping.put("dimensions", product.getDimensions());
-        shipping.put("deliveryTimeEstimate", product.getDeliveryTimeEstimate());
-        shipping.put("shippingClass", product.getShippingClass() != null ? product.getShippingClass().toString() : "STANDARD");
-        shipping.put("coldStorageRequired", product.getColdStorageRequired());
-        shipping.put("specialPackaging", product.getSpecialPackaging());
-        shipping.put("insuranceRequired", product.getInsuranceRequired());
-        shipping.put("freeShipping", product.getFreeShipping());
-        shipping.put("freeShippingThreshold", product.getFreeShippingThreshold());
-        shipping.put("isReturnable", product.getIsReturnable());
-        shipping.put("returnWindow", product.getReturnWindow() != null ? product.getReturnWindow().toString() : "SEVEN_DAYS");
-        shipping.put("returnConditions", product.getReturnConditions() != null ? product.getReturnConditions() : new ArrayList<>());
-        shipping.put("isCodAvailable", product.getIsCodAvailable());
-        details.put("shipping", shipping);
+        VendorProductDetailsDto.Shipping shipping = new VendorProductDetailsDto.Shipping();
+        shipping.setWeightForShipping(product.getWeightForShipping());
+        shipping.setDimensions(product.getDimensions());
+        shipping.setDeliveryTimeEstimate(product.getDeliveryTimeEstimate());
+        shipping.setShippingClass(product.getShippingClass() != null ? product.getShippingClass().toString() : "STANDARD");
+        shipping.setColdStorageRequired(product.getColdStorageRequired());
+        shipping.setSpecialPackaging(product.getSpecialPackaging());
+        shipping.setInsuranceRequired(product.getInsuranceRequired());
+        shipping.setFreeShipping(product.getFreeShipping());
+        shipping.setFreeShippingThreshold(product.getFreeShippingThreshold());
+        shipping.setIsReturnable(product.getIsReturnable());
+        shipping.setReturnWindow(product.getReturnWindow() != null ? product.getReturnWindow().toString() : "SEVEN_DAYS");
+        shipping.setReturnConditions(product.getReturnConditions() != null ? product.getReturnConditions() : new ArrayList<>());
+        shipping.setIsCodAvailable(product.getIsCodAvailable());
+        details.setShipping(shipping);
         
         // ===========================
         // PRODUCT DESCRIPTIONS
         // ===========================
-        Map<String, Object> descriptions = new HashMap<>();
-        descriptions.put("shortDescription", product.getShortDescription());
-        descriptions.put("detailedDescription", product.getDescription());
-        descriptions.put("keyFeatures", product.getKeyFeatures() != null ? product.getKeyFeatures() : new ArrayList<>());
-        descriptions.put("productHighlights", product.getProductHighlights());
-        descriptions.put("usageInstructions", ""); // Not in current model
-        descriptions.put("storageInstructions", ""); // Not in current model
-        descriptions.put("ingredients", ""); // Not in current model
-        descriptions.put("nutritionalInfo", ""); // Not in current model
-        descriptions.put("shelfLife", ""); // Not in current model
-        descriptions.put("origin", ""); // Not in current model
-        details.put("descriptions", descriptions);
+        VendorProductDetailsDto.Descriptions descriptions = new VendorProductDetailsDto.Descriptions();
+        descriptions.setShortDescription(product.getShortDescription());
+        descriptions.setDetailedDescription(product.getDescription());
+        descriptions.setKeyFeatures(product.getKeyFeatures() != null ? product.getKeyFeatures() : new ArrayList<>());
+        descriptions.setProductHighlights(product.getProductHighlights());
+        details.setDescriptions(descriptions);
         
         // ===========================
         // CERTIFICATIONS & COMPLIANCE
         // ===========================
-        Map<String, Object> certifications = new HashMap<>();
-        certifications.put("fssaiLicense", product.getFssaiLicense());
-        certifications.put("organicCertification", ""); // Not in current model
-        certifications.put("isoCertification", ""); // Not in current model
-        certifications.put("qualityCertifications", product.getQualityCertifications());
-        details.put("certifications", certifications);
+        VendorProductDetailsDto.Certifications certifications = new VendorProductDetailsDto.Certifications();
+        certifications.setFssaiLicense(product.getFssaiLicense());
+        certifications.setQualityCertifications(product.getQualityCertifications());
+        details.setCertifications(certifications);
         
         // ===========================
         // SEO & MARKETING
         // ===========================
-        Map<String, Object> seo = new HashMap<>();
-        seo.put("metaTitle", product.getMetaTitle());
-        seo.put("metaDescription", product.getMetaDescription());
-        seo.put("searchKeywords", product.getSearchKeywords() != null ? product.getSearchKeywords() : new ArrayList<>());
-        seo.put("urlSlug", product.getUrlSlug());
-        seo.put("structuredData", product.getStructuredData());
-        seo.put("socialMediaText", ""); // Not in current model
-        details.put("seo", seo);
-        
-        // Analytics placeholder
-        details.put("analytics", getProductAnalytics(vendorId, productId));
+        VendorProductDetailsDto.Seo seo = new VendorProductDetailsDto.Seo();
+        seo.setMetaTitle(product.getMetaTitle());
+        seo.setMetaDescription(product.getMetaDescription());
+        seo.setSearchKeywords(product.getSearchKeywords() != null ? product.getSearchKeywords() : new ArrayList<>());
+        seo.setUrlSlug(product.getUrlSlug());
+        seo.setStructuredData(product.getStructuredData());
+        details.setSeo(seo);
+        
+        details.setAnalytics(assembleProductAnalytics(productId));
         
         return details;
     }
 
-    /**
-     * Get product analytics data
-     */
-    public Map<String, Object> getProductAnalytics(Integer vendorId, Integer productId) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        // Verify ownership
-        if (!product.getCreatedBy().getUserId().equals(vendorId)) {
-            throw new RuntimeException("Unauthorized to access this product");
-        }
-        
-        Map<String, Object> analytics = new HashMap<>();
-        
-        // Mock analytics data - In real implementation, these would come from order/analytics tables
-        analytics.put("totalSales", getProductSalesCount(productId));
-        analytics.put("totalRevenue", getProductRevenue(productId));
-        analytics.put("pageViews", Math.random() * 1000); // Mock data
-        analytics.put("addToCartRate", Math.random() * 0.3); // Mock conversion rate
-        analytics.put("conversionRate", Math.random() * 0.15); // Mock conversion rate
-        analytics.put("averageRating", 4.2 + (Math.random() * 0.8)); // Mock rating 4.2-5.0
-        analytics.put("reviewCount", (int)(Math.random() * 50)); // Mock review count
-        
+    private VendorProductDetailsDto.Analytics assembleProductAnalytics(Integer productId) {
+        Object[] sales = orderItemRepository.calculateSalesTotalsForProduct(productId).get(0);
+        int totalSales = ((Number) sales[0]).intValue();
+        EngagementCounters.Delta engagement = productEngagementTracker.getTotals(List.of(productId)).get(productId);
+        ProductRatingDto rating = productRatingService.getRating(productId);
+
+        VendorProductDetailsDto.Analytics analytics = new VendorProductDetailsDto.Analytics();
+        analytics.setTotalSales(totalSales);
+        analytics.setTotalRevenue((BigDecimal) sales[1]);
+        analytics.setPageViews(engagement.views());
+        analytics.setAddToCartRate(rateOf(engagement.cartAdditions(), engagement.views()));
+        analytics.setConversionRate(rateOf(totalSales, engagement.views()));
+        analytics.setAverageRating(rating.getAverageRating());
+        analytics.setReviewCount(rating.getReviewCount());
         return analytics;
     }
 
@@ -1489,14 +1495,11 @@ public class VendorManagementService {
     }
 
     // Helper methods for analytics
-    private Integer getProductSalesCount(Integer productId) {
-        // In real implementation, query from order_items table
-        return (int)(Math.random() * 100); // Mock data
-    }
-
-    private BigDecimal getProductRevenue(Integer productId) {
-        // In real implementation, sum revenue from order_items table
-        return BigDecimal.valueOf(Math.random() * 10000); // Mock data
+    private double rateOf(long count, long views) {
+        if (views <= 0) {
+            return 0.0;
+        }
+        return Math.round((double) count / views * 10000.0) / 10000.0; // Round to 4 decimal places
     }
 
     private BigDecimal calculateMargin(BigDecimal sellingPrice, BigDecimal costPrice) {
@@ -1554,37 +1557,20 @@ public class VendorManagementService {
     }
 
     /**
-     * Get product categories from database
+     * Get product categories from the category snapshot
      * SIMPLIFIED: Returns only categories (no subcategories)
      */
     public Map<String, Object> getProductCategories() {
-        Map<String, Object> result = new HashMap<>();
-        
         try {
-            // Get real categories from database
-            List<Category> dbCategories = categoryRepository.findAll();
-            
-            for (Category category : dbCategories) {
-                Map<String, Object> categoryData = new HashMap<>();
-                categoryData.put("id", category.getCategoryId());
-                categoryData.put("name", category.getName());
-                // No subcategories - admin controls categories only
-                
-                result.put(String.valueOf(category.getCategoryId()), categoryData);
-            }
+            CategorySnapshot snapshot = categorySnapshotCache.get();
             
             // If no categories found in database, return default ones
-            if (result.isEmpty()) {
-                System.out.println("=== WARNING: No categories found in database, returning defaults");
+            if (snapshot.isEmpty()) {
                 return getDefaultCategories();
             }
-            
-            System.out.println("=== DEBUG: Retrieved " + result.size() + " categories from database");
-            return result;
+            return snapshot.getVendorCategories();
             
         } catch (Exception e) {
-            System.err.println("=== ERROR: Failed to retrieve categories from database: " + e.getMessage());
-            e.printStackTrace();
             // Fallback to default categories
             return getDefaultCategories();
         }
@@ -2014,15 +2000,8 @@ public class VendorManagementService {
     }
 
     private String generateSkuFromProduct(Integer vendorId, Product product) {
-        String categoryCode = "GM";
-        if (product.getCategory() != null && product.getCategory().getName() != null) {
-            categoryCode = product.getCategory().getName().substring(0, Math.min(2, product.getCategory().getName().length())).toUpperCase();
-        }
-        
-        String vendorCode = String.format("%03d", vendorId);
-        String productNumber = String.format("%04d", (int) (Math.random() * 9999) + 1);
-        
-        return "GM" + categoryCode + vendorCode + productNumber;
+        String categoryName = product.getCategory() != null ? product.getCategory().getName() : null;
+        return skuAllocationService.nextSku(vendorId, categoryName);
     }
 
     private String generateUrlSlug(String title) {
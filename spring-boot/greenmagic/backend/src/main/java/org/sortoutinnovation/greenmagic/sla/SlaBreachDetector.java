@@ -0,0 +1,203 @@
+package org.sortoutinnovation.greenmagic.sla;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sortoutinnovation.greenmagic.dto.OrderSlaDeadlineDto;
+import org.sortoutinnovation.greenmagic.event.OrderSlaBreachedEvent;
+import org.sortoutinnovation.greenmagic.event.OrderStatusChangedEvent;
+import org.sortoutinnovation.greenmagic.repository.OrderStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Detects orders still in a status when its SLA deadline passes
+ * Open deadlines are kept in a TimingWheel, one timer per order: loaded from the current rows of
+ * order_status_history at startup, then replaced or cancelled by each committed status change, so
+ * the table is never polled. A timer thread advances the wheel every tick and publishes an
+ * OrderSlaBreachedEvent for each deadline reached; the breached rows are flagged by a periodic flush,
+ * one UPDATE per batch of rows
+ * Deadlines that passed while the application was down fire on the first tick
+ */
+@Component
+public class SlaBreachDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(SlaBreachDetector.class);
+
+    private static final int FLAG_BATCH_SIZE = 1000;
+
+    @Autowired
+    private OrderStatusRepository orderStatusRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long tickMillis;
+
+    // The wheel and the timer of each order are guarded by this
+    private final TimingWheel<OrderSlaDeadlineDto> wheel;
+    private final Map<Long, TimingWheel.Timeout<OrderSlaDeadlineDto>> timers = new HashMap<>();
+
+    // Status rows breached since the last flush
+    private final Queue<Long> breachedStatusIds = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledThreadPoolExecutor ticker;
+
+    public SlaBreachDetector(PlatformTransactionManager transactionManager,
+                             @Value("${orders.sla.tick-ms:1000}") long tickMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.ticker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "order-sla-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load the open deadlines and start the wheel
+     */
+    @PostConstruct
+    public void start() {
+        Integer loaded = transactionTemplate.execute(status -> {
+            int count = 0;
+            try (Stream<OrderSlaDeadlineDto> deadlines = orderStatusRepository.streamOpenSlaDeadlines()) {
+                for (OrderSlaDeadlineDto deadline : (Iterable<OrderSlaDeadlineDto>) deadlines::iterator) {
+                    schedule(deadline);
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Tracking {} open order SLA deadlines", loaded);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replace the order's timer with the deadline of its new status, or drop it if that status has no SLA
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getSlaDeadline() != null) {
+            schedule(new OrderSlaDeadlineDto(event.getOrderId(), event.getStatusId(), event.getStatus(), event.getSlaDeadline()));
+        } else {
+            cancel(event.getOrderId(), event.getStatusId());
+        }
+    }
+
+    /**
+     * Number of orders with a pending SLA deadline
+     */
+    public synchronized int openDeadlines() {
+        return wheel.size();
+    }
+
+    /**
+     * Flag the status rows breached since the last flush
+     */
+    @Scheduled(fixedDelayString = "${orders.sla.flush-interval-ms:1000}")
+    public void flushBreaches() {
+        List<Long> statusIds = new ArrayList<>();
+        Long statusId;
+        while ((statusId = breachedStatusIds.poll()) != null) {
+            statusIds.add(statusId);
+        }
+        if (statusIds.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < statusIds.size(); from += FLAG_BATCH_SIZE) {
+                    orderStatusRepository.markSlaBreached(
+                        statusIds.subList(from, Math.min(from + FLAG_BATCH_SIZE, statusIds.size())));
+                }
+            });
+        } catch (Exception e) {
+            // Retried on the next flush
+            breachedStatusIds.addAll(statusIds);
+            log.warn("Failed to flag SLA breaches: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        flushBreaches();
+    }
+
+    private synchronized void schedule(OrderSlaDeadlineDto deadline) {
+        TimingWheel.Timeout<OrderSlaDeadlineDto> current = timers.get(deadline.getOrderId());
+        if (current != null) {
+            // Status IDs are time-ordered; an older status committed late must not replace a newer one
+            if (current.getPayload().getStatusId() > deadline.getStatusId()) {
+                return;
+            }
+            wheel.cancel(current);
+        }
+        timers.put(deadline.getOrderId(), wheel.schedule(deadline, toMillis(deadline.getSlaDeadline())));
+    }
+
+    private synchronized void cancel(Long orderId, Long statusId) {
+        TimingWheel.Timeout<OrderSlaDeadlineDto> current = timers.get(orderId);
+        if (current != null && current.getPayload().getStatusId() < statusId) {
+            wheel.cancel(current);
+            timers.remove(orderId);
+        }
+    }
+
+    private void tick() {
+        try {
+            List<TimingWheel.Timeout<OrderSlaDeadlineDto>> expired;
+            synchronized (this) {
+                expired = wheel.advance(System.currentTimeMillis());
+                for (TimingWheel.Timeout<OrderSlaDeadlineDto> timeout : expired) {
+                    timers.remove(timeout.getPayload().getOrderId(), timeout);
+                }
+            }
+            if (expired.isEmpty()) {
+                return;
+            }
+            // Handlers run outside the lock so status changes are not held up behind them
+            for (TimingWheel.Timeout<OrderSlaDeadlineDto> timeout : expired) {
+                OrderSlaDeadlineDto deadline = timeout.getPayload();
+                breachedStatusIds.add(deadline.getStatusId());
+                try {
+                    eventPublisher.publishEvent(new OrderSlaBreachedEvent(
+                        deadline.getOrderId(), deadline.getStatusId(), deadline.getStatus(), deadline.getSlaDeadline()));
+                } catch (Exception e) {
+                    log.warn("SLA breach handler failed for order {}: {}", deadline.getOrderId(), e.getMessage());
+                }
+            }
+            log.info("{} orders breached their status SLA", expired.size());
+        } catch (Exception e) {
+            // Thrown out of a periodic task it would stop the wheel
+            log.error("Failed to advance the SLA timing wheel", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,176 @@
+package org.sortoutinnovation.greenmagic.sla;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each slot of a level spanning one full turn of
+ * the level below, so with 1-second ticks it holds deadlines up to 194 days ahead
+ * Each slot is an intrusive doubly linked list, so scheduling and cancelling a timer are O(1) whatever
+ * the number of timers; a timer is moved down a level at most three times before it expires
+ * Deadlines further ahead than the wheel covers park in the top level and are re-placed as it turns
+ * Not thread-safe; callers serialize access
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * A scheduled timer; hand it back to cancel
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineMillis;
+        private final long tick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Timeout(T payload, long deadlineMillis, long tick) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.tick = tick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean isPending() {
+            return level >= 0;
+        }
+    }
+
+    private final long originMillis;
+    private final long tickMillis;
+
+    @SuppressWarnings("unchecked")
+    private final Timeout<T>[][] heads = new Timeout[LEVELS][SLOTS];
+
+    // Next tick to expire; every tick before it has been processed
+    private long nextTick;
+
+    private int size;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = startMillis;
+    }
+
+    /**
+     * Schedule a timer; a deadline already passed expires with the next tick to be processed
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        // Rounded up so a timer never fires before its deadline
+        long tick = Math.max(0, Math.ceilDiv(deadlineMillis - originMillis, tickMillis));
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis, tick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancel a pending timer
+     * @return true if it was pending, false if it had already expired or been cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Expire every timer due by the given time
+     * @return expired timers, earliest tick first
+     */
+    public List<Timeout<T>> advance(long nowMillis) {
+        long lastTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        List<Timeout<T>> expired = new ArrayList<>();
+        while (nextTick <= lastTick) {
+            int index = (int) (nextTick & SLOT_MASK);
+            // Entering a new turn of a level: move the slot of the level above that starts here down
+            for (int level = 1; index == 0 && level < LEVELS; level++) {
+                index = (int) ((nextTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                cascade(level, index);
+            }
+            Timeout<T> timeout = heads[0][(int) (nextTick & SLOT_MASK)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                unlink(timeout);
+                size--;
+                expired.add(timeout);
+                timeout = next;
+            }
+            nextTick++;
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout<T> timeout = heads[level][slot];
+        heads[level][slot] = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long tick = Math.max(timeout.tick, nextTick);
+        long delta = tick - nextTick;
+        if (delta > MAX_DELTA) {
+            tick = nextTick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Timeout<T> head = heads[level][slot];
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        heads[level][slot] = timeout;
+        timeout.level = level;
+        timeout.slot = slot;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            heads[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+}
@@ -0,0 +1,16 @@
+-- Widen the key columns of time-ordered IDs (see IdGeneratorConfig) to BIGINT
+-- Run once against schemas created before orders, order items and cart items took 64-bit IDs:
+-- ddl-auto=update adds columns but never changes their types
+-- MODIFY also drops AUTO_INCREMENT, as IDs now come from the application
+-- Foreign key checks are off only so referencing and referenced columns can be widened one at a time
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE orders MODIFY order_id BIGINT NOT NULL;
+ALTER TABLE order_items MODIFY order_item_id BIGINT NOT NULL, MODIFY order_id BIGINT;
+ALTER TABLE order_status_history MODIFY status_id BIGINT NOT NULL, MODIFY order_id BIGINT NOT NULL;
+ALTER TABLE financial_transactions MODIFY order_id BIGINT;
+ALTER TABLE cart_items MODIFY cart_item_id BIGINT NOT NULL;
+ALTER TABLE product_variants MODIFY variant_id BIGINT NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
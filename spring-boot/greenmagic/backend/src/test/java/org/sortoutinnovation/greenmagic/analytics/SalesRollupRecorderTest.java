@@ -0,0 +1,171 @@
+package org.sortoutinnovation.greenmagic.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.model.SalesRollup;
+import org.sortoutinnovation.greenmagic.repository.SalesRollupRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SalesRollupRecorderTest {
+
+    private static final LocalDateTime PLACED = LocalDateTime.of(2025, 3, 9, 23, 40);
+
+    private final DataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:sales_rollups;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final SalesRollupRepository salesRollupRepository = mock(SalesRollupRepository.class);
+
+    private SalesRollupRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT PRIMARY KEY, order_date TIMESTAMP, status VARCHAR(50), "
+            + "payment_status VARCHAR(20), total_price DECIMAL(10,2), total_tax DECIMAL(10,2))");
+        jdbcTemplate.execute("CREATE TABLE sales_rollups (rollup_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "granularity VARCHAR(10) NOT NULL, period_start TIMESTAMP NOT NULL, stripe INT NOT NULL, "
+            + "order_count BIGINT NOT NULL, gross_sales DECIMAL(15,2) NOT NULL, completed_count BIGINT NOT NULL, "
+            + "completed_sales DECIMAL(15,2) NOT NULL, completed_tax DECIMAL(15,2) NOT NULL, "
+            + "CONSTRAINT uk_sales_rollup_period UNIQUE (granularity, period_start, stripe))");
+
+        recorder = new SalesRollupRecorder(4);
+        ReflectionTestUtils.setField(recorder, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(recorder, "salesRollupRepository", salesRollupRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void backfillMatchesLiveWritesAndSkipsCancelledOrders() {
+        // More than one backfill page, across hours and a day boundary
+        Random random = new Random(23);
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= 12_000; id++) {
+            Order order = order(id, PLACED.plusMinutes(random.nextInt(300)), "PENDING",
+                random.nextBoolean() ? Order.PaymentStatus.COMPLETED : Order.PaymentStatus.PENDING);
+            if (random.nextInt(10) == 0) {
+                order.setStatus(random.nextBoolean() ? "CANCELLED" : "canceled");
+            }
+            orders.add(order);
+        }
+        insertOrders(orders);
+        Order undated = order(20_000L, null, "PENDING", Order.PaymentStatus.COMPLETED);
+        insertOrders(List.of(undated));
+
+        inTransaction(() -> orders.forEach(recorder::recordOrderPlaced));
+        Map<String, String> live = periods();
+        jdbcTemplate.update("DELETE FROM sales_rollups");
+
+        when(salesRollupRepository.existsByGranularity(any())).thenReturn(false);
+        recorder.start();
+
+        Map<String, String> backfilled = periods();
+        assertEquals(live, backfilled);
+        assertTrue(backfilled.containsKey("DAY 2025-03-10T00:00"));
+        long cancelled = orders.stream().filter(order -> !order.getStatus().equals("PENDING")).count();
+        assertEquals(12_000 - cancelled, jdbcTemplate.queryForObject(
+            "SELECT SUM(order_count) FROM sales_rollups WHERE granularity = 'DAY'", Long.class));
+    }
+
+    @Test
+    void cancellingSubtractsTheOrderFromItsPeriods() {
+        Order order = order(1L, PLACED, "PENDING", Order.PaymentStatus.COMPLETED);
+        Order other = order(2L, PLACED.plusMinutes(5), "PENDING", Order.PaymentStatus.PENDING);
+        inTransaction(() -> {
+            recorder.recordOrderPlaced(order);
+            recorder.recordOrderPlaced(other);
+        });
+
+        order.setStatus("CANCELLED");
+        inTransaction(() -> recorder.recordStatusChange(order, "PENDING"));
+        assertEquals(Map.of("DAY 2025-03-09T00:00", "1 100.00 0 0.00 0.00", "HOUR 2025-03-09T23:00", "1 100.00 0 0.00 0.00"),
+            periods());
+
+        // A refund of a cancelled order was taken out with it
+        order.setPaymentStatus(Order.PaymentStatus.REFUNDED);
+        inTransaction(() -> recorder.recordPaymentStatusChange(order, Order.PaymentStatus.COMPLETED));
+        assertEquals("1 100.00 0 0.00 0.00", periods().get("DAY 2025-03-09T00:00"));
+
+        // Reinstated with its current payment status
+        order.setStatus("PROCESSING");
+        inTransaction(() -> recorder.recordStatusChange(order, "CANCELLED"));
+        assertEquals("2 200.00 0 0.00 0.00", periods().get("DAY 2025-03-09T00:00"));
+    }
+
+    @Test
+    void statusChangesOtherThanCancellingLeaveTheRollupsAlone() {
+        Order order = order(1L, PLACED, "PENDING", Order.PaymentStatus.COMPLETED);
+        inTransaction(() -> recorder.recordOrderPlaced(order));
+        Map<String, String> placed = periods();
+
+        order.setStatus("SHIPPED");
+        inTransaction(() -> recorder.recordStatusChange(order, "PENDING"));
+
+        assertEquals(placed, periods());
+        assertFalse(placed.isEmpty());
+    }
+
+    private void inTransaction(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> work.run());
+    }
+
+    // Non-empty periods summed over their stripes: "count gross completedCount completedSales completedTax"
+    private Map<String, String> periods() {
+        Map<String, String> periods = new TreeMap<>();
+        jdbcTemplate.query("SELECT granularity, period_start, SUM(order_count), SUM(gross_sales), SUM(completed_count), "
+            + "SUM(completed_sales), SUM(completed_tax) FROM sales_rollups GROUP BY granularity, period_start", rs -> {
+                String totals = rs.getLong(3) + " " + rs.getBigDecimal(4) + " " + rs.getLong(5) + " "
+                    + rs.getBigDecimal(6) + " " + rs.getBigDecimal(7);
+                if (!totals.equals("0 0.00 0 0.00 0.00")) {
+                    periods.put(SalesRollup.Granularity.valueOf(rs.getString(1)) + " "
+                        + rs.getTimestamp(2).toLocalDateTime(), totals);
+                }
+            });
+        return periods;
+    }
+
+    private void insertOrders(List<Order> orders) {
+        jdbcTemplate.batchUpdate("INSERT INTO orders VALUES (?, ?, ?, ?, ?, ?)", orders.stream()
+            .map(order -> new Object[] {order.getOrderId(),
+                order.getOrderDate() != null ? Timestamp.valueOf(order.getOrderDate()) : null, order.getStatus(),
+                order.getPaymentStatus().name(), order.getTotalPrice(), order.getTotalTax()})
+            .toList());
+    }
+
+    private static Order order(Long orderId, LocalDateTime orderDate, String status, Order.PaymentStatus paymentStatus) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setOrderDate(orderDate);
+        order.setStatus(status);
+        order.setPaymentStatus(paymentStatus);
+        order.setTotalPrice(new BigDecimal("100.00"));
+        order.setTotalTax(new BigDecimal("18.00"));
+        return order;
+    }
+}
@@ -0,0 +1,127 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.event.CategoryChangedEvent;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Several CatalogVersions on one database stand for application instances and restarts
+ */
+class CatalogVersionsTest {
+
+    private final DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:catalog_versions;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final List<CatalogVersions> instances = new ArrayList<>();
+
+    private ProductCache productCache;
+    private CategorySnapshotCache categorySnapshotCache;
+
+    @BeforeEach
+    void createTable() {
+        jdbcTemplate.execute("CREATE TABLE catalog_versions (scope VARCHAR(20) PRIMARY KEY, version BIGINT NOT NULL)");
+    }
+
+    @AfterEach
+    void dropTable() {
+        instances.forEach(CatalogVersions::stop);
+        jdbcTemplate.execute("DROP TABLE catalog_versions");
+    }
+
+    @Test
+    void instancesAndRestartsIssueTheSameEtags() {
+        CatalogVersions first = start();
+        first.onVariantChanged(new ProductVariantChangedEvent(12, null, false));
+        first.flush();
+
+        CatalogVersions second = start();
+        CatalogVersions restarted = start();
+        for (CatalogVersions other : List.of(second, restarted)) {
+            assertEquals(first.catalogEtag(), other.catalogEtag());
+            assertEquals(first.categoryEtag(), other.categoryEtag());
+            assertEquals(first.productEtag(12), other.productEtag(12));
+            assertEquals(first.productEtag(13), other.productEtag(13));
+        }
+    }
+
+    @Test
+    void localWriteHasUnsharedEtagUntilPersisted() {
+        CatalogVersions writer = start();
+        CatalogVersions other = start();
+        String before = writer.productEtag(12);
+
+        writer.onVariantChanged(new ProductVariantChangedEvent(12, null, false));
+        String pending = writer.productEtag(12);
+        assertNotEquals(before, pending);
+        assertNotEquals(other.productEtag(12), pending);
+        assertNotEquals(other.catalogEtag(), writer.catalogEtag());
+
+        writer.flush();
+        String persisted = writer.productEtag(12);
+        assertNotEquals(before, persisted);
+        assertNotEquals(pending, persisted);
+        // Other products keep their ETag
+        assertEquals(other.productEtag(13), writer.productEtag(13));
+    }
+
+    @Test
+    void syncPicksUpOtherInstancesWritesAndEvictsTheirProducts() {
+        CatalogVersions writer = start();
+        CatalogVersions reader = start();
+        ProductCache readerCache = productCache;
+        CategorySnapshotCache readerCategories = categorySnapshotCache;
+
+        writer.onVariantChanged(new ProductVariantChangedEvent(12, null, false));
+        writer.onCategoryChanged(new CategoryChangedEvent(3));
+        writer.flush();
+        reader.sync();
+
+        assertEquals(writer.catalogEtag(), reader.catalogEtag());
+        assertEquals(writer.categoryEtag(), reader.categoryEtag());
+        assertEquals(writer.productEtag(12), reader.productEtag(12));
+        verify(readerCache).invalidate(12);
+        verify(readerCache, never()).invalidate(13);
+        verify(readerCategories).reload();
+    }
+
+    @Test
+    void ownWritesAreNotEvictedAgainBySync() {
+        CatalogVersions writer = start();
+
+        writer.onVariantChanged(new ProductVariantChangedEvent(12, null, false));
+        writer.flush();
+        writer.sync();
+
+        verify(productCache, never()).invalidate(12);
+    }
+
+    private CatalogVersions start() {
+        productCache = mock(ProductCache.class);
+        categorySnapshotCache = mock(CategorySnapshotCache.class);
+        CatalogVersions versions = new CatalogVersions(new DataSourceTransactionManager(dataSource),
+            // Tests persist with explicit flushes
+            TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(versions, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(versions, "productCache", productCache);
+        ReflectionTestUtils.setField(versions, "categorySnapshotCache", categorySnapshotCache);
+        versions.start();
+        instances.add(versions);
+        return versions;
+    }
+}
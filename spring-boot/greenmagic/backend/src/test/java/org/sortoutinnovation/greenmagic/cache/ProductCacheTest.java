@@ -0,0 +1,145 @@
+package org.sortoutinnovation.greenmagic.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Entity;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.dto.ApiResponseDto;
+import org.sortoutinnovation.greenmagic.dto.ProductDetailDto;
+import org.sortoutinnovation.greenmagic.event.ProductVariantChangedEvent;
+import org.sortoutinnovation.greenmagic.model.Category;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.ProductVariant;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Serializes products served by ProductCache, which are detached once loaded, on H2
+ */
+class ProductCacheTest {
+
+    private static SessionFactory sessionFactory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(10));
+
+    @BeforeAll
+    static void buildSessionFactory() throws Exception {
+        StandardServiceRegistryBuilder registry = new StandardServiceRegistryBuilder()
+            .applySetting("hibernate.connection.url", "jdbc:h2:mem:product_cache;MODE=MySQL;DB_CLOSE_DELAY=-1")
+            .applySetting("hibernate.hbm2ddl.auto", "create-drop")
+            .applySetting("jakarta.persistence.validation.mode", "none");
+        MetadataSources sources = new MetadataSources(registry.build());
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definition : scanner.findCandidateComponents(Product.class.getPackageName())) {
+            sources.addAnnotatedClass(Class.forName(definition.getBeanClassName()));
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void cachedProductSerializesOutsideASession() throws Exception {
+        ReflectionTestUtils.setField(productCache, "entityManagerFactory", sessionFactory);
+        Integer productId = inTransaction(session -> {
+            Category category = new Category("Vegetables");
+            session.persist(category);
+            Product product = newProduct(category);
+            session.persist(product);
+            session.persist(newVariant(product, "1 kg", 2));
+            session.persist(newVariant(product, "500 g", 1));
+            return product.getProductId();
+        });
+
+        Product cached = productCache.getById(productId).orElseThrow();
+        assertSame(cached, productCache.getById(productId).orElseThrow());
+
+        String json = objectMapper.writeValueAsString(
+            new ApiResponseDto<>(true, "Product found", ProductDetailDto.fromProduct(cached)));
+        JsonNode data = objectMapper.readTree(json).get("data");
+        assertEquals(productId.intValue(), data.get("productId").asInt());
+        assertEquals(categoryIdOf(productId), data.get("categoryId").asInt());
+        assertEquals("Fresh", data.get("keyFeatures").get(0).asText());
+        assertEquals("Detailed description of the test product", data.get("description").asText());
+        assertEquals(2, data.get("variants").size());
+        assertEquals("500 g", data.get("variants").get(0).get("variantName").asText());
+        assertEquals("1 kg", data.get("variants").get(1).get("variantName").asText());
+        assertFalse(data.has("costPrice"));
+    }
+
+    @Test
+    void variantChangeDropsTheCachedProduct() {
+        ReflectionTestUtils.setField(productCache, "entityManagerFactory", sessionFactory);
+        Integer productId = inTransaction(session -> {
+            Product product = newProduct(null);
+            session.persist(product);
+            return product.getProductId();
+        });
+        Product cached = productCache.getById(productId).orElseThrow();
+        assertEquals(0, cached.getVariants().size());
+
+        ProductVariant variant = inTransaction(session -> {
+            ProductVariant added = newVariant(session.getReference(Product.class, productId), "2 kg", 0);
+            session.persist(added);
+            return added;
+        });
+        productCache.onVariantChanged(new ProductVariantChangedEvent(productId, variant, false));
+
+        Product reloaded = productCache.getById(productId).orElseThrow();
+        assertNotSame(cached, reloaded);
+        assertEquals(1, reloaded.getVariants().size());
+    }
+
+    private static int categoryIdOf(Integer productId) {
+        return inTransaction(session -> session.find(Product.class, productId).getCategory().getCategoryId());
+    }
+
+    private static <R> R inTransaction(Function<Session, R> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            R result = work.apply(session);
+            session.getTransaction().commit();
+            return result;
+        }
+    }
+
+    private static Product newProduct(Category category) {
+        Product product = TestProducts.persistable("Cached product");
+        product.setCategory(category);
+        product.setCostPrice(new BigDecimal("50.00"));
+        return product;
+    }
+
+    private static ProductVariant newVariant(Product product, String name, int sortOrder) {
+        ProductVariant variant = new ProductVariant();
+        variant.setProduct(product);
+        variant.setVariantName(name);
+        variant.setPrice(new BigDecimal("80.00"));
+        variant.setSortOrder(sortOrder);
+        return variant;
+    }
+}
@@ -0,0 +1,45 @@
+package org.sortoutinnovation.greenmagic.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedIdAllocator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorConfigTest {
+
+    private final JdbcTemplate jdbcTemplate =
+        new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:id_generator_config;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void allocatorStartsAfterTheLargestStoredId() {
+        TimeOrderedIdAllocator earlier = new TimeOrderedIdAllocator(0);
+        earlier.advancePast((System.currentTimeMillis() + 60_000 - TimeOrderedIdAllocator.EPOCH_MILLIS) << 22);
+        long stored = earlier.next();
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE cart_items (cart_item_id BIGINT PRIMARY KEY)");
+        jdbcTemplate.update("INSERT INTO orders VALUES (12), (?)", stored);
+        jdbcTemplate.update("INSERT INTO cart_items VALUES (7)");
+
+        // The other tables do not exist yet
+        TimeOrderedIdAllocator allocator = new IdGeneratorConfig().timeOrderedIdAllocator(0, jdbcTemplate);
+
+        assertTrue(allocator.next() > stored);
+    }
+
+    @Test
+    void emptySchemaStartsFromTheClock() {
+        long before = System.currentTimeMillis();
+
+        TimeOrderedIdAllocator allocator = new IdGeneratorConfig().timeOrderedIdAllocator(0, jdbcTemplate);
+
+        assertTrue(TimeOrderedIdAllocator.timestampOf(allocator.next()) >= before);
+    }
+}
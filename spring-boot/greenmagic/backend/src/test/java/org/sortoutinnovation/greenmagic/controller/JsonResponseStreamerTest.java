@@ -0,0 +1,94 @@
+package org.sortoutinnovation.greenmagic.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JsonResponseStreamerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final TransactionStatus status = mock(TransactionStatus.class);
+
+    private JsonResponseStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        streamer = new JsonResponseStreamer(transactionManager);
+        ReflectionTestUtils.setField(streamer, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(streamer, "entityManager", mock(EntityManager.class));
+    }
+
+    @Test
+    void writesAllRowsThenEnvelopeFields() throws Exception {
+        String json = write(streamer.stream("Rows retrieved", () -> rows(1200, -1)));
+
+        JsonNode response = objectMapper.readTree(json);
+        assertEquals(1200, response.get("data").size());
+        assertEquals(1199, response.get("data").get(1199).get("id").asInt());
+        assertTrue(response.get("success").asBoolean());
+        assertEquals("Rows retrieved", response.get("message").asText());
+        assertTrue(json.indexOf("\"data\"") < json.indexOf("\"success\""));
+        verify(status, never()).setRollbackOnly();
+    }
+
+    @Test
+    void failureInFirstChunkWritesNothing() {
+        ResponseEntity<StreamingResponseBody> response = streamer.stream("Rows retrieved", () -> rows(1200, 10));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(RuntimeException.class, () -> response.getBody().writeTo(out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void failureAfterFirstChunkEndsWithErrorMarker() throws Exception {
+        String json = write(streamer.stream("Rows retrieved", () -> rows(1200, 700)));
+
+        JsonNode response = objectMapper.readTree(json);
+        // Only whole chunks were written; the failed chunk is dropped
+        assertEquals(500, response.get("data").size());
+        assertFalse(response.get("success").asBoolean());
+        assertEquals("Response incomplete: failed after 500 rows", response.get("message").asText());
+        assertEquals("connection lost", response.get("errors").asText());
+        verify(status).setRollbackOnly();
+    }
+
+    private static Stream<Map<String, Integer>> rows(int count, int failAt) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            if (i == failAt) {
+                throw new RuntimeException("connection lost");
+            }
+            return Map.of("id", i);
+        });
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package org.sortoutinnovation.greenmagic.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.analytics.ProductEngagementTracker;
+import org.sortoutinnovation.greenmagic.cache.CatalogVersions;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+import org.sortoutinnovation.greenmagic.service.ProductService;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Conditional GETs of a single product
+ */
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductEngagementTracker productEngagementTracker = mock(ProductEngagementTracker.class);
+    private final CatalogVersions catalogVersions = mock(CatalogVersions.class);
+    private final ProductController controller = new ProductController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "productService", productService);
+        ReflectionTestUtils.setField(controller, "productEngagementTracker", productEngagementTracker);
+        ReflectionTestUtils.setField(controller, "catalogVersions", catalogVersions);
+        when(catalogVersions.productEtag(7)).thenReturn("\"p7-3-1\"");
+    }
+
+    @Test
+    void revalidatedProductIsNotCountedAsAView() {
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getProductById(7, request("\"p7-3-1\"")).getStatusCode());
+        verify(productService, never()).getProductById(any());
+        verify(productEngagementTracker, never()).recordView(any());
+
+        when(productService.getProductById(7)).thenReturn(TestProducts.product(7, 10));
+        assertEquals(HttpStatus.OK, controller.getProductById(7, request("\"p7-2-1\"")).getStatusCode());
+        verify(productEngagementTracker).recordView(7);
+    }
+
+    @Test
+    void skuLookupUsesTheProductEtag() {
+        when(productService.getProductIdBySku("VEG-7")).thenReturn(7);
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getProductBySku("VEG-7", request("\"p7-3-1\"")).getStatusCode());
+        verify(productService, never()).getProductBySku(any());
+        verify(catalogVersions, never()).catalogEtag();
+
+        when(productService.getProductIdBySku("VEG-8")).thenThrow(new RuntimeException("Product not found with SKU: VEG-8"));
+        assertEquals(HttpStatus.NOT_FOUND, controller.getProductBySku("VEG-8", request("\"p7-3-1\"")).getStatusCode());
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("If-None-Match", ifNoneMatch);
+        return new ServletWebRequest(request);
+    }
+}
@@ -0,0 +1,121 @@
+package org.sortoutinnovation.greenmagic.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedIdAllocatorTest {
+
+    private static final long NODE_MASK = (long) TimeOrderedIdAllocator.MAX_NODE_ID << 12;
+
+    @Test
+    void idsIncreaseAndCarryTheNodeAndCreationTime() {
+        TimeOrderedIdAllocator allocator = new TimeOrderedIdAllocator(37);
+        long before = System.currentTimeMillis();
+        long previous = 0;
+        // Several milliseconds' worth of sequence numbers, so allocation runs ahead of the clock
+        for (int i = 0; i < 20_000; i++) {
+            long id = allocator.next();
+            assertTrue(id > previous);
+            assertEquals(37, (id & NODE_MASK) >>> 12);
+            previous = id;
+        }
+        assertTrue(TimeOrderedIdAllocator.timestampOf(previous) >= before);
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        TimeOrderedIdAllocator first = new TimeOrderedIdAllocator(0);
+        TimeOrderedIdAllocator second = new TimeOrderedIdAllocator(TimeOrderedIdAllocator.MAX_NODE_ID);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(first.next());
+            ids.add(second.next());
+        }
+        assertEquals(20_000, ids.size());
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws Exception {
+        TimeOrderedIdAllocator allocator = new TimeOrderedIdAllocator(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[50_000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = allocator.next();
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> all = new HashSet<>();
+            for (Future<long[]> result : results) {
+                long[] ids = result.get(30, TimeUnit.SECONDS);
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(i == 0 || ids[i] > ids[i - 1]);
+                    all.add(ids[i]);
+                }
+            }
+            assertEquals(8 * 50_000, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void restartAfterRunningAheadDoesNotReissueIds() {
+        TimeOrderedIdAllocator before = new TimeOrderedIdAllocator(4);
+        long maxStored = 0;
+        for (int i = 0; i < 50_000; i++) {
+            maxStored = before.next();
+        }
+
+        TimeOrderedIdAllocator restarted = new TimeOrderedIdAllocator(4);
+        restarted.advancePast(maxStored);
+        assertTrue(restarted.next() > maxStored);
+    }
+
+    @Test
+    void advancePastCoversEveryNodeOfTheMillisecondAndTheClockBeingBehind() {
+        long anHourAhead = System.currentTimeMillis() + 3_600_000 - TimeOrderedIdAllocator.EPOCH_MILLIS;
+        // Another node's last ID of that millisecond, with the highest node and sequence bits
+        long stored = anHourAhead << 22 | NODE_MASK | 4095;
+
+        TimeOrderedIdAllocator allocator = new TimeOrderedIdAllocator(0);
+        allocator.advancePast(stored);
+        long id = allocator.next();
+
+        assertTrue(id > stored);
+        assertEquals(TimeOrderedIdAllocator.timestampOf(stored) + 1, TimeOrderedIdAllocator.timestampOf(id));
+    }
+
+    @Test
+    void advancePastNeverMovesBackwards() {
+        TimeOrderedIdAllocator allocator = new TimeOrderedIdAllocator(2);
+        long first = allocator.next();
+
+        allocator.advancePast(0);
+        allocator.advancePast(first >>> 1);
+
+        assertTrue(allocator.next() > first);
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdAllocator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdAllocator(TimeOrderedIdAllocator.MAX_NODE_ID + 1));
+    }
+}
@@ -0,0 +1,100 @@
+package org.sortoutinnovation.greenmagic.inventory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.InventoryHoldRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.sortoutinnovation.greenmagic.model.TestProducts.product;
+
+class ReservationLedgerTest {
+
+    private final Map<Integer, Product> products = Map.of(1, product(1, 5));
+
+    private ReservationLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new ReservationLedger(mock(PlatformTransactionManager.class), Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(ledger, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(ledger, "inventoryHoldRepository", mock(InventoryHoldRepository.class));
+        ReflectionTestUtils.setField(ledger, "objectMapper", new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ledger.flushOnShutdown();
+    }
+
+    @Test
+    void confirmRejectsAnotherUsersHold() {
+        String holdId = ledger.reserve(7, Map.of(1, 2), products).getHoldId();
+
+        assertThrows(RuntimeException.class, () -> ledger.confirm(holdId, 8, Map.of(1, 2)));
+        assertThrows(RuntimeException.class, () -> ledger.confirm(holdId, null, Map.of(1, 2)));
+        // Still held for its owner
+        assertEquals(2, ledger.reservedQuantity(1));
+        assertDoesNotThrow(() -> ledger.confirm(holdId, 7, Map.of(1, 2)));
+        assertEquals(0, ledger.reservedQuantity(1));
+    }
+
+    @Test
+    void rollbackReopensACheckoutsHold() {
+        String holdId = ledger.reserve(7, Map.of(1, 2), products).getHoldId();
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> ledger.confirm(holdId, 7, Map.of(1, 2)));
+
+        assertEquals(2, ledger.reservedQuantity(1));
+        // Active again: the checkout can retry or give it up
+        assertDoesNotThrow(() -> ledger.release(holdId));
+        assertEquals(0, ledger.reservedQuantity(1));
+    }
+
+    @Test
+    void rollbackReleasesAHoldReservedByTheOrder() {
+        String holdId = ledger.reserve(7, Map.of(1, 2), products).getHoldId();
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+            () -> ledger.confirm(holdId, 7, Map.of(1, 2), true));
+
+        assertEquals(0, ledger.reservedQuantity(1));
+        assertThrows(RuntimeException.class, () -> ledger.release(holdId));
+    }
+
+    @Test
+    void commitDropsTheHold() {
+        String holdId = ledger.reserve(7, Map.of(1, 2), products).getHoldId();
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> ledger.confirm(holdId, 7, Map.of(1, 2)));
+
+        assertEquals(0, ledger.reservedQuantity(1));
+        assertThrows(RuntimeException.class, () -> ledger.confirm(holdId, 7, Map.of(1, 2)));
+    }
+
+    // Runs the work with transaction synchronization active, then completes it with the given status
+    private static void completeTransaction(int status, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        work.run();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
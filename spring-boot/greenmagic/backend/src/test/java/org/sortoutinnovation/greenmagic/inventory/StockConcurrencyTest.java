@@ -0,0 +1,242 @@
+package org.sortoutinnovation.greenmagic.inventory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.repository.InventoryHoldRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.sortoutinnovation.greenmagic.model.TestProducts.product;
+
+/**
+ * Many checkouts race for little stock through ReservationLedger and StockUpdater on H2
+ * Products are read once per checkout, before reserving, so their quantities go stale as other
+ * orders commit; the conditional UPDATE has to catch what the ledger lets through
+ */
+class StockConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private final DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:stock_concurrency;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+    private StockUpdater stockUpdater;
+    private ReservationLedger reservationLedger;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE products (product_id INT PRIMARY KEY, name VARCHAR(100), quantity INT NOT NULL)");
+
+        stockUpdater = new StockUpdater();
+        ReflectionTestUtils.setField(stockUpdater, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(stockUpdater, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(stockUpdater, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(stockUpdater, "entityManager", mock(EntityManager.class));
+
+        reservationLedger = new ReservationLedger(transactionManager, Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(reservationLedger, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(reservationLedger, "inventoryHoldRepository", mock(InventoryHoldRepository.class));
+        ReflectionTestUtils.setField(reservationLedger, "objectMapper", new ObjectMapper());
+
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        reservationLedger.flushOnShutdown();
+        jdbcTemplate.execute("DROP TABLE products");
+    }
+
+    @Test
+    void singleProductIsNeverOversold() throws Exception {
+        insertProduct(1, 10);
+
+        List<Map<Integer, Integer>> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            orders.add(Map.of(1, 1));
+        }
+        List<Map<Integer, Integer>> accepted = placeConcurrently(orders);
+
+        assertEquals(10, accepted.size());
+        assertEquals(0, quantityOf(1));
+        assertEquals(0, reservationLedger.reservedQuantity(1));
+    }
+
+    @Test
+    void multiProductOrdersTakeExactlyTheStockOfAcceptedOrders() throws Exception {
+        Map<Integer, Integer> initial = Map.of(1, 7, 2, 5, 3, 12);
+        initial.forEach(this::insertProduct);
+
+        Random random = new Random(5);
+        List<Map<Integer, Integer>> orders = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Map<Integer, Integer> order = new HashMap<>();
+            for (Integer productId : initial.keySet()) {
+                if (random.nextInt(3) == 0) {
+                    order.put(productId, 1 + random.nextInt(3));
+                }
+            }
+            if (!order.isEmpty()) {
+                orders.add(order);
+            }
+        }
+        List<Map<Integer, Integer>> accepted = placeConcurrently(orders);
+
+        assertFalse(accepted.isEmpty());
+        for (Integer productId : initial.keySet()) {
+            int taken = accepted.stream().mapToInt(order -> order.getOrDefault(productId, 0)).sum();
+            assertTrue(taken <= initial.get(productId), "oversold product " + productId);
+            assertEquals(initial.get(productId) - taken, quantityOf(productId));
+            assertEquals(0, reservationLedger.reservedQuantity(productId));
+        }
+    }
+
+    @Test
+    void conditionalUpdateAloneStopsOversellingWithoutTheLedger() throws Exception {
+        // As when the ledgers of several instances each see only their own holds
+        insertProduct(1, 10);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                        stockUpdater.decrement(Map.of(1, 1), List.of(product(1, 10))));
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        assertEquals(10, accepted);
+        assertEquals(0, quantityOf(1));
+    }
+
+    @Test
+    void cancellationsGiveStockBackWithoutLosingConcurrentCheckouts() throws Exception {
+        // Enough stock that every checkout succeeds even if all of them run before any cancellation
+        insertProduct(1, 200);
+
+        // Every thread holds the same stale instance, as OrderService.cancelOrder may
+        Product stale = product(1, 200);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean cancel = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (cancel) {
+                        stockUpdater.increment(Map.of(1, 3), List.of(stale));
+                    } else {
+                        stockUpdater.decrement(Map.of(1, 2), List.of(stale));
+                    }
+                });
+                return null;
+            }));
+        }
+        start.countDown();
+
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(200 + 100 * 3 - 100 * 2, quantityOf(1));
+        assertTrue(stockUpdater.increment(Map.of(99, 1), List.of()).isEmpty());
+    }
+
+    /**
+     * Place the orders from a thread pool the way OrderService.createOrder does, returning those that committed
+     */
+    private List<Map<Integer, Integer>> placeConcurrently(List<Map<Integer, Integer>> orders) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Map<Integer, Integer> order : orders) {
+            Callable<Boolean> checkout = () -> {
+                start.await();
+                return place(order);
+            };
+            results.add(executor.submit(checkout));
+        }
+        start.countDown();
+
+        List<Map<Integer, Integer>> accepted = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            if (results.get(i).get(30, TimeUnit.SECONDS)) {
+                accepted.add(orders.get(i));
+            }
+        }
+        return accepted;
+    }
+
+    private boolean place(Map<Integer, Integer> quantities) {
+        Map<Integer, Product> products = new HashMap<>();
+        for (Integer productId : quantities.keySet()) {
+            products.put(productId, product(productId, quantityOf(productId)));
+        }
+        String holdId;
+        try {
+            holdId = reservationLedger.reserve(42, quantities, products).getHoldId();
+        } catch (RuntimeException e) {
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                reservationLedger.confirm(holdId, 42, quantities);
+                stockUpdater.decrement(quantities, products.values());
+            });
+            return true;
+        } catch (RuntimeException e) {
+            // The hold is this checkout's own, reopened by the rollback
+            reservationLedger.release(holdId);
+            return false;
+        }
+    }
+
+    private void insertProduct(Integer productId, Integer quantity) {
+        jdbcTemplate.update("INSERT INTO products (product_id, name, quantity) VALUES (?, ?, ?)",
+            productId, "Product " + productId, quantity);
+    }
+
+    private int quantityOf(Integer productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE product_id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,168 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import jakarta.persistence.Entity;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytecode enhancement is limited to Product (see the hibernate-enhance-maven-plugin in pom.xml);
+ * checks that Product gets its lazy content group and that every other entity loads and updates as before
+ */
+class EntityEnhancementTest {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void buildSessionFactory() throws Exception {
+        StandardServiceRegistryBuilder registry = new StandardServiceRegistryBuilder()
+            .applySetting("hibernate.connection.url", "jdbc:h2:mem:enhancement;MODE=MySQL;DB_CLOSE_DELAY=-1")
+            .applySetting("hibernate.hbm2ddl.auto", "create-drop")
+            .applySetting("jakarta.persistence.validation.mode", "none")
+            .applySetting("hibernate.session_factory.statement_inspector",
+                (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                });
+        MetadataSources sources = new MetadataSources(registry.build());
+        for (Class<?> entity : entityClasses()) {
+            sources.addAnnotatedClass(entity);
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        statements.clear();
+    }
+
+    @Test
+    void onlyProductIsEnhanced() throws Exception {
+        for (Class<?> entity : entityClasses()) {
+            assertEquals(entity == Product.class, PersistentAttributeInterceptable.class.isAssignableFrom(entity),
+                entity.getSimpleName());
+        }
+    }
+
+    @Test
+    void productContentColumnsLoadOnFirstAccess() {
+        Integer productId = inTransaction(session -> {
+            Product product = TestProducts.persistable("Test product name");
+            session.persist(product);
+            return product.getProductId();
+        });
+
+        try (Session session = sessionFactory.openSession()) {
+            Product product = session.find(Product.class, productId);
+            assertFalse(Hibernate.isPropertyInitialized(product, "description"));
+            assertTrue(Hibernate.isPropertyInitialized(product, "price"));
+            assertFalse(selectsDescription(statements.get(statements.size() - 1)));
+
+            assertEquals("Detailed description of the test product", product.getDescription());
+            assertTrue(Hibernate.isPropertyInitialized(product, "keyFeatures"));
+        }
+    }
+
+    @Test
+    void productUpdateWritesOnlyChangedColumns() {
+        Integer productId = inTransaction(session -> {
+            Product product = TestProducts.persistable("Test product name");
+            session.persist(product);
+            return product.getProductId();
+        });
+
+        statements.clear();
+        inTransaction(session -> {
+            session.find(Product.class, productId).setPrice(new BigDecimal("90.00"));
+            return null;
+        });
+
+        List<String> updates = statements.stream().filter(sql -> sql.startsWith("update products")).toList();
+        assertEquals(1, updates.size(), updates.toString());
+        assertTrue(updates.get(0).contains("price"));
+        assertFalse(selectsDescription(updates.get(0)));
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(0, new BigDecimal("90.00").compareTo(session.find(Product.class, productId).getPrice()));
+        }
+    }
+
+    @Test
+    void orderLoadsAssociationsAsProxiesAndDetectsChangesFromSnapshot() {
+        Long orderId = inTransaction(session -> {
+            User user = new User();
+            user.setEmail("enhancement@example.com");
+            session.persist(user);
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus("PENDING");
+            order.setTotalPrice(new BigDecimal("25.00"));
+            session.persist(order);
+            return order.getOrderId();
+        });
+
+        inTransaction(session -> {
+            Order order = session.find(Order.class, orderId);
+            assertTrue(order.getUser() instanceof HibernateProxy);
+            assertFalse(Hibernate.isInitialized(order.getUser()));
+            order.setStatus("SHIPPED");
+            return null;
+        });
+
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("SHIPPED", session.find(Order.class, orderId).getStatus());
+        }
+    }
+
+    // The description column itself, not short_description or meta_description
+    private static boolean selectsDescription(String sql) {
+        return sql.matches("(?s).*\\bdescription\\b.*");
+    }
+
+    private static <R> R inTransaction(Function<Session, R> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            R result = work.apply(session);
+            session.getTransaction().commit();
+            return result;
+        }
+    }
+
+    private static List<Class<?>> entityClasses() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        List<Class<?>> classes = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(Product.class.getPackageName())) {
+            classes.add(Class.forName(definition.getBeanClassName()));
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,61 @@
+package org.sortoutinnovation.greenmagic.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Product fixtures shared by the tests
+ */
+public final class TestProducts {
+
+    private TestProducts() {
+    }
+
+    /**
+     * In-memory product with an ID, as the caches and indexes hold them
+     * @param productId product ID
+     * @param quantity stock quantity
+     * @return Product named "Product {productId}"
+     */
+    public static Product product(Integer productId, Integer quantity) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setName("Product " + productId);
+        product.setQuantity(quantity);
+        return product;
+    }
+
+    /**
+     * Product carrying only its ID, as order items reference products in requests
+     * @param productId product ID
+     * @return Product
+     */
+    public static Product reference(Integer productId) {
+        Product product = new Product();
+        product.setProductId(productId);
+        return product;
+    }
+
+    /**
+     * Active product without an ID, with every column the products table requires
+     * @param name product name
+     * @return Product priced 80.00 against an MRP of 100.00, with 10 in stock
+     */
+    public static Product persistable(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand("Test brand");
+        product.setMrp(new BigDecimal("100.00"));
+        product.setPrice(new BigDecimal("80.00"));
+        product.setStatus(Product.ProductStatus.ACTIVE);
+        product.setQuantity(10);
+        product.setUnitOfMeasurement("kg");
+        product.setImageUrl("https://example.com/product.jpg");
+        product.setWeightForShipping(new BigDecimal("1.00"));
+        product.setDeliveryTimeEstimate("3-5 days");
+        product.setShortDescription("Short description of the test product");
+        product.setDescription("Detailed description of the test product");
+        product.setKeyFeatures(List.of("Fresh"));
+        return product;
+    }
+}
@@ -0,0 +1,72 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.search.AutocompleteTrie.Suggestion;
+import org.sortoutinnovation.greenmagic.search.AutocompleteTrie.SuggestionType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutocompleteTrieTest {
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+
+    @Test
+    void completesByDescendingWeightThenText() {
+        AutocompleteTrie.Builder builder = new AutocompleteTrie.Builder(10);
+        for (String[] entry : new String[][] {{"Basmati Rice", "5"}, {"Basil Seeds", "9"}, {"Banana Chips", "5"}, {"Apple Jam", "50"}}) {
+            int handle = builder.addSuggestion(new Suggestion(entry[0], SuggestionType.PRODUCT, 1, Long.parseLong(entry[1])));
+            builder.addKey(entry[0], handle);
+        }
+        AutocompleteTrie trie = builder.build();
+
+        assertEquals(List.of("Basil Seeds", "Banana Chips", "Basmati Rice"), texts(trie.complete("ba", 10)));
+        assertEquals(List.of("Basil Seeds", "Basmati Rice"), texts(trie.complete("bas", 10)));
+        assertEquals(List.of("Basil Seeds"), texts(trie.complete("ba", 1)));
+        assertEquals(List.of(), trie.complete("bx", 10));
+        assertEquals(List.of(), trie.complete("", 10));
+        assertEquals(List.of(), trie.complete("ba", 0));
+    }
+
+    @Test
+    void normalizesPunctuationCaseAndSpacing() {
+        AutocompleteTrie.Builder builder = new AutocompleteTrie.Builder(5);
+        int handle = builder.addSuggestion(new Suggestion("Organic Basmati-Rice", SuggestionType.PRODUCT, 7, 1));
+        builder.addKey("Organic Basmati-Rice", handle);
+        AutocompleteTrie trie = builder.build();
+
+        assertEquals(List.of("Organic Basmati-Rice"), texts(trie.complete("  ORGANIC   basmati r", 5)));
+        assertEquals("organic basmati rice", AutocompleteTrie.normalize("Organic  Basmati--Rice!"));
+    }
+
+    @Test
+    void suggestionReachableThroughSeveralKeysIsListedOnce() {
+        AutocompleteTrie.Builder builder = new AutocompleteTrie.Builder(5);
+        int handle = builder.addSuggestion(new Suggestion("Red Rice", SuggestionType.PRODUCT, 1, 3));
+        builder.addKey("red rice", handle);
+        builder.addKey("rice", handle);
+        builder.addKey("r", handle);
+        AutocompleteTrie trie = builder.build();
+
+        assertEquals(List.of("Red Rice"), texts(trie.complete("r", 5)));
+    }
+
+    @Test
+    void keepsOnlyTopKPerNode() {
+        AutocompleteTrie.Builder builder = new AutocompleteTrie.Builder(3);
+        for (int weight = 1; weight <= 20; weight++) {
+            String text = "tea " + weight;
+            builder.addKey(text, builder.addSuggestion(new Suggestion(text, SuggestionType.KEYWORD, null, weight)));
+        }
+        AutocompleteTrie trie = builder.build();
+
+        assertEquals(List.of("tea 20", "tea 19", "tea 18"), texts(trie.complete("tea", 10)));
+        assertEquals(20, trie.suggestionCount());
+        assertTrue(trie.nodeCount() > 1);
+        assertEquals(List.of(), AutocompleteTrie.empty().complete("tea", 10));
+    }
+}
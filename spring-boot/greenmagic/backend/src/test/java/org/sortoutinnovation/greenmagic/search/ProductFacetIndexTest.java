@@ -0,0 +1,95 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.model.Category;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+import org.sortoutinnovation.greenmagic.search.ProductFacetIndex.Facet;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductFacetIndexTest {
+
+    private static Product product(int id, int categoryId, String brand, String price, int quantity) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        Product product = TestProducts.product(id, quantity);
+        product.setStatus(Product.ProductStatus.ACTIVE);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        product.setShippingClass(Product.ShippingClass.STANDARD);
+        return product;
+    }
+
+    private static ProductFacetIndex sampleIndex() {
+        ProductFacetIndex index = new ProductFacetIndex(List.of(new BigDecimal("100"), new BigDecimal("500")));
+        index.index(product(1, 10, "Tata", "50", 5));
+        index.index(product(2, 10, "Tata", "150", 0));
+        index.index(product(3, 10, "Amul", "600", 2));
+        index.index(product(4, 20, "Amul", "99.99", 1));
+        index.index(product(5, 20, "Organic India", "500", 3));
+        return index;
+    }
+
+    @Test
+    void valuesOfOneFacetAreOredAndFacetsAreAnded() {
+        ProductFacetIndex index = sampleIndex();
+
+        ProductFacetIndex.Result brands = index.filter(Map.of(Facet.BRAND, List.of("tata", " AMUL ")), 0, 10);
+        assertEquals(List.of(4, 3, 2, 1), brands.pageIds());
+
+        ProductFacetIndex.Result both = index.filter(Map.of(Facet.BRAND, List.of("amul"), Facet.CATEGORY, List.of("10")), 0, 10);
+        assertEquals(List.of(3), both.pageIds());
+        assertEquals(1, both.total());
+    }
+
+    @Test
+    void countsOfAFacetIgnoreItsOwnSelection() {
+        ProductFacetIndex index = sampleIndex();
+        ProductFacetIndex.Result result = index.filter(Map.of(Facet.CATEGORY, List.of("10")), 0, 10);
+
+        // Other categories are still counted against the other (empty) selections
+        assertEquals(Map.of("10", 3, "20", 2), result.counts().get(Facet.CATEGORY));
+        // Brand labels keep their original spelling, counted within category 10
+        assertEquals(Map.of("Amul", 1, "Tata", 2), result.counts().get(Facet.BRAND));
+        assertEquals(Map.of("false", 1, "true", 2), result.counts().get(Facet.IN_STOCK));
+    }
+
+    @Test
+    void priceBucketsAreHalfOpenAndListedInPriceOrder() {
+        ProductFacetIndex index = sampleIndex();
+        Map<String, Integer> buckets = index.filter(Map.of(), 0, 10).counts().get(Facet.PRICE_BUCKET);
+
+        assertEquals(List.of("0-100", "100-500", "500+"), List.copyOf(buckets.keySet()));
+        assertEquals(List.of(2, 1, 2), List.copyOf(buckets.values()));
+    }
+
+    @Test
+    void pagesNewestFirstWithOffset() {
+        ProductFacetIndex index = sampleIndex();
+
+        assertEquals(List.of(5, 4), index.filter(Map.of(), 0, 2).pageIds());
+        assertEquals(List.of(3, 2), index.filter(Map.of(), 2, 2).pageIds());
+        assertEquals(List.of(), index.filter(Map.of(), 5, 2).pageIds());
+        assertEquals(5, index.filter(Map.of(), 5, 2).total());
+    }
+
+    @Test
+    void deactivatedAndRemovedProductsLeaveEveryBitmap() {
+        ProductFacetIndex index = sampleIndex();
+        Product tata = product(1, 10, "Tata", "50", 5);
+        tata.setStatus(Product.ProductStatus.INACTIVE);
+        index.index(tata);
+        index.remove(2);
+
+        ProductFacetIndex.Result result = index.filter(Map.of(Facet.BRAND, List.of("tata")), 0, 10);
+        assertEquals(0, result.total());
+        assertEquals(Map.of("Amul", 2, "Organic India", 1), index.filter(Map.of(), 0, 10).counts().get(Facet.BRAND));
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,212 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductPriceIndexTest {
+
+    @Test
+    void buildOrdersByPriceThenProductId() {
+        ProductPriceIndex index = new ProductPriceIndex();
+        index.index(product(5, "20.00"));
+        index.index(product(3, "10.00"));
+        index.index(product(9, "10.00"));
+        index.index(product(1, "30.00"));
+        index.index(product(7, "10.00", Product.ProductStatus.INACTIVE));
+        index.build();
+
+        assertArrayEquals(new int[] {3, 9, 5, 1}, all(index));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void moveToFrontEndAndNeighbourPositions() {
+        ProductPriceIndex index = built(1, "10.00", 2, "20.00", 3, "30.00", 4, "40.00", 5, "50.00");
+
+        index.index(product(5, "5.00"));
+        assertArrayEquals(new int[] {5, 1, 2, 3, 4}, all(index));
+
+        index.index(product(5, "99.00"));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, all(index));
+
+        // One step in either direction
+        index.index(product(2, "35.00"));
+        assertArrayEquals(new int[] {1, 3, 2, 4, 5}, all(index));
+        index.index(product(2, "25.00"));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, all(index));
+
+        // New price, same position
+        index.index(product(3, "31.00"));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, all(index));
+        assertEquals(3100, index.range(0, Long.MAX_VALUE, 2, 1).prices()[0]);
+    }
+
+    @Test
+    void moveAmongEqualPricesKeepsProductIdOrder() {
+        ProductPriceIndex index = built(1, "10.00", 2, "20.00", 3, "20.00", 4, "20.00");
+
+        index.index(product(1, "20.00"));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, all(index));
+
+        index.index(product(2, "5.00"));
+        index.index(product(2, "20.00"));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, all(index));
+
+        index.index(product(5, "20.00"));
+        index.index(product(0, "20.00"));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, all(index));
+    }
+
+    @Test
+    void rangeAfterBoundaries() {
+        ProductPriceIndex index = built(1, "10.00", 2, "20.00", 3, "20.00", 4, "30.00", 5, "40.00");
+
+        // Cursor below the range starts at the range
+        ProductPriceIndex.Slice slice = index.rangeAfter(2000, 3000, 500, 9, 10);
+        assertArrayEquals(new int[] {2, 3, 4}, slice.productIds());
+        assertEquals(3, slice.total());
+
+        // Ties are split by product ID
+        assertArrayEquals(new int[] {3, 4}, index.rangeAfter(2000, 3000, 2000, 2, 10).productIds());
+        assertArrayEquals(new int[] {4}, index.rangeAfter(2000, 3000, 2000, 3, 10).productIds());
+
+        // Cursor at or past the end of the range
+        assertArrayEquals(new int[0], index.rangeAfter(2000, 3000, 3000, 4, 10).productIds());
+        assertArrayEquals(new int[0], index.rangeAfter(2000, 3000, 9000, 1, 10).productIds());
+
+        // A cursor entry removed since the previous page still continues after it
+        index.remove(3);
+        assertArrayEquals(new int[] {4}, index.rangeAfter(2000, 3000, 2000, 3, 10).productIds());
+
+        // Empty and inverted ranges
+        assertEquals(0, index.rangeAfter(4100, 5000, 0, 0, 10).total());
+        assertEquals(0, index.rangeAfter(3000, 2000, 0, 0, 10).total());
+        assertArrayEquals(new int[0], index.rangeAfter(3000, 2000, 0, 0, 10).productIds());
+
+        // Limit
+        assertArrayEquals(new int[] {1, 2}, index.rangeAfter(0, Long.MAX_VALUE, 0, 0, 2).productIds());
+        assertArrayEquals(new int[0], index.rangeAfter(0, Long.MAX_VALUE, 0, 0, 0).productIds());
+    }
+
+    @Test
+    void rangeOffsetBoundaries() {
+        ProductPriceIndex index = built(1, "10.00", 2, "20.00", 3, "30.00");
+
+        assertArrayEquals(new int[] {2, 3}, index.range(1500, 3000, 0, 10).productIds());
+        assertArrayEquals(new int[] {3}, index.range(1500, 3000, 1, 10).productIds());
+        assertArrayEquals(new int[0], index.range(1500, 3000, 2, 10).productIds());
+        assertArrayEquals(new int[0], index.range(1500, 3000, Long.MAX_VALUE, 10).productIds());
+        assertEquals(2, index.range(1500, 3000, Long.MAX_VALUE, 10).total());
+    }
+
+    @Test
+    void deactivatingAndReactivatingMovesEntriesOutAndIn() {
+        ProductPriceIndex index = built(1, "10.00", 2, "20.00");
+
+        index.index(product(1, "10.00", Product.ProductStatus.INACTIVE));
+        assertArrayEquals(new int[] {2}, all(index));
+        index.index(product(1, "25.00"));
+        assertArrayEquals(new int[] {2, 1}, all(index));
+        // Far beyond the initial ID capacity
+        index.index(product(100_000, "1.00"));
+        assertArrayEquals(new int[] {100_000, 2, 1}, all(index));
+    }
+
+    @Test
+    void randomUpdatesMatchSortedReference() {
+        Random random = new Random(42);
+        ProductPriceIndex index = new ProductPriceIndex();
+        Map<Integer, Long> reference = new HashMap<>();
+        for (int id = 0; id < 500; id++) {
+            apply(index, reference, id, random);
+        }
+        index.build();
+        assertArrayEquals(sorted(reference), all(index));
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(3000);
+            if (random.nextInt(10) == 0) {
+                index.remove(id);
+                reference.remove(id);
+            } else {
+                apply(index, reference, id, random);
+            }
+            if (step % 1000 == 0) {
+                assertArrayEquals(sorted(reference), all(index));
+            }
+        }
+        assertArrayEquals(sorted(reference), all(index));
+
+        // Keyset paging visits every entry once, in order
+        int[] expected = sorted(reference);
+        int seen = 0;
+        long afterPaise = Long.MIN_VALUE;
+        int afterId = Integer.MIN_VALUE;
+        while (true) {
+            ProductPriceIndex.Slice page = index.rangeAfter(Long.MIN_VALUE + 1, Long.MAX_VALUE, afterPaise, afterId, 37);
+            if (page.productIds().length == 0) {
+                break;
+            }
+            for (int id : page.productIds()) {
+                assertEquals(expected[seen++], id);
+            }
+            afterPaise = page.prices()[page.prices().length - 1];
+            afterId = page.productIds()[page.productIds().length - 1];
+        }
+        assertEquals(expected.length, seen);
+    }
+
+    private static void apply(ProductPriceIndex index, Map<Integer, Long> reference, int id, Random random) {
+        // Few distinct prices so that ties are common
+        BigDecimal price = BigDecimal.valueOf(random.nextInt(200), 1);
+        boolean active = random.nextInt(8) != 0;
+        index.index(product(id, price.toPlainString(), active ? Product.ProductStatus.ACTIVE : Product.ProductStatus.INACTIVE));
+        if (active) {
+            reference.put(id, ProductPriceIndex.toPaise(price, RoundingMode.HALF_UP));
+        } else {
+            reference.remove(id);
+        }
+    }
+
+    private static int[] sorted(Map<Integer, Long> reference) {
+        TreeSet<Integer> ids = new TreeSet<>(Comparator.<Integer>comparingLong(reference::get).thenComparing(id -> id));
+        ids.addAll(reference.keySet());
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] all(ProductPriceIndex index) {
+        return index.range(Long.MIN_VALUE + 1, Long.MAX_VALUE, 0, Integer.MAX_VALUE).productIds();
+    }
+
+    private static ProductPriceIndex built(Object... idsAndPrices) {
+        ProductPriceIndex index = new ProductPriceIndex();
+        for (int i = 0; i < idsAndPrices.length; i += 2) {
+            index.index(product((Integer) idsAndPrices[i], (String) idsAndPrices[i + 1]));
+        }
+        index.build();
+        return index;
+    }
+
+    private static Product product(int id, String price) {
+        return product(id, price, Product.ProductStatus.ACTIVE);
+    }
+
+    private static Product product(int id, String price, Product.ProductStatus status) {
+        Product product = TestProducts.reference(id);
+        product.setPrice(new BigDecimal(price));
+        product.setStatus(status);
+        return product;
+    }
+}
@@ -0,0 +1,269 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import jakarta.persistence.Entity;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks ProductPriceIndex against the price range queries of ProductRepository, which
+ * ProductPriceService falls back to, on the same rows in H2
+ * Every test builds its index from the rows currently in the database, as CatalogIndexBootstrapper does
+ */
+class ProductPriceSqlPathTest {
+
+    private static final String SEEK_FIRST = queryOf("findByPriceRangeSeekFirst",
+        BigDecimal.class, BigDecimal.class, Pageable.class);
+    private static final String SEEK_AFTER = queryOf("findByPriceRangeSeekAfter",
+        BigDecimal.class, BigDecimal.class, BigDecimal.class, Integer.class, Pageable.class);
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void buildSessionFactory() throws Exception {
+        StandardServiceRegistryBuilder registry = new StandardServiceRegistryBuilder()
+            .applySetting("hibernate.connection.url", "jdbc:h2:mem:price_sql_path;MODE=MySQL;DB_CLOSE_DELAY=-1")
+            .applySetting("hibernate.hbm2ddl.auto", "create-drop")
+            .applySetting("hibernate.jdbc.batch_size", "100")
+            .applySetting("jakarta.persistence.validation.mode", "none");
+        MetadataSources sources = new MetadataSources(registry.build());
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definition : scanner.findCandidateComponents(Product.class.getPackageName())) {
+            sources.addAnnotatedClass(Class.forName(definition.getBeanClassName()));
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void rangesAndPagesMatchTheSeekQueries() {
+        Random random = new Random(7);
+        insertProducts(random, 400);
+        ProductPriceIndex index = loadIndex();
+
+        String[][] ranges = {
+            {"0.00", "1000.00"}, {"5.00", "5.00"}, {"4.995", "12.001"}, {"12.50", "3.00"}, {"19.99", "25.00"}
+        };
+        for (String[] range : ranges) {
+            assertSameResults(index, new BigDecimal(range[0]), new BigDecimal(range[1]));
+        }
+    }
+
+    @Test
+    void resultsStillMatchAfterUpdates() {
+        Random random = new Random(11);
+        List<Integer> ids = insertProducts(random, 300);
+        ProductPriceIndex index = loadIndex();
+
+        // Index writes as the catalog listeners apply them, after each commit
+        for (int i = 0; i < 500; i++) {
+            Integer productId = ids.get(random.nextInt(ids.size()));
+            Product updated = inTransaction(session -> {
+                Product product = session.find(Product.class, productId);
+                product.setPrice(randomPrice(random));
+                product.setStatus(randomStatus(random));
+                return product;
+            });
+            index.index(updated);
+        }
+        assertSameResults(index, new BigDecimal("0.00"), new BigDecimal("1000.00"));
+        assertSameResults(index, new BigDecimal("3.10"), new BigDecimal("14.90"));
+    }
+
+    /**
+     * Rough comparison of a keyset walk through a price range, one page of 20 at a time; the index
+     * path includes loading the page's products by primary key, as ProductPageLoader does
+     * In-memory H2 has no network round trips, so this understates the gap against MySQL
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkKeysetPagesAgainstSql() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            insertProducts(random, 1000);
+        }
+        ProductPriceIndex index = loadIndex();
+        BigDecimal min = new BigDecimal("2.00");
+        BigDecimal max = new BigDecimal("18.00");
+
+        for (int round = 0; round < 3; round++) {
+            long sqlStart = System.nanoTime();
+            int sqlPages = sqlWalk(min, max, 20).size();
+            long sqlNanos = System.nanoTime() - sqlStart;
+
+            long indexStart = System.nanoTime();
+            int indexPages = indexWalk(index, min, max, 20).size();
+            long indexNanos = System.nanoTime() - indexStart;
+
+            assertEquals(sqlPages, indexPages);
+            System.out.printf("price range walk, %d pages: sql %.1f ms, index %.1f ms%n",
+                sqlPages, sqlNanos / 1e6, indexNanos / 1e6);
+        }
+    }
+
+    private static void assertSameResults(ProductPriceIndex index, BigDecimal minPrice, BigDecimal maxPrice) {
+        long min = ProductPriceIndex.toPaise(minPrice, RoundingMode.CEILING);
+        long max = ProductPriceIndex.toPaise(maxPrice, RoundingMode.FLOOR);
+        String label = minPrice + ".." + maxPrice;
+
+        List<Product> all = seek(minPrice, maxPrice, null, 0, Integer.MAX_VALUE);
+        ProductPriceIndex.Slice whole = index.range(min, max, 0, Integer.MAX_VALUE);
+        assertArrayEquals(idsOf(all), whole.productIds(), label);
+        assertEquals(all.size(), whole.total(), label);
+
+        // Offset pages, as findActiveByPriceRange serves them
+        for (int offset = 0; offset <= all.size(); offset += 13) {
+            int[] expected = idsOf(all.subList(offset, Math.min(all.size(), offset + 13)));
+            assertArrayEquals(expected, index.range(min, max, offset, 13).productIds(), label + " @" + offset);
+        }
+
+        // Keyset pages, page by page against the seek queries
+        List<int[]> sqlPages = sqlWalk(minPrice, maxPrice, 17);
+        List<int[]> indexPages = indexWalk(index, minPrice, maxPrice, 17);
+        assertEquals(sqlPages.size(), indexPages.size(), label);
+        for (int page = 0; page < sqlPages.size(); page++) {
+            assertArrayEquals(sqlPages.get(page), indexPages.get(page), label + " page " + page);
+        }
+    }
+
+    private static List<int[]> sqlWalk(BigDecimal minPrice, BigDecimal maxPrice, int size) {
+        List<int[]> pages = new ArrayList<>();
+        Product last = null;
+        while (true) {
+            List<Product> page = last == null
+                ? seek(minPrice, maxPrice, null, 0, size)
+                : seek(minPrice, maxPrice, last.getPrice(), last.getProductId(), size);
+            if (page.isEmpty()) {
+                return pages;
+            }
+            pages.add(idsOf(page));
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private static List<int[]> indexWalk(ProductPriceIndex index, BigDecimal minPrice, BigDecimal maxPrice, int size) {
+        long min = ProductPriceIndex.toPaise(minPrice, RoundingMode.CEILING);
+        long max = ProductPriceIndex.toPaise(maxPrice, RoundingMode.FLOOR);
+        List<int[]> pages = new ArrayList<>();
+        ProductPriceIndex.Slice page = index.range(min, max, 0, size);
+        while (page.productIds().length > 0) {
+            List<Integer> ids = new ArrayList<>();
+            for (int id : page.productIds()) {
+                ids.add(id);
+            }
+            List<Product> products = inSession(session -> session.byMultipleIds(Product.class).multiLoad(ids));
+            assertEquals(ids.size(), products.size());
+            pages.add(page.productIds());
+            int last = page.productIds().length - 1;
+            page = index.rangeAfter(min, max, page.prices()[last], page.productIds()[last], size);
+        }
+        return pages;
+    }
+
+    private static List<Product> seek(BigDecimal minPrice, BigDecimal maxPrice, BigDecimal afterPrice,
+                                      int afterProductId, int limit) {
+        return inSession(session -> {
+            org.hibernate.query.Query<Product> query = session
+                .createQuery(afterPrice == null ? SEEK_FIRST : SEEK_AFTER, Product.class)
+                .setParameter("minPrice", minPrice)
+                .setParameter("maxPrice", maxPrice)
+                .setMaxResults(limit);
+            if (afterPrice != null) {
+                query.setParameter("price", afterPrice).setParameter("productId", afterProductId);
+            }
+            return query.getResultList();
+        });
+    }
+
+    private static ProductPriceIndex loadIndex() {
+        ProductPriceIndex index = new ProductPriceIndex();
+        inSession(session -> session.createQuery("SELECT p FROM Product p", Product.class).getResultList())
+            .forEach(index::index);
+        index.build();
+        return index;
+    }
+
+    private static List<Integer> insertProducts(Random random, int count) {
+        return inTransaction(session -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Product product = newProduct(randomPrice(random), randomStatus(random));
+                session.persist(product);
+                ids.add(product.getProductId());
+            }
+            return ids;
+        });
+    }
+
+    // Two decimals as stored, with a narrow spread so that equal prices are common
+    private static BigDecimal randomPrice(Random random) {
+        return BigDecimal.valueOf(random.nextInt(2000), 2);
+    }
+
+    private static Product.ProductStatus randomStatus(Random random) {
+        int roll = random.nextInt(10);
+        return roll == 0 ? Product.ProductStatus.INACTIVE : roll == 1 ? Product.ProductStatus.DRAFT : Product.ProductStatus.ACTIVE;
+    }
+
+    private static int[] idsOf(List<Product> products) {
+        return products.stream().mapToInt(Product::getProductId).toArray();
+    }
+
+    private static String queryOf(String method, Class<?>... parameterTypes) {
+        try {
+            return ProductRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static <R> R inSession(Function<Session, R> work) {
+        try (Session session = sessionFactory.openSession()) {
+            return work.apply(session);
+        }
+    }
+
+    private static <R> R inTransaction(Function<Session, R> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            R result = work.apply(session);
+            session.getTransaction().commit();
+            return result;
+        }
+    }
+
+    private static Product newProduct(BigDecimal price, Product.ProductStatus status) {
+        Product product = TestProducts.persistable("Price test product");
+        product.setPrice(price);
+        product.setStatus(status);
+        return product;
+    }
+}
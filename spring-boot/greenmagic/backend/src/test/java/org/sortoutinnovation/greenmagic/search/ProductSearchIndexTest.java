@@ -0,0 +1,102 @@
+package org.sortoutinnovation.greenmagic.search;
+
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private static Product product(int id, String name, Product.ProductStatus status) {
+        Product product = TestProducts.reference(id);
+        product.setName(name);
+        product.setStatus(status);
+        return product;
+    }
+
+    @Test
+    void nameHitOutranksDescriptionHit() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product(1, "Steel lunch box", Product.ProductStatus.ACTIVE), 10, "Comes with a basmati rice recipe");
+        index.index(product(2, "Organic basmati rice", Product.ProductStatus.ACTIVE), 10, "Long grain");
+
+        assertEquals(List.of(2, 1), index.search("basmati", null, true));
+    }
+
+    @Test
+    void everyTermMustMatchAndLastTermMatchesAsPrefix() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product(1, "Organic basmati rice", Product.ProductStatus.ACTIVE), 10);
+        index.index(product(2, "Organic brown sugar", Product.ProductStatus.ACTIVE), 10);
+
+        assertEquals(List.of(1), index.search("organic bas", null, true));
+        assertEquals(List.of(), index.search("bas organicx", null, true));
+        assertEquals(List.of(), index.search("rice sugar", null, true));
+    }
+
+    @Test
+    void filtersByVendorAndStatus() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product(1, "Organic basmati rice", Product.ProductStatus.ACTIVE), 10);
+        index.index(product(2, "Organic basmati rice", Product.ProductStatus.DRAFT), 10);
+        index.index(product(3, "Organic basmati rice", Product.ProductStatus.ACTIVE), 20);
+
+        assertEquals(List.of(3, 1), index.search("rice", null, true));
+        assertEquals(List.of(2, 1), index.search("rice", 10, false));
+        assertEquals(List.of(3), index.search("rice", 20, true));
+    }
+
+    @Test
+    void reindexingReplacesOldTermsAndRemoveDropsProduct() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        Product product = product(1, "Organic basmati rice", Product.ProductStatus.ACTIVE);
+        index.index(product, 10);
+        product.setName("Organic jaggery powder");
+        index.index(product, 10);
+
+        assertEquals(List.of(), index.search("basmati", null, true));
+        assertEquals(List.of(1), index.search("jaggery", null, true));
+        assertTrue(index.isCurrent(product, 10));
+        assertFalse(index.isCurrent(product, 11));
+
+        index.remove(1);
+        assertEquals(List.of(), index.search("jaggery", null, true));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void shortPrefixKeepsMostCommonCompletionsRatherThanFirstInDictionaryOrder() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        // 100 rare completions of "ta" that sort before the common one
+        for (int i = 0; i < 100; i++) {
+            index.index(product(i + 1, String.format("Product tab%03d", i), Product.ProductStatus.ACTIVE), 10);
+        }
+        for (int i = 0; i < 5; i++) {
+            index.index(product(1000 + i, "Product tamarind", Product.ProductStatus.ACTIVE), 10);
+        }
+
+        List<Integer> results = index.search("ta", null, true);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(results.contains(1000 + i), "tamarind products must survive the expansion cut-off");
+        }
+        assertEquals(5 + 63, results.size());
+    }
+
+    @Test
+    void exactTermIsAlwaysExpanded() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (int i = 0; i < 100; i++) {
+            for (int copy = 0; copy < 2; copy++) {
+                index.index(product(i * 2 + copy + 1, String.format("Product tea%03d", i), Product.ProductStatus.ACTIVE), 10);
+            }
+        }
+        index.index(product(5000, "Product tea", Product.ProductStatus.ACTIVE), 10);
+
+        assertTrue(index.search("tea", null, true).contains(5000));
+    }
+}
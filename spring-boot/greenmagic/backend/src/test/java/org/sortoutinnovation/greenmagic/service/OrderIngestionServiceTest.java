@@ -0,0 +1,267 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.analytics.SalesRollupRecorder;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.id.TimeOrderedIdAllocator;
+import org.sortoutinnovation.greenmagic.inventory.ReservationLedger;
+import org.sortoutinnovation.greenmagic.inventory.StockUpdater;
+import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.model.OrderItem;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+import org.sortoutinnovation.greenmagic.repository.InventoryHoldRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * OrderIngestionService on H2 with the real StockUpdater, ReservationLedger and JDBC inserts
+ * The product cache reports plenty of stock, so orders are reserved and queued, and only the
+ * conditional stock UPDATE finds out that a product is short
+ */
+class OrderIngestionServiceTest {
+
+    private static final int SHORT_PRODUCT = 99;
+
+    private final DataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:order_ingestion;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    private final OrderStatusLog orderStatusLog = mock(OrderStatusLog.class);
+
+    private ReservationLedger reservationLedger;
+    private OrderIngestionService ingestion;
+
+    // Holds the writer inside the transaction of its first order while set, so later orders queue up
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+    private final CountDownLatch writerBlocked = new CountDownLatch(1);
+    private final AtomicBoolean blockFirstWrite = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE products (product_id INT PRIMARY KEY, name VARCHAR(100), quantity INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (order_id BIGINT PRIMARY KEY, user_id INT, address_id INT, "
+            + "total_price DECIMAL(10,2), status VARCHAR(50), payment_method VARCHAR(50), order_date TIMESTAMP, "
+            + "subtotal DECIMAL(10,2), total_tax DECIMAL(10,2), payment_id VARCHAR(255), payment_status VARCHAR(20), "
+            + "payment_gateway VARCHAR(50), payment_transaction_id VARCHAR(255), payment_amount DECIMAL(10,2), "
+            + "payment_currency VARCHAR(3), payment_details VARCHAR(2000), razorpay_order_id VARCHAR(255), "
+            + "razorpay_payment_id VARCHAR(255), razorpay_signature VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE order_items (order_item_id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, "
+            + "product_id INT NOT NULL, quantity INT, price DECIMAL(10,2), tax_rate DECIMAL(5,2), tax_amount DECIMAL(10,2), "
+            + "hsn_code VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'Plenty', 1000000), (2, 'Plenty too', 1000000), (?, 'Short', 1)",
+            SHORT_PRODUCT);
+
+        doAnswer(invocation -> {
+            if (blockFirstWrite.compareAndSet(true, false)) {
+                writerBlocked.countDown();
+                writerReleased.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(orderStatusLog).append(any(), anyString(), isNull(), any(), isNull());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writerReleased.countDown();
+        if (ingestion != null) {
+            ingestion.stop();
+        }
+        reservationLedger.flushOnShutdown();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void failedGroupIsRetriedOneOrderAtATime() throws Exception {
+        start(10_000, 200);
+        blockFirstWrite.set(true);
+        CompletableFuture<Order> first = ingestion.submit(order(1, 1), null);
+        assertTrue(writerBlocked.await(10, TimeUnit.SECONDS));
+
+        // Queued behind the blocked write, so they are drained as one group
+        CompletableFuture<Order> before = ingestion.submit(order(1, 2), null);
+        CompletableFuture<Order> shortOrder = ingestion.submit(order(SHORT_PRODUCT, 5), null);
+        CompletableFuture<Order> after = ingestion.submit(order(2, 3), null);
+        writerReleased.countDown();
+
+        assertNotNull(first.get(10, TimeUnit.SECONDS).getOrderId());
+        assertNotNull(before.get(10, TimeUnit.SECONDS).getOrderId());
+        assertNotNull(after.get(10, TimeUnit.SECONDS).getOrderId());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> shortOrder.get(10, TimeUnit.SECONDS));
+        assertTrue(failure.getCause().getMessage().startsWith("Insufficient stock"), failure.getCause().getMessage());
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+        assertEquals(1_000_000 - 3, quantityOf(1));
+        assertEquals(1_000_000 - 3, quantityOf(2));
+        assertEquals(1, quantityOf(SHORT_PRODUCT));
+        for (int productId : new int[] {1, 2, SHORT_PRODUCT}) {
+            assertEquals(0, reservationLedger.reservedQuantity(productId));
+        }
+    }
+
+    @Test
+    void fullQueueRejectsTheOrderAndReleasesItsHold() throws Exception {
+        start(1, 200);
+        blockFirstWrite.set(true);
+        CompletableFuture<Order> writing = ingestion.submit(order(1, 1), null);
+        assertTrue(writerBlocked.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Order> queued = ingestion.submit(order(1, 2), null);
+
+        CompletableFuture<Order> rejected = ingestion.submit(order(2, 4), null);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        assertEquals(0, reservationLedger.reservedQuantity(2));
+        assertEquals(3, reservationLedger.reservedQuantity(1));
+
+        writerReleased.countDown();
+        writing.get(10, TimeUnit.SECONDS);
+        queued.get(10, TimeUnit.SECONDS);
+        assertEquals(1_000_000, quantityOf(2));
+        assertEquals(0, reservationLedger.reservedQuantity(1));
+    }
+
+    @Test
+    void failedOrderReleasesTheHoldItReservedButNotTheCheckoutsHold() throws Exception {
+        start(10_000, 200);
+
+        CompletableFuture<Order> ownHold = ingestion.submit(order(SHORT_PRODUCT, 5), null);
+        assertThrows(ExecutionException.class, () -> ownHold.get(10, TimeUnit.SECONDS));
+        assertEquals(0, reservationLedger.reservedQuantity(SHORT_PRODUCT));
+
+        String holdId = reservationLedger.reserve(null, Map.of(SHORT_PRODUCT, 5), Map.of(SHORT_PRODUCT, product(SHORT_PRODUCT)))
+            .getHoldId();
+        CompletableFuture<Order> checkoutHold = ingestion.submit(order(SHORT_PRODUCT, 5), holdId);
+        assertThrows(ExecutionException.class, () -> checkoutHold.get(10, TimeUnit.SECONDS));
+        // Still the checkout's to retry or give up
+        assertEquals(5, reservationLedger.reservedQuantity(SHORT_PRODUCT));
+        assertDoesNotThrow(() -> reservationLedger.release(holdId));
+    }
+
+    /**
+     * Orders per second through group commit against one transaction per order (groups of one),
+     * from 8 submitting threads; in-memory H2 commits cheaply, so this understates the gain on MySQL
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkGroupCommitThroughput() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            for (int groupSize : new int[] {1, 200}) {
+                // Room for every order, so that only the write rate is measured
+                start(20_000, groupSize);
+                double perSecond = submitConcurrently(20_000, 8);
+                ingestion.stop();
+                ingestion = null;
+                System.out.printf("group size %3d: %,.0f orders/s%n", groupSize, perSecond);
+            }
+        }
+    }
+
+    private double submitConcurrently(int orders, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<CompletableFuture<Order>>> submitted = new ArrayList<>();
+            for (int i = 0; i < orders; i++) {
+                int productId = 1 + i % 2;
+                submitted.add(executor.submit(() -> ingestion.submit(order(productId, 1), null)));
+            }
+            for (Future<CompletableFuture<Order>> future : submitted) {
+                future.get().get(60, TimeUnit.SECONDS);
+            }
+            return orders / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void start(int queueCapacity, int maxGroupSize) {
+        ProductCache productCache = mock(ProductCache.class);
+        when(productCache.getById(anyInt())).thenAnswer(invocation -> Optional.of(product(invocation.getArgument(0))));
+
+        StockUpdater stockUpdater = new StockUpdater();
+        ReflectionTestUtils.setField(stockUpdater, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(stockUpdater, "productRepository", mock(ProductRepository.class));
+        ReflectionTestUtils.setField(stockUpdater, "productCache", productCache);
+        ReflectionTestUtils.setField(stockUpdater, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(stockUpdater, "entityManager", mock(EntityManager.class));
+
+        if (reservationLedger == null) {
+            reservationLedger = new ReservationLedger(transactionManager, Duration.ofMinutes(15));
+            ReflectionTestUtils.setField(reservationLedger, "productCache", productCache);
+            ReflectionTestUtils.setField(reservationLedger, "inventoryHoldRepository", mock(InventoryHoldRepository.class));
+            ReflectionTestUtils.setField(reservationLedger, "objectMapper", new ObjectMapper());
+        }
+
+        ingestion = new OrderIngestionService(transactionManager, true, queueCapacity, maxGroupSize);
+        ReflectionTestUtils.setField(ingestion, "productCache", productCache);
+        ReflectionTestUtils.setField(ingestion, "reservationLedger", reservationLedger);
+        ReflectionTestUtils.setField(ingestion, "stockUpdater", stockUpdater);
+        ReflectionTestUtils.setField(ingestion, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(ingestion, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(ingestion, "idAllocator", new TimeOrderedIdAllocator(0));
+        ReflectionTestUtils.setField(ingestion, "orderStatusLog", orderStatusLog);
+        ReflectionTestUtils.setField(ingestion, "salesRollupRecorder", mock(SalesRollupRecorder.class));
+        ingestion.start();
+    }
+
+    private int quantityOf(int productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private static Order order(int productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProduct(TestProducts.reference(productId));
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal("10.00"));
+        Order order = new Order();
+        order.setOrderItems(Set.of(item));
+        return order;
+    }
+
+    // The cache's copy: stock as of some earlier read, well above what the short product has left
+    private static Product product(int productId) {
+        return TestProducts.product(productId, 1_000_000);
+    }
+}
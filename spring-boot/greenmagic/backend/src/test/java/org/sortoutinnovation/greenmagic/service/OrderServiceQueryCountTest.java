@@ -0,0 +1,314 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.analytics.SalesRollupRecorder;
+import org.sortoutinnovation.greenmagic.cache.ProductCache;
+import org.sortoutinnovation.greenmagic.inventory.ReservationLedger;
+import org.sortoutinnovation.greenmagic.inventory.StockUpdater;
+import org.sortoutinnovation.greenmagic.model.Order;
+import org.sortoutinnovation.greenmagic.model.OrderItem;
+import org.sortoutinnovation.greenmagic.model.Product;
+import org.sortoutinnovation.greenmagic.model.TestProducts;
+import org.sortoutinnovation.greenmagic.repository.InventoryHoldRepository;
+import org.sortoutinnovation.greenmagic.repository.OrderItemRepository;
+import org.sortoutinnovation.greenmagic.repository.OrderRepository;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.sortoutinnovation.greenmagic.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Statements issued by OrderService.createOrder on H2, counted at the DataSource
+ * Before products were loaded in one findAllById, an order with N products issued N + 3 product
+ * statements on a cold product cache; now it is 3 whatever the number of lines
+ */
+@SpringJUnitConfig(OrderServiceQueryCountTest.Config.class)
+class OrderServiceQueryCountTest {
+
+    // SQL of every statement executed, in order; a JDBC batch counts once
+    private static final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class, includeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = {ProductRepository.class, OrderRepository.class,
+        OrderItemRepository.class, SalesRollupRepository.class, InventoryHoldRepository.class}))
+    @Import({OrderService.class, StockUpdater.class, ReservationLedger.class})
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            return countingDataSource(new DriverManagerDataSource("jdbc:h2:mem:order_queries;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(Product.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            // As in application.properties
+            factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_inserts", "true",
+                "jakarta.persistence.validation.mode", "none"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(jakarta.persistence.EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        // Binds inventory.holds.ttl defaults such as "15m", as Spring Boot does
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
+    @MockitoBean
+    private ProductService productService;
+
+    @MockitoBean
+    private ProductCache productCache;
+
+    @MockitoBean
+    private OrderStatusLog orderStatusLog;
+
+    @MockitoBean
+    private SalesRollupRecorder salesRollupRecorder;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final List<Integer> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void createProducts() {
+        if (!productIds.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < 20; i++) {
+            productIds.add(productRepository.save(newProduct(i)).getProductId());
+        }
+    }
+
+    @Test
+    void productStatementsDoNotGrowWithTheNumberOfLines() {
+        List<String> single = place(1);
+        List<String> twenty = place(20);
+
+        assertEquals(3, productStatements(single).size(), single.toString());
+        assertEquals(productStatements(single), productStatements(twenty));
+        // Order and item inserts are batched too
+        assertEquals(single.size(), twenty.size(), twenty.toString());
+    }
+
+    @Test
+    void eachProductIsLoadedOnceAndUpdatedInOneBatch() {
+        List<String> statements = productStatements(place(20));
+
+        // The entity load; the other select reads back the new quantities
+        long readBacks = statements.stream().filter(sql -> sql.startsWith("select product_id, quantity")).count();
+        assertEquals(1, readBacks, statements.toString());
+        assertEquals(1, statements.stream().filter(sql -> sql.startsWith("select")).count() - readBacks, statements.toString());
+        assertEquals(1, statements.stream().filter(sql -> sql.startsWith("update products")).count(), statements.toString());
+    }
+
+    /**
+     * Average time per order for 1, 5 and 20 lines, against a replay of the statements createOrder
+     * issued before the change: one lookup per product, the stock batch, the read-back and a reload
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkOrderPlacement() {
+        for (int lines : new int[] {1, 5, 20}) {
+            for (int round = 0; round < 2; round++) {
+                int orders = 2000;
+                long start = System.nanoTime();
+                for (int i = 0; i < orders; i++) {
+                    placeAsBefore(lines);
+                }
+                long beforeNanos = (System.nanoTime() - start) / orders;
+
+                start = System.nanoTime();
+                for (int i = 0; i < orders; i++) {
+                    place(lines);
+                }
+                long afterNanos = (System.nanoTime() - start) / orders;
+
+                System.out.printf("%2d lines: before %d statements, %.1f us/order; after %d statements, %.1f us/order%n",
+                    lines, placeAsBefore(lines).size(), beforeNanos / 1e3, place(lines).size(), afterNanos / 1e3);
+            }
+        }
+    }
+
+    private List<String> placeAsBefore(int lines) {
+        List<Integer> ids = productIds.subList(0, lines);
+        executed.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Order order = new Order();
+            Set<OrderItem> items = new HashSet<>();
+            for (Integer productId : ids) {
+                OrderItem item = new OrderItem();
+                item.setProduct(productRepository.findById(productId).orElseThrow());
+                item.setQuantity(1);
+                item.setPrice(new BigDecimal("10.00"));
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.setTotalPrice(new BigDecimal("10.00").multiply(BigDecimal.valueOf(lines)));
+            order.setStatus("PENDING");
+            order.setPaymentStatus(Order.PaymentStatus.PENDING);
+            jdbcTemplate.batchUpdate("UPDATE products SET quantity = quantity - 1 WHERE product_id = ? AND quantity >= 1",
+                ids.stream().map(id -> new Object[] {id}).toList());
+            jdbcTemplate.queryForList("SELECT product_id, quantity FROM products WHERE product_id IN ("
+                + String.join(",", Collections.nCopies(lines, "?")) + ")", ids.toArray());
+            productRepository.findAllById(ids);
+            orderRepository.saveAndFlush(order);
+        });
+        return new ArrayList<>(executed);
+    }
+
+    private List<String> place(int lines) {
+        Order order = new Order();
+        Set<OrderItem> items = new HashSet<>();
+        for (int i = 0; i < lines; i++) {
+            OrderItem item = new OrderItem();
+            item.setProduct(TestProducts.reference(productIds.get(i)));
+            item.setQuantity(1);
+            item.setPrice(new BigDecimal("10.00"));
+            items.add(item);
+        }
+        order.setOrderItems(items);
+
+        executed.clear();
+        orderService.createOrder(order);
+        return new ArrayList<>(executed);
+    }
+
+    // IN lists are collapsed so that statements compare across order sizes
+    private static List<String> productStatements(List<String> statements) {
+        return statements.stream()
+            .filter(sql -> sql.matches("(?s).*\\bproducts\\b.*"))
+            .map(sql -> sql.replaceAll("in \\(\\?(,\\?)*\\)", "in (?)"))
+            .toList();
+    }
+
+    private static Product newProduct(int i) {
+        Product product = TestProducts.persistable("Order test product " + i);
+        product.setMrp(new BigDecimal("12.00"));
+        product.setPrice(new BigDecimal("10.00"));
+        product.setQuantity(1_000_000);
+        return product;
+    }
+
+    // Records the SQL of every statement execution; statements are matched in lower case
+    private static DataSource countingDataSource(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] {DataSource.class},
+            forward(target, (method, result, args) -> method.getName().equals("getConnection")
+                ? countingConnection((Connection) result)
+                : result));
+    }
+
+    private static Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            forward(target, (method, result, args) -> {
+                if (method.getName().equals("prepareStatement")) {
+                    return countingStatement((PreparedStatement) result, PreparedStatement.class, (String) args[0]);
+                }
+                if (method.getName().equals("createStatement")) {
+                    return countingStatement((Statement) result, Statement.class, null);
+                }
+                return result;
+            }));
+    }
+
+    private static Object countingStatement(Statement target, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            forward(target, (method, result, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                    executed.add(sql.toLowerCase().replaceAll("\\s+", " ").trim());
+                }
+                return result;
+            }));
+    }
+
+    private interface ResultMapper {
+        Object map(java.lang.reflect.Method method, Object result, Object[] args) throws Exception;
+    }
+
+    private static InvocationHandler forward(Object target, ResultMapper mapper) {
+        return (proxy, method, args) -> {
+            try {
+                return mapper.map(method, method.invoke(target, args), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.sortoutinnovation.greenmagic.model.OrderStatus;
+import org.sortoutinnovation.greenmagic.model.OrderStatus.StatusType;
+import org.sortoutinnovation.greenmagic.repository.OrderStatusRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OrderStatusLogTest {
+
+    private final OrderStatusRepository orderStatusRepository = mock(OrderStatusRepository.class);
+    private final OrderStatusLog orderStatusLog = new OrderStatusLog();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderStatusLog, "orderStatusRepository", orderStatusRepository);
+        ReflectionTestUtils.setField(orderStatusLog, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(orderStatusLog, "entityManager", mock(EntityManager.class));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(orderStatusLog);
+    }
+
+    @Test
+    void orderStatusValuesMapToStatusTypes() {
+        assertEquals(StatusType.NEW, StatusType.fromOrderStatus("PENDING"));
+        assertEquals(StatusType.SHIPPED, StatusType.fromOrderStatus(" shipped "));
+        assertEquals(StatusType.ACCEPTED, StatusType.fromOrderStatus("CONFIRMED"));
+        assertEquals(StatusType.CANCELLED, StatusType.fromOrderStatus("Canceled"));
+        assertTrue(StatusType.isKnownOrderStatus("OUT_FOR_DELIVERY"));
+
+        for (String unknown : new String[] {"ON_HOLD", "", null}) {
+            assertEquals(StatusType.PROCESSING, StatusType.fromOrderStatus(unknown));
+            assertFalse(StatusType.isKnownOrderStatus(unknown));
+        }
+    }
+
+    @Test
+    void unknownStatusIsRecordedAsTheFallbackWithoutSla() {
+        assertDoesNotThrow(() -> orderStatusLog.append(1L, "ON_HOLD", "MYSTERY", 5, "waiting for stock"));
+        orderStatusLog.append(2L, "SHIPPED", "PROCESSING", 5, null);
+
+        List<OrderStatus> rows = commit();
+
+        OrderStatus fallback = rows.get(0);
+        assertEquals(StatusType.PROCESSING, fallback.getStatus());
+        assertEquals(StatusType.PROCESSING, fallback.getPreviousStatus());
+        assertEquals("Order status: ON_HOLD; waiting for stock", fallback.getNotes());
+        assertNull(fallback.getSlaDeadline());
+
+        OrderStatus shipped = rows.get(1);
+        assertEquals(StatusType.SHIPPED, shipped.getStatus());
+        assertNull(shipped.getNotes());
+        assertNotNull(shipped.getSlaDeadline());
+    }
+
+    @Test
+    void notesWithTheOriginalStatusStayWithinTheColumn() {
+        orderStatusLog.append(1L, "ON_HOLD", null, null, "x".repeat(500));
+
+        assertEquals(500, commit().get(0).getNotes().length());
+    }
+
+    // Runs the before-commit write and returns the rows it saved
+    @SuppressWarnings("unchecked")
+    private List<OrderStatus> commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        ArgumentCaptor<List<OrderStatus>> saved = ArgumentCaptor.forClass(List.class);
+        verify(orderStatusRepository).saveAll(saved.capture());
+        return saved.getValue();
+    }
+}
@@ -0,0 +1,73 @@
+package org.sortoutinnovation.greenmagic.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sortoutinnovation.greenmagic.model.VendorSkuSequence;
+import org.sortoutinnovation.greenmagic.repository.ProductRepository;
+import org.sortoutinnovation.greenmagic.repository.VendorSkuSequenceRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SkuAllocationServiceTest {
+
+    private final VendorSkuSequenceRepository sequenceRepository = mock(VendorSkuSequenceRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private SkuAllocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SkuAllocationService(mock(PlatformTransactionManager.class), 20);
+        ReflectionTestUtils.setField(service, "vendorSkuSequenceRepository", sequenceRepository);
+        ReflectionTestUtils.setField(service, "productRepository", productRepository);
+        when(sequenceRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void firstBlockStartsAfterHighestExistingSequence() {
+        // Products 2 to 4 were deleted, so counting would reissue 0002
+        when(sequenceRepository.findForUpdate(7)).thenReturn(Optional.empty());
+        when(productRepository.findSkusByVendorLike(7, "GM__007%"))
+            .thenReturn(List.of("GMFR0070001", "GMVE0070005", "GMGM007custom"));
+
+        assertEquals("GMFR0070006", service.nextSku(7, "Fruits"));
+        assertEquals(7, service.nextSequence(7));
+        verify(productRepository, never()).countByCreatedByUserId(any());
+    }
+
+    @Test
+    void firstBlockStartsAtOneWithoutGeneratedSkus() {
+        when(sequenceRepository.findForUpdate(7)).thenReturn(Optional.empty());
+        when(productRepository.findSkusByVendorLike(7, "GM__007%")).thenReturn(List.of());
+
+        assertEquals(1, service.nextSequence(7));
+    }
+
+    @Test
+    void existingSequenceRowIsNotReseeded() {
+        when(sequenceRepository.findForUpdate(7)).thenReturn(Optional.of(new VendorSkuSequence(7, 41L)));
+
+        assertEquals(41, service.nextSequence(7));
+        verify(productRepository, never()).findSkusByVendorLike(any(), any());
+    }
+
+    @Test
+    void sequenceOfParsesOnlyGeneratedSkus() {
+        assertEquals(12, SkuAllocationService.sequenceOf("GMFR0070012", "007"));
+        assertEquals(10000, SkuAllocationService.sequenceOf("GMFR00710000", "007"));
+        assertEquals(0, SkuAllocationService.sequenceOf("GMFR0080012", "007"));
+        assertEquals(0, SkuAllocationService.sequenceOf("GMFR007", "007"));
+        assertEquals(0, SkuAllocationService.sequenceOf("GMFR007A12", "007"));
+        assertEquals(0, SkuAllocationService.sequenceOf("XXFR0070012", "007"));
+    }
+}
@@ -0,0 +1,162 @@
+package org.sortoutinnovation.greenmagic.sla;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    // One turn of each level, in ticks
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long WHEEL = 64L * 64 * 64 * 64;
+
+    @Test
+    void timerFiresOnTheFirstTickAtOrAfterItsDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule("a", 12_500);
+
+        assertTrue(wheel.advance(12_999).isEmpty());
+        assertEquals(List.of("a"), payloads(wheel.advance(13_000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersCascadeDownAndFireExactlyOnTheirTick() {
+        long[] ticks = {1, LEVEL_1 - 1, LEVEL_1, LEVEL_1 + 1, LEVEL_2 - 1, LEVEL_2, LEVEL_2 + 1, LEVEL_2 + LEVEL_1,
+            LEVEL_3 - 1, LEVEL_3, LEVEL_3 + LEVEL_2 + LEVEL_1 + 1, WHEEL - 1};
+        for (long start : new long[] {0, 37, LEVEL_2 - 5}) {
+            TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+            wheel.advance(start - 1);
+            for (long tick : ticks) {
+                wheel.schedule(start + tick, start + tick);
+            }
+            for (long tick : ticks) {
+                long deadline = start + tick;
+                assertTrue(wheel.advance(deadline - 1).isEmpty(), "early at " + deadline);
+                assertEquals(List.of(deadline), payloads(wheel.advance(deadline)), "start " + start);
+            }
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    @Test
+    void timerScheduledMidTurnIntoTheCurrentSlotOfALevelWaitsForTheNextTurn() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        wheel.advance(100);
+        // Level 1 slot 1 holds ticks 64-127 in this turn and 4160-4223 in the next one
+        long deadline = 100 + LEVEL_2 - 1;
+        wheel.schedule(deadline, deadline);
+
+        assertTrue(wheel.advance(deadline - 1).isEmpty());
+        assertEquals(List.of(deadline), payloads(wheel.advance(deadline)));
+    }
+
+    @Test
+    void deadlinesBeyondTheWheelAreReplacedUntilDue() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        wheel.advance(12_345);
+        long[] deadlines = {12_345 + WHEEL, 12_345 + WHEEL + 1, 3 * WHEEL + 77};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        for (long deadline : deadlines) {
+            assertTrue(wheel.advance(deadline - 1).isEmpty(), "early at " + deadline);
+            assertEquals(List.of(deadline), payloads(wheel.advance(deadline)));
+        }
+    }
+
+    @Test
+    void passedDeadlinesFireOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.advance(20_400);
+        wheel.schedule("passed", 15_000);
+        wheel.schedule("before start", 0);
+
+        assertTrue(wheel.advance(20_999).isEmpty());
+        assertEquals(Set.of("passed", "before start"), new HashSet<>(payloads(wheel.advance(21_000))));
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<Long> near = wheel.schedule(10L, 10);
+        TimingWheel.Timeout<Long> far = wheel.schedule(LEVEL_3 + 5, LEVEL_3 + 5);
+        TimingWheel.Timeout<Long> kept = wheel.schedule(LEVEL_3 + 6, LEVEL_3 + 6);
+
+        assertTrue(wheel.cancel(near));
+        assertFalse(wheel.cancel(near));
+        assertTrue(wheel.advance(LEVEL_3).isEmpty());
+        // Both have cascaded to level 0 by now
+        assertTrue(wheel.cancel(far));
+        assertEquals(1, wheel.size());
+
+        List<TimingWheel.Timeout<Long>> expired = wheel.advance(LEVEL_3 + 10);
+        assertEquals(List.of(LEVEL_3 + 6), payloads(expired));
+        assertFalse(kept.isPending());
+        assertFalse(wheel.cancel(kept));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void randomSchedulesCancelsAndAdvancesMatchAReferenceList() {
+        Random random = new Random(17);
+        long origin = 1_000_000;
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, origin);
+        List<TimingWheel.Timeout<Integer>> pending = new ArrayList<>();
+        long now = origin;
+        int next = 0;
+
+        for (int step = 0; step < 2_000; step++) {
+            for (int i = random.nextInt(20); i > 0; i--) {
+                long ahead = switch (random.nextInt(5)) {
+                    case 0 -> -random.nextInt(1000);
+                    case 1 -> random.nextInt((int) LEVEL_1);
+                    case 2 -> random.nextInt((int) LEVEL_2);
+                    case 3 -> random.nextInt((int) LEVEL_3);
+                    default -> random.nextLong(2 * WHEEL);
+                };
+                pending.add(wheel.schedule(next++, now + ahead));
+            }
+            if (!pending.isEmpty() && random.nextInt(3) == 0) {
+                TimingWheel.Timeout<Integer> cancelled = pending.remove(random.nextInt(pending.size()));
+                assertTrue(wheel.cancel(cancelled));
+            }
+
+            long previous = now;
+            now += random.nextInt(10) == 0 ? random.nextLong(LEVEL_3) : 1 + random.nextInt((int) LEVEL_1);
+            List<TimingWheel.Timeout<Integer>> expired = wheel.advance(now);
+
+            Set<TimingWheel.Timeout<Integer>> due = new HashSet<>();
+            for (TimingWheel.Timeout<Integer> timeout : pending) {
+                if (timeout.getDeadlineMillis() <= now) {
+                    due.add(timeout);
+                }
+            }
+            assertEquals(due, new HashSet<>(expired), "step " + step);
+            long lastDue = previous;
+            for (TimingWheel.Timeout<Integer> timeout : expired) {
+                // Passed deadlines are due on the first tick after the previous advance
+                long dueAt = Math.max(timeout.getDeadlineMillis(), previous + 1);
+                assertTrue(dueAt >= lastDue, "out of order at step " + step);
+                lastDue = dueAt;
+            }
+            pending.removeAll(due);
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    private static <T> List<T> payloads(List<TimingWheel.Timeout<T>> timeouts) {
+        return timeouts.stream().map(TimingWheel.Timeout::getPayload).toList();
+    }
+}